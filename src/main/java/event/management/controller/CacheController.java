@@ -0,0 +1,25 @@
+package event.management.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import event.management.controller.model.CacheStatisticsData;
+import event.management.service.CacheStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/cache")
+@Slf4j
+public class CacheController {
+
+  @Autowired
+  private CacheStatisticsService cacheStatisticsService;
+
+
+  @GetMapping("/statistics")
+  public CacheStatisticsData retrieveCacheStatistics() {
+    log.info("Retrieving cache statistics.");
+    return cacheStatisticsService.retrieveCacheStatistics();
+  }
+}
@@ -2,6 +2,7 @@ package event.management.controller;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import event.management.controller.model.BulkDeleteResult;
 import event.management.controller.model.CategoryData;
 import event.management.service.CategoryService;
 import lombok.extern.slf4j.Slf4j;
@@ -44,8 +47,13 @@ public class CategoryController {
   
   
   @GetMapping
-  public List<CategoryData> retrieveAllCategory(){
+  public List<CategoryData> retrieveAllCategory(WebRequest webRequest) {
     log.info("Retrieving all categories.");
+
+    if (categoryService.retrieveCategoryListingVersion().checkNotModified(webRequest)) {
+      return null;
+    }
+
     return categoryService.retrieveAllCategory();
   }
   
@@ -62,4 +70,27 @@ public class CategoryController {
     log.info("Deleting a category with ID= {}", categoryId);
     return categoryService.deleteCategoryById(categoryId);
   }
+  
+  
+  @DeleteMapping
+  public List<BulkDeleteResult> deleteCategories(@RequestBody List<Long> categoryIds) {
+    log.info("Deleting categories {}", categoryIds);
+    return categoryService.deleteCategories(categoryIds);
+  }
+  
+  
+  @PostMapping("/{categoryId}/events")
+  public Map<String, String> addCategoryToEvents(@PathVariable Long categoryId,
+      @RequestBody Set<Long> eventIds) {
+    log.info("Adding category with ID= {} to events {}", categoryId, eventIds);
+    return categoryService.addCategoryToEvents(categoryId, eventIds);
+  }
+  
+  
+  @DeleteMapping("/{categoryId}/events")
+  public Map<String, String> removeCategoryFromEvents(@PathVariable Long categoryId,
+      @RequestBody Set<Long> eventIds) {
+    log.info("Removing category with ID= {} from events {}", categoryId, eventIds);
+    return categoryService.removeCategoryFromEvents(categoryId, eventIds);
+  }
 }
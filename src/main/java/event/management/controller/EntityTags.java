@@ -0,0 +1,51 @@
+package event.management.controller;
+
+import java.util.Objects;
+
+/**
+ * Converts between the version of a single resource and its strong entity tag, which clients send
+ * back in If-Match to make an update conditional.
+ */
+final class EntityTags {
+  private static final String ANY = "*";
+
+  private EntityTags() {}
+
+
+  /**
+   * A method formats a version as a strong entity tag.
+   * 
+   * @param version Long
+   * @return entity tag.
+   */
+  static String of(Long version) {
+    return "\"" + version + "\"";
+  }
+
+
+  /**
+   * A method reads the expected version from an If-Match header.
+   * 
+   * @param ifMatch String header value, may be null
+   * @return expected version, null if the header is absent or matches any version.
+   * @throws IllegalStateException if the header does not hold a single strong entity tag.
+   */
+  static Long parseIfMatch(String ifMatch) {
+    if (Objects.isNull(ifMatch) || ANY.equals(ifMatch.trim())) {
+      return null;
+    }
+
+    String tag = ifMatch.trim();
+
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      try {
+        return Long.valueOf(tag.substring(1, tag.length() - 1));
+      } catch (NumberFormatException e) {
+        // Reported below
+      }
+    }
+
+    throw new IllegalStateException(
+        "If-Match must hold a single strong entity tag as returned in ETag, not " + ifMatch);
+  }
+}
@@ -1,24 +1,40 @@
 package event.management.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import event.management.controller.model.EventData;
+import event.management.controller.model.EventDeletionJobData;
 import event.management.controller.model.EventDetailData;
-import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.EventDetailPage;
+import event.management.controller.model.EventSummaryData;
+import event.management.controller.model.RecurrenceData;
+import event.management.controller.model.ScheduleChangeResult;
+import event.management.service.EventDeletionService;
 import event.management.service.EventDetailService;
 import event.management.service.EventService;
+import event.management.service.RecurrenceService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 
@@ -33,31 +49,76 @@ public class EventController {
   @Autowired
   private EventDetailService eventDetailService;
 
+  @Autowired
+  private EventDeletionService eventDeletionService;
+
+  @Autowired
+  private RecurrenceService recurrenceService;
+
   @PostMapping
   @ResponseStatus(code = HttpStatus.CREATED)
-  public EventData createEvent(@RequestBody EventData eventData) {
+  public EventData createEvent(
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) Optional<String> ifMatch,
+      @RequestBody EventData eventData, HttpServletResponse response) {
+    // If-Match takes precedence over a version in the body
+    if (ifMatch.isPresent()) {
+      if (Objects.isNull(eventData.getEventId())) {
+        throw new IllegalStateException("If-Match is only allowed when updating an event.");
+      }
+      eventData.setVersion(EntityTags.parseIfMatch(ifMatch.get()));
+    }
+
     log.info("Creating event {}", eventData);
-    return eventService.saveEvent(eventData);
+    EventData savedEvent = eventService.saveEvent(eventData);
+    response.setHeader(HttpHeaders.ETAG, EntityTags.of(savedEvent.getVersion()));
+    return savedEvent;
   }
 
 
   @GetMapping
-  public List<EventData> retrieveAllEvent() {
+  public List<EventSummaryData> retrieveAllEvent(
+      @RequestParam(name = "detail_count", required = false) Optional<Boolean> detailCount,
+      WebRequest webRequest) {
     log.info("Retrieving all events.");
-    return eventService.retrieveAllEvent();
+
+    if (eventService.retrieveEventListingVersion(detailCount.orElse(false))
+        .checkNotModified(webRequest)) {
+      return null;
+    }
+
+    return eventService.retrieveAllEvent(detailCount.orElse(false));
   }
 
 
   @GetMapping("/{eventId}")
-  public EventData retrieveEventById(@PathVariable Long eventId) {
+  public EventData retrieveEventById(@PathVariable Long eventId, HttpServletResponse response) {
     log.info("Retrieving event with ID={} ", eventId);
-    return eventService.retrieveEventById(eventId);
+    EventData event = eventService.retrieveEventById(eventId);
+    response.setHeader(HttpHeaders.ETAG, EntityTags.of(event.getVersion()));
+    return event;
+  }
+
+
+
+  @DeleteMapping("/{eventId}")
+  @ResponseStatus(code = HttpStatus.ACCEPTED)
+  public EventDeletionJobData deleteEventById(@PathVariable Long eventId) {
+    log.info("Deleting event with ID={}", eventId);
+    return eventDeletionService.startEventDeletion(eventId);
+  }
+
+
+  @GetMapping("/deletions/{eventDeletionJobId}")
+  public EventDeletionJobData retrieveEventDeletionJobById(
+      @PathVariable Long eventDeletionJobId) {
+    log.info("Retrieving event deletion job with ID={}", eventDeletionJobId);
+    return eventDeletionService.retrieveEventDeletionJobById(eventDeletionJobId);
   }
 
 
 
   @GetMapping("/categories")
-  public List<EventData> retrieveAllEventByCategoryID(
+  public List<EventSummaryData> retrieveAllEventByCategoryID(
       @RequestParam(name = "category_id", required = false) Optional<Long> categoryId,
       @RequestParam(name = "category_name", required = false) Optional<String> categoryName,
       HttpServletRequest request) {
@@ -97,7 +158,7 @@ public class EventController {
 
     // If no query parameter provided, All event detail is returned.
     log.info("Retrieving all event with associated categories and details");
-    return eventService.retrieveAllEvent();
+    return eventService.retrieveAllEvent(false);
   }
 
 
@@ -112,9 +173,71 @@ public class EventController {
 
 
   @GetMapping("/{eventId}/event-details")
-  public List<EventDetailResponse> retrieveAllEventDetailByEventId(@PathVariable Long eventId) {
+  public EventDetailPage retrieveAllEventDetailByEventId(@PathVariable Long eventId,
+      @RequestParam(name = "page_size", required = false) Optional<Integer> pageSize,
+      @RequestParam(name = "page_token", required = false) Optional<String> pageToken,
+      WebRequest webRequest) {
     log.info("Retrieving event detail by event with ID={} ", eventId);
-    return eventDetailService.retrieveAllEventDetailByEventId(eventId);
+
+    if (eventDetailService.retrieveEventDetailListingVersion(eventId, null, null, null, null)
+        .checkNotModified(webRequest)) {
+      return null;
+    }
+
+    return eventDetailService.retrieveAllEventDetailByEventId(eventId, pageSize.orElse(null),
+        pageToken.orElse(null));
+  }
+
+
+  @PostMapping("/{eventId}/event-details/clone")
+  public ScheduleChangeResult cloneEventSchedule(@PathVariable Long eventId,
+      @RequestParam LocalDate from, @RequestParam LocalDate to,
+      @RequestParam(name = "target_from") LocalDate targetFrom) {
+    log.info("Copying schedule of event with ID={} from {} to {} to {}", eventId, from, to,
+        targetFrom);
+    return eventDetailService.cloneEventSchedule(eventId, from, to, targetFrom);
+  }
+
+
+  @PostMapping("/{eventId}/event-details/shift")
+  public ScheduleChangeResult shiftEventSchedule(@PathVariable Long eventId,
+      @RequestParam(required = false) Optional<LocalDate> from,
+      @RequestParam(required = false) Optional<LocalDate> to, @RequestParam long days) {
+    log.info("Moving schedule of event with ID={} by {} days", eventId, days);
+    return eventDetailService.shiftEventSchedule(eventId, from.orElse(null), to.orElse(null),
+        days);
+  }
+
+
+  @PostMapping("/{eventId}/venues/{venueId}/recurrences")
+  @ResponseStatus(code = HttpStatus.CREATED)
+  public RecurrenceData saveRecurrence(@PathVariable Long eventId, @PathVariable Long venueId,
+      @RequestBody RecurrenceData recurrenceData) {
+    log.info("Creating recurrence {} for event with ID={} and venue with ID={}", recurrenceData,
+        eventId, venueId);
+    return recurrenceService.saveRecurrence(eventId, venueId, recurrenceData);
+  }
+
+
+  @GetMapping("/{eventId}/recurrences")
+  public List<RecurrenceData> retrieveAllRecurrenceByEventId(@PathVariable Long eventId) {
+    log.info("Retrieving recurrences of event with ID={} ", eventId);
+    return recurrenceService.retrieveAllRecurrenceByEventId(eventId);
+  }
+
+
+  @GetMapping("/{eventId}/occurrences")
+  public ResponseEntity<StreamingResponseBody> retrieveAllOccurrenceByEventId(
+      @PathVariable Long eventId, @RequestParam LocalDate from, @RequestParam LocalDate to) {
+    log.info("Retrieving occurrences of event with ID={} from {} to {}", eventId, from, to);
+    recurrenceService.checkOccurrenceRange(eventId, from, to);
+
+    // The occurrences are expanded and written after this method returns
+    StreamingResponseBody body =
+        outputStream -> recurrenceService.writeOccurrences(eventId, from, to, outputStream);
+
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .body(body);
   }
 
 
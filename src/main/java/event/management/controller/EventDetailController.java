@@ -1,28 +1,48 @@
 package event.management.controller;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import event.management.controller.model.AvailabilityUpdateData;
+import event.management.controller.model.AvailabilityUpdateResult;
+import event.management.controller.model.EventDetailBatchData;
+import event.management.controller.model.EventDetailBatchResult;
 import event.management.controller.model.EventDetailData;
-import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.EventDetailPage;
+import event.management.controller.model.EventDetailSearchCriteria;
+import event.management.controller.model.ExpiryStatisticsData;
+import event.management.controller.model.ReservationData;
+import event.management.controller.model.SeatAvailabilityData;
+import event.management.service.EventDetailExpiryService;
+import event.management.service.EventDetailExportService;
 import event.management.service.EventDetailService;
+import event.management.service.ReservationService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
@@ -30,16 +50,33 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class EventDetailController {
 
+  private static final Set<String> PAGING_PARAMETERS = Set.of("page_size", "page_token");
+
+  private static final Set<String> SEARCH_PARAMETERS = Set.of("from", "to", "start_time",
+      "end_time", "venue_id", "event_id", "category_id", "is_free", "availability", "page_size",
+      "page_token");
+
   @Autowired
   private EventDetailService eventDetailService;
 
+  @Autowired
+  private EventDetailExportService eventDetailExportService;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @Autowired
+  private EventDetailExpiryService eventDetailExpiryService;
+
 
   @PostMapping
   @ResponseStatus(code = HttpStatus.CREATED)
   public EventDetailData saveEventDetail(
       @RequestParam(name = "event_id", required = true) Optional<Long> eventId,
       @RequestParam(name = "venue_id", required = true) Optional<Long> venueId,
-      @RequestBody EventDetailData eventDetailData, HttpServletRequest request) {
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) Optional<String> ifMatch,
+      @RequestBody EventDetailData eventDetailData, HttpServletRequest request,
+      HttpServletResponse response) {
 
 
     // Query parameter is required, so I have to check the parameters are null by
@@ -52,21 +89,42 @@ public class EventDetailController {
               + "should be valid parameter name, which are event_id & venue_id.");
     }
 
+    // If-Match takes precedence over a version in the body
+    if (ifMatch.isPresent()) {
+      if (Objects.isNull(eventDetailData.getEventDetailId())) {
+        throw new IllegalStateException("If-Match is only allowed when updating an event detail.");
+      }
+      eventDetailData.setVersion(EntityTags.parseIfMatch(ifMatch.get()));
+    }
+
     log.info("Creating event detail {} for event with ID={} and venue with ID={}", eventDetailData,
         eventId.get(), venueId.get());
-    return eventDetailService.saveEventDetail(eventId.get(), venueId.get(), eventDetailData);
+    EventDetailData savedEventDetail =
+        eventDetailService.saveEventDetail(eventId.get(), venueId.get(), eventDetailData);
+    response.setHeader(HttpHeaders.ETAG, EntityTags.of(savedEventDetail.getVersion()));
+    return savedEventDetail;
   }
 
 
 
+  @PostMapping("/batch")
+  public List<EventDetailBatchResult> saveEventDetails(
+      @RequestBody List<EventDetailBatchData> eventDetailsData) {
+    log.info("Creating {} event details in batch", eventDetailsData.size());
+    return eventDetailService.saveEventDetails(eventDetailsData);
+  }
+
+
   @GetMapping
-  public List<EventDetailResponse> retrieveAllEventDetail(
+  public EventDetailPage retrieveAllEventDetail(
       @RequestParam(name = "event_id", required = false) Optional<Long> eventId,
       @RequestParam(name = "event_name", required = false) Optional<String> eventName,
       @RequestParam(name = "venue_id", required = false) Optional<Long> venueId,
       @RequestParam(name = "venue_name", required = false) Optional<String> venueName,
       @RequestParam(name = "date", required = false) Optional<LocalDate> date,
-      HttpServletRequest request) {
+      @RequestParam(name = "page_size", required = false) Optional<Integer> pageSize,
+      @RequestParam(name = "page_token", required = false) Optional<String> pageToken,
+      HttpServletRequest request, WebRequest webRequest) {
 
     int parameterCount = 0;
     /*
@@ -96,54 +154,174 @@ public class EventDetailController {
               + " .Only one parameter allowed at a time.");
     }
 
+    // If query parameter has invalid name, there is a parameter other than the paging ones.
+    if (parameterCount == 0
+        && !PAGING_PARAMETERS.containsAll(request.getParameterMap().keySet())) {
+      log.warn("Invalid query parameter!!! Only allowed date, event_id, event_name, venue_id or "
+          + "venue_name with page_size and page_token.");
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "Invalid query parameter!!! Only allowed date, event_id, event_name, venue_id or "
+              + "venue_name with page_size and page_token.");
+    }
+
+    // A poll of an unchanged listing is answered with 304 before any row is read
+    if (eventDetailService.retrieveEventDetailListingVersion(eventId.orElse(null),
+        eventName.orElse(null), venueId.orElse(null), venueName.orElse(null), date.orElse(null))
+        .checkNotModified(webRequest)) {
+      return null;
+    }
+
     // Checking which query parameter is present.
     // Event Id is present
     if (eventId.isPresent()) {
       log.info("Retrieving all event detail by event ID= {}", eventId);
-      return eventDetailService.retrieveAllEventDetailByEventId(eventId.get());
+      return eventDetailService.retrieveAllEventDetailByEventId(eventId.get(),
+          pageSize.orElse(null), pageToken.orElse(null));
     }
     // Event name is present
     else if (eventName.isPresent()) {
       log.info("Retrieving all event detail by event name= {}", eventName);
-      return eventDetailService.retrieveAllEventDetailByEventName(eventName.get());
+      return eventDetailService.retrieveAllEventDetailByEventName(eventName.get(),
+          pageSize.orElse(null), pageToken.orElse(null));
     }
     // Venue Id is present
     else if (venueId.isPresent()) {
       log.info("Retrieving all event detail by venue ID= {}", venueId);
-      return eventDetailService.retrieveAllEventDetailByVenueId(venueId.get());
+      return eventDetailService.retrieveAllEventDetailByVenueId(venueId.get(),
+          pageSize.orElse(null), pageToken.orElse(null));
     }
     // Venue name is present
     else if (venueName.isPresent()) {
       log.info("Retrieving all event detail by venue name= {}", venueName);
-      return eventDetailService.retrieveAllEventDetailByVenueName(venueName.get());
+      return eventDetailService.retrieveAllEventDetailByVenueName(venueName.get(),
+          pageSize.orElse(null), pageToken.orElse(null));
     }
     // date is present
     else if (date.isPresent()) {
       log.info("Retrieving all event detail on date {}", date);
-      return eventDetailService.retrieveAllEventDetailByDate(date.get());
-    }    
-    // If the query parameter is valid this method
-    // already calls the service layer method on the above lines based on the parameter, 
-    // otherwise throw ResponseStatusException
-    // If query parameter has invalid name, the size will be greater than 0.
-    else if (request.getParameterMap().size() > 0) {
-      log.warn(
-          "Invalid query parameter!!! Only allowed date, event_id, event_name, venue_id or venue_name.");
-      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-          "Invalid query parameter!!! Only allowed date, event_id, event_name, venue_id or venue_name.");
+      return eventDetailService.retrieveAllEventDetailByDate(date.get(),
+          pageSize.orElse(null), pageToken.orElse(null));
     }
 
-    // If no query parameter provided, All event detail is returned.
+    // If no query parameter provided, All event detail is returned page by page.
     log.info("Retrieving all event detail");
-    return eventDetailService.retrieveAllEventDetail();
+    return eventDetailService.retrieveAllEventDetail(pageSize.orElse(null),
+        pageToken.orElse(null));
+  }
+
+
+  @GetMapping("/search")
+  public EventDetailPage searchEventDetail(
+      @RequestParam(name = "from", required = false) Optional<LocalDate> from,
+      @RequestParam(name = "to", required = false) Optional<LocalDate> to,
+      @RequestParam(name = "start_time", required = false) Optional<LocalTime> startTime,
+      @RequestParam(name = "end_time", required = false) Optional<LocalTime> endTime,
+      @RequestParam(name = "venue_id", required = false) Optional<Long> venueId,
+      @RequestParam(name = "event_id", required = false) Optional<Long> eventId,
+      @RequestParam(name = "category_id", required = false) Optional<Long> categoryId,
+      @RequestParam(name = "is_free", required = false) Optional<Boolean> isFree,
+      @RequestParam(name = "availability", required = false) Optional<Boolean> availability,
+      @RequestParam(name = "page_size", required = false) Optional<Integer> pageSize,
+      @RequestParam(name = "page_token", required = false) Optional<String> pageToken,
+      HttpServletRequest request) {
+
+    // Unlike the listing, any combination of filters is allowed here, but a misspelled filter
+    // would silently widen the result, so unknown parameter names are rejected.
+    if (!SEARCH_PARAMETERS.containsAll(request.getParameterMap().keySet())) {
+      log.warn("Invalid query parameter!!! Only allowed {}.", SEARCH_PARAMETERS);
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "Invalid query parameter!!! Only allowed " + SEARCH_PARAMETERS + ".");
+    }
+
+    EventDetailSearchCriteria criteria = new EventDetailSearchCriteria();
+    criteria.setFrom(from.orElse(null));
+    criteria.setTo(to.orElse(null));
+    criteria.setStartTime(startTime.orElse(null));
+    criteria.setEndTime(endTime.orElse(null));
+    criteria.setVenueId(venueId.orElse(null));
+    criteria.setEventId(eventId.orElse(null));
+    criteria.setCategoryId(categoryId.orElse(null));
+    criteria.setIsFree(isFree.orElse(null));
+    criteria.setAvailability(availability.orElse(null));
+
+    log.info("Searching event detail matching {}", criteria);
+    return eventDetailService.searchEventDetails(criteria, pageSize.orElse(null),
+        pageToken.orElse(null));
+  }
+
+
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportEventDetail(
+      @RequestParam(name = "format", required = false) Optional<String> format,
+      @RequestParam(name = "from", required = false) Optional<LocalDate> from,
+      @RequestParam(name = "to", required = false) Optional<LocalDate> to,
+      @RequestParam(name = "venue_id", required = false) Optional<Long> venueId,
+      @RequestParam(name = "event_id", required = false) Optional<Long> eventId) {
+    EventDetailExportService.Format exportFormat =
+        eventDetailExportService.findFormat(format.orElse("ndjson"));
+
+    log.info("Exporting event detail as {} from {} to {} for venue ID= {} and event ID= {}",
+        exportFormat, from, to, venueId, eventId);
+
+    // The rows are written from the database cursor after this method returns
+    StreamingResponseBody body =
+        outputStream -> eventDetailExportService.exportEventDetails(exportFormat,
+            from.orElse(null), to.orElse(null), venueId.orElse(null), eventId.orElse(null),
+            outputStream);
+
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"event-details."
+            + exportFormat.name().toLowerCase() + "\"")
+        .body(body);
+  }
+
+
+  @PostMapping("/{eventDetailId}/reservations")
+  @ResponseStatus(code = HttpStatus.CREATED)
+  public ReservationData reserveSeats(@PathVariable Long eventDetailId,
+      @RequestBody ReservationData reservationData) {
+    log.info("Reserving {} seats of event detail with ID= {}", reservationData.getQuantity(),
+        eventDetailId);
+    return reservationService.reserveSeats(eventDetailId, reservationData);
+  }
+
+
+  @GetMapping("/expiry/statistics")
+  public ExpiryStatisticsData retrieveExpiryStatistics() {
+    log.info("Retrieving event detail expiry statistics.");
+    return eventDetailExpiryService.retrieveExpiryStatistics();
+  }
+
+
+  @GetMapping("/{eventDetailId}/seats")
+  public SeatAvailabilityData retrieveSeatAvailability(@PathVariable Long eventDetailId) {
+    log.info("Retrieving seat availability of event detail with ID= {}", eventDetailId);
+    return reservationService.retrieveSeatAvailability(eventDetailId);
   }
 
 
   @PutMapping("/{eventDetailId}")
-  public EventDetailData updateEventDetailAvailabilityById(@PathVariable Long eventDetailId) {
+  public EventDetailData updateEventDetailAvailabilityById(@PathVariable Long eventDetailId,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) Optional<String> ifMatch,
+      HttpServletResponse response) {
     log.info("Event detail with ID= {} availability status was modified to unavailable",
         eventDetailId);
-    return eventDetailService.updateEventDetailAvailabilityById(eventDetailId);
+    EventDetailData eventDetail = eventDetailService.updateEventDetailAvailabilityById(
+        eventDetailId, EntityTags.parseIfMatch(ifMatch.orElse(null)));
+    response.setHeader(HttpHeaders.ETAG, EntityTags.of(eventDetail.getVersion()));
+    return eventDetail;
+  }
+
+
+
+  @PutMapping("/availability")
+  public AvailabilityUpdateResult updateEventDetailAvailability(
+      @RequestParam(name = "include_details", required = false) Optional<Boolean> includeDetails,
+      @RequestBody AvailabilityUpdateData availabilityUpdateData) {
+    log.info("Setting availability of event details {}", availabilityUpdateData);
+    return eventDetailService.updateEventDetailAvailability(availabilityUpdateData,
+        includeDetails.orElse(false));
   }
 
 
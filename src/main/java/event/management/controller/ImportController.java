@@ -0,0 +1,48 @@
+package event.management.controller;
+
+import java.io.InputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import event.management.controller.model.ImportJobData;
+import event.management.service.ImportService;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/imports")
+@Slf4j
+public class ImportController {
+
+  @Autowired
+  private ImportService importService;
+
+
+  @PostMapping
+  @ResponseStatus(code = HttpStatus.ACCEPTED)
+  public ImportJobData startImport(@RequestParam(name = "format") String format,
+      InputStream content) {
+    log.info("Starting {} import", format);
+    return importService.startImport(format, content);
+  }
+
+
+  @GetMapping("/{importJobId}")
+  public ImportJobData retrieveImportJobById(@PathVariable Long importJobId) {
+    log.info("Retrieving import job with ID={}", importJobId);
+    return importService.retrieveImportJobById(importJobId);
+  }
+
+
+  @PostMapping("/{importJobId}/resume")
+  @ResponseStatus(code = HttpStatus.ACCEPTED)
+  public ImportJobData resumeImport(@PathVariable Long importJobId) {
+    log.info("Resuming import job with ID={}", importJobId);
+    return importService.resumeImport(importJobId);
+  }
+}
@@ -0,0 +1,56 @@
+package event.management.controller;
+
+import java.time.LocalDate;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import event.management.controller.model.EventDetailData;
+import event.management.controller.model.RecurrenceData;
+import event.management.service.RecurrenceService;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/recurrences")
+@Slf4j
+public class RecurrenceController {
+
+  @Autowired
+  private RecurrenceService recurrenceService;
+
+
+  @GetMapping("/{recurrenceId}")
+  public RecurrenceData retrieveRecurrenceById(@PathVariable Long recurrenceId) {
+    log.info("Retrieving recurrence with ID={}", recurrenceId);
+    return recurrenceService.retrieveRecurrenceById(recurrenceId);
+  }
+
+
+  @DeleteMapping("/{recurrenceId}")
+  public Map<String, String> deleteRecurrenceById(@PathVariable Long recurrenceId) {
+    log.info("Deleting recurrence with ID={}", recurrenceId);
+    return recurrenceService.deleteRecurrenceById(recurrenceId);
+  }
+
+
+  @PutMapping("/{recurrenceId}/occurrences/{date}")
+  public EventDetailData overrideOccurrence(@PathVariable Long recurrenceId,
+      @PathVariable LocalDate date, @RequestBody EventDetailData eventDetailData) {
+    log.info("Overriding occurrence of recurrence with ID={} on {} with {}", recurrenceId, date,
+        eventDetailData);
+    return recurrenceService.overrideOccurrence(recurrenceId, date, eventDetailData);
+  }
+
+
+  @DeleteMapping("/{recurrenceId}/occurrences/{date}")
+  public Map<String, String> cancelOccurrence(@PathVariable Long recurrenceId,
+      @PathVariable LocalDate date) {
+    log.info("Cancelling occurrence of recurrence with ID={} on {}", recurrenceId, date);
+    return recurrenceService.cancelOccurrence(recurrenceId, date);
+  }
+}
@@ -0,0 +1,42 @@
+package event.management.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import event.management.controller.model.ReservationData;
+import event.management.service.ReservationService;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/reservations")
+@Slf4j
+public class ReservationController {
+
+  @Autowired
+  private ReservationService reservationService;
+
+
+  @GetMapping("/{reservationId}")
+  public ReservationData retrieveReservationById(@PathVariable Long reservationId) {
+    log.info("Retrieving reservation with ID={}", reservationId);
+    return reservationService.retrieveReservationById(reservationId);
+  }
+
+
+  @PostMapping("/{reservationId}/confirm")
+  public ReservationData confirmReservation(@PathVariable Long reservationId) {
+    log.info("Confirming reservation with ID={}", reservationId);
+    return reservationService.confirmReservation(reservationId);
+  }
+
+
+  @DeleteMapping("/{reservationId}")
+  public ReservationData cancelReservation(@PathVariable Long reservationId) {
+    log.info("Cancelling reservation with ID={}", reservationId);
+    return reservationService.cancelReservation(reservationId);
+  }
+}
@@ -1,7 +1,10 @@
 package event.management.controller;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,10 +14,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
-import event.management.controller.model.EventDetailResponse;
+import org.springframework.web.context.request.WebRequest;
+import event.management.controller.model.BulkDeleteResult;
+import event.management.controller.model.EventDetailPage;
+import event.management.controller.model.FreeWindowData;
+import event.management.controller.model.ScheduleChangeResult;
 import event.management.controller.model.VenueData;
+import event.management.controller.model.VenueSummaryData;
 import event.management.service.EventDetailService;
 import event.management.service.VenueService;
 import lombok.extern.slf4j.Slf4j;
@@ -48,9 +57,17 @@ public class VenueController {
   
   
   @GetMapping
-  public List<VenueData> retrieveAllVenue(){
+  public List<VenueSummaryData> retrieveAllVenue(
+      @RequestParam(name = "detail_count", required = false) Optional<Boolean> detailCount,
+      WebRequest webRequest) {
     log.info("Retrieving all venues.");
-    return venueService.retrieveAllVenue();
+
+    if (venueService.retrieveVenueListingVersion(detailCount.orElse(false))
+        .checkNotModified(webRequest)) {
+      return null;
+    }
+
+    return venueService.retrieveAllVenue(detailCount.orElse(false));
   }
   
   
@@ -62,9 +79,47 @@ public class VenueController {
   
   
   @GetMapping("/{venueId}/event-details")
-  public List<EventDetailResponse> retrieveAllEventDetailByVenueId(@PathVariable Long venueId) {
+  public EventDetailPage retrieveAllEventDetailByVenueId(@PathVariable Long venueId,
+      @RequestParam(name = "page_size", required = false) Optional<Integer> pageSize,
+      @RequestParam(name = "page_token", required = false) Optional<String> pageToken,
+      WebRequest webRequest) {
     log.info("Retrieving event detail by venue with ID={} ", venueId);
-    return eventDetailService.retrieveAllEventDetailByVenueId(venueId);
+
+    if (eventDetailService.retrieveEventDetailListingVersion(null, null, venueId, null, null)
+        .checkNotModified(webRequest)) {
+      return null;
+    }
+
+    return eventDetailService.retrieveAllEventDetailByVenueId(venueId, pageSize.orElse(null),
+        pageToken.orElse(null));
+  }
+  
+  
+  @GetMapping("/{venueId}/free-windows")
+  public List<FreeWindowData> retrieveFreeWindows(@PathVariable Long venueId,
+      @RequestParam LocalDate from, @RequestParam LocalDate to,
+      @RequestParam(name = "min_duration", required = false) Optional<Duration> minDuration) {
+    log.info("Retrieving free windows of venue with ID={} from {} to {}", venueId, from, to);
+    return venueService.retrieveFreeWindows(venueId, from, to, minDuration.orElse(null));
+  }
+  
+  
+  @PostMapping("/{venueId}/event-details/move")
+  public ScheduleChangeResult moveVenueSchedule(@PathVariable Long venueId,
+      @RequestParam(name = "target_venue_id") Long targetVenueId,
+      @RequestParam(required = false) Optional<LocalDate> from,
+      @RequestParam(required = false) Optional<LocalDate> to) {
+    log.info("Moving event details of venue with ID={} to venue with ID={}", venueId,
+        targetVenueId);
+    return eventDetailService.moveVenueSchedule(venueId, targetVenueId, from.orElse(null),
+        to.orElse(null));
+  }
+  
+  
+  @DeleteMapping
+  public List<BulkDeleteResult> deleteVenues(@RequestBody List<Long> venueIds) {
+    log.info("Deleting venues {}", venueIds);
+    return venueService.deleteVenues(venueIds);
   }
   
   
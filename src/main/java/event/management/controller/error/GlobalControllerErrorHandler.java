@@ -3,8 +3,10 @@ package event.management.controller.error;
 
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.NoSuchElementException;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
@@ -15,6 +17,9 @@ import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import event.management.service.BookingConflictException;
+import event.management.service.VersionConflictException;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 
@@ -32,6 +37,18 @@ public class GlobalControllerErrorHandler {
     private int statusCode;
     private String timestamp;
     private String uri;
+
+    // Only present for version conflicts, so the client can merge without another read
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object currentState;
+
+    // Only present for double bookings, the event details already holding the venue
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> conflictingEventDetailIds;
+
+    // Only present for double bookings with occurrences of recurrences
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Long> conflictingRecurrenceIds;
   }
 
 
@@ -69,6 +86,37 @@ public class GlobalControllerErrorHandler {
   }
 
   
+  @ExceptionHandler(VersionConflictException.class)
+  @ResponseStatus(code = HttpStatus.CONFLICT)
+  public ExceptionMessage handleVersionConflictException(VersionConflictException ex,
+      WebRequest webRequest) {
+    ExceptionMessage exeMsg =
+        buildExceptionMessage(ex, HttpStatus.CONFLICT, webRequest, LogStatus.MESSAGE_ONLY);
+    exeMsg.setCurrentState(ex.getCurrentState());
+    return exeMsg;
+  }
+
+
+  @ExceptionHandler(BookingConflictException.class)
+  @ResponseStatus(code = HttpStatus.CONFLICT)
+  public ExceptionMessage handleBookingConflictException(BookingConflictException ex,
+      WebRequest webRequest) {
+    ExceptionMessage exeMsg =
+        buildExceptionMessage(ex, HttpStatus.CONFLICT, webRequest, LogStatus.MESSAGE_ONLY);
+    exeMsg.setConflictingEventDetailIds(ex.getConflictingEventDetailIds());
+    exeMsg.setConflictingRecurrenceIds(ex.getConflictingRecurrenceIds());
+    return exeMsg;
+  }
+
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  @ResponseStatus(code = HttpStatus.CONFLICT)
+  public ExceptionMessage handleOptimisticLockingFailureException(
+      OptimisticLockingFailureException ex, WebRequest webRequest) {
+    return buildExceptionMessage(ex, HttpStatus.CONFLICT, webRequest, LogStatus.MESSAGE_ONLY);
+  }
+
+
   @ExceptionHandler(MethodArgumentTypeMismatchException.class)
   @ResponseStatus(code = HttpStatus.CONFLICT)
   public ExceptionMessage handleDateTimeParseException(MethodArgumentTypeMismatchException ex,
@@ -0,0 +1,22 @@
+package event.management.controller.model;
+
+import java.time.LocalDate;
+import java.util.Set;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Selects event details either by Id or by filters, which are combined.
+ */
+@Data
+@NoArgsConstructor
+public class AvailabilityUpdateData {
+  private Boolean availability;
+
+  private Set<Long> eventDetailIds;
+
+  private Long eventId;
+  private Long venueId;
+  private LocalDate from;
+  private LocalDate to;
+}
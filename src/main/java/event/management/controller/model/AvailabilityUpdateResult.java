@@ -0,0 +1,18 @@
+package event.management.controller.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityUpdateResult {
+  // Event details selected, and those of them that did not have the availability yet
+  private int matchedCount;
+  private int changedCount;
+
+  // Only filled in when asked for
+  private List<EventDetailResponse> eventDetails;
+}
@@ -0,0 +1,18 @@
+package event.management.controller.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDeleteResult {
+  public enum Status {
+    DELETED, NOT_FOUND, IN_USE
+  }
+
+  private Long id;
+  private Status status;
+  private String message;
+}
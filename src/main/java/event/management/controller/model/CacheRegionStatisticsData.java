@@ -0,0 +1,21 @@
+package event.management.controller.model;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CacheRegionStatisticsData {
+  private String regionName;
+  private long hitCount;
+  private long missCount;
+  private long putCount;
+
+  public CacheRegionStatisticsData(CacheRegionStatistics cacheRegionStatistics) {
+    this.regionName = cacheRegionStatistics.getRegionName();
+    this.hitCount = cacheRegionStatistics.getHitCount();
+    this.missCount = cacheRegionStatistics.getMissCount();
+    this.putCount = cacheRegionStatistics.getPutCount();
+  }
+}
@@ -0,0 +1,16 @@
+package event.management.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class CacheStatisticsData {
+  private long secondLevelCacheHitCount;
+  private long secondLevelCacheMissCount;
+  private long secondLevelCachePutCount;
+  private long queryCacheHitCount;
+  private long queryCacheMissCount;
+  private long queryCachePutCount;
+  private List<CacheRegionStatisticsData> regions = new ArrayList<>();
+}
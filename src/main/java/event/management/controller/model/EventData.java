@@ -17,23 +17,34 @@ public class EventData {
   private String duration;
   private String eventNote;
   
+  // Version the client last saw, an update with a stale version is rejected with 409
+  private Long version;
+  
   private Set<String> categories = new HashSet<>();
   
   private Set<EventDetailData> eventDetails = new HashSet<>();
   
   public EventData(Event event) {
+    this(event, true);
+  }
+  
+  public EventData(Event event, boolean withEventDetails) {
     this.eventId = event.getEventId();
     this.eventName = event.getEventName();
     this.frequency = event.getFrequency();
     this.duration = event.getDuration();
     this.eventNote = event.getEventNote();
+    this.version = event.getVersion();
     
     for(Category category : event.getCategories()) {
       categories.add(category.getCategoryName());
     }
     
-    for(EventDetail eventDetail : event.getEventDetails()) {
-      eventDetails.add(new EventDetailData(eventDetail));
+    // Leaving the lazy event details untouched when they are not wanted
+    if(withEventDetails) {
+      for(EventDetail eventDetail : event.getEventDetails()) {
+        eventDetails.add(new EventDetailData(eventDetail));
+      }
     }
   }
 }
@@ -0,0 +1,28 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import event.management.entity.EventDeletionJob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class EventDeletionJobData {
+  private Long eventDeletionJobId;
+  private Long eventId;
+  private EventDeletionJob.Status status;
+  private Long eventDetailsDeleted;
+  private String lastError;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  public EventDeletionJobData(EventDeletionJob eventDeletionJob) {
+    this.eventDeletionJobId = eventDeletionJob.getEventDeletionJobId();
+    this.eventId = eventDeletionJob.getEventId();
+    this.status = eventDeletionJob.getStatus();
+    this.eventDetailsDeleted = eventDeletionJob.getEventDetailsDeleted();
+    this.lastError = eventDeletionJob.getLastError();
+    this.startedAt = eventDeletionJob.getStartedAt();
+    this.finishedAt = eventDeletionJob.getFinishedAt();
+  }
+}
@@ -0,0 +1,15 @@
+package event.management.controller.model;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class EventDetailBatchData extends EventDetailData {
+  private Long eventId;
+  private Long venueId;
+}
@@ -0,0 +1,20 @@
+package event.management.controller.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDetailBatchResult {
+  public enum Status {
+    CREATED, FAILED
+  }
+
+  // Position of the item in the submitted array
+  private int index;
+  private Long eventDetailId;
+  private Status status;
+  private String message;
+}
@@ -17,6 +17,9 @@ public class EventDetailData {
   private Boolean isFree;
   private Boolean availability;
 
+  // Version the client last saw, an update with a stale version is rejected with 409
+  private Long version;
+
 
   public EventDetailData(EventDetail eventDetail) {
     this.eventDetailId = eventDetail.getEventDetailId();
@@ -26,5 +29,6 @@ public class EventDetailData {
     this.endTime = eventDetail.getEndTime();
     this.isFree = eventDetail.getIsFree();
     this.availability = eventDetail.getAvailability();
+    this.version = eventDetail.getVersion();
   }
 }
@@ -0,0 +1,17 @@
+package event.management.controller.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventDetailPage {
+  private List<EventDetailResponse> eventDetails = new ArrayList<>();
+
+  // Opaque token for the next page, null when this is the last page.
+  private String nextPageToken;
+}
@@ -3,11 +3,13 @@ package event.management.controller.model;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import event.management.entity.EventDetail;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 public class EventDetailResponse {
   private Long eventDetailId;
   
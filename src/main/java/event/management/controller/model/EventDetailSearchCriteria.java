@@ -0,0 +1,26 @@
+package event.management.controller.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import lombok.Data;
+
+/*
+ * Filters of the event detail search. Every field is optional and the filters that are set are
+ * combined with AND.
+ */
+@Data
+public class EventDetailSearchCriteria {
+  // Date range, both ends inclusive
+  private LocalDate from;
+  private LocalDate to;
+
+  // Time window the event detail has to fit in
+  private LocalTime startTime;
+  private LocalTime endTime;
+
+  private Long venueId;
+  private Long eventId;
+  private Long categoryId;
+  private Boolean isFree;
+  private Boolean availability;
+}
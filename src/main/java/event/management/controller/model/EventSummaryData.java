@@ -0,0 +1,33 @@
+package event.management.controller.model;
+
+import java.util.HashSet;
+import java.util.Set;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class EventSummaryData {
+  private Long eventId;
+  private String eventName;
+  private String frequency;
+  private String duration;
+  private String eventNote;
+  
+  private Set<String> categories = new HashSet<>();
+  
+  // Only present when the listing was asked for a detail count
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long detailCount;
+  
+  public EventSummaryData(Long eventId, String eventName, String frequency, String duration,
+      String eventNote, Long detailCount) {
+    this.eventId = eventId;
+    this.eventName = eventName;
+    this.frequency = frequency;
+    this.duration = duration;
+    this.eventNote = eventNote;
+    this.detailCount = detailCount;
+  }
+}
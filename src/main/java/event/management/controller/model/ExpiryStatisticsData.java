@@ -0,0 +1,22 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryStatisticsData {
+  private long runCount;
+  private long totalExpiredCount;
+
+  private LocalDateTime lastRunStartedAt;
+  private LocalDateTime lastRunFinishedAt;
+  private int lastRunExpiredCount;
+  private int lastRunBatchCount;
+
+  // Longest time an event detail expired by the last run stayed available after it was over
+  private long lastRunMaxLagSeconds;
+}
@@ -0,0 +1,16 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeWindowData {
+  private LocalDateTime start;
+
+  // Exclusive, a window may run past midnight into the next date
+  private LocalDateTime end;
+}
@@ -0,0 +1,34 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import event.management.entity.ImportJob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ImportJobData {
+  private Long importJobId;
+  private ImportJob.Format format;
+  private ImportJob.Status status;
+  private Long linesCommitted;
+  private Long recordsCreated;
+  private Long recordsSkipped;
+  private Long recordsFailed;
+  private String lastError;
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  public ImportJobData(ImportJob importJob) {
+    this.importJobId = importJob.getImportJobId();
+    this.format = importJob.getFormat();
+    this.status = importJob.getStatus();
+    this.linesCommitted = importJob.getLinesCommitted();
+    this.recordsCreated = importJob.getRecordsCreated();
+    this.recordsSkipped = importJob.getRecordsSkipped();
+    this.recordsFailed = importJob.getRecordsFailed();
+    this.lastError = importJob.getLastError();
+    this.startedAt = importJob.getStartedAt();
+    this.finishedAt = importJob.getFinishedAt();
+  }
+}
@@ -0,0 +1,42 @@
+package event.management.controller.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of an import file. The type (category, venue, event or event-detail) tells which of the
+ * fields are used. Events refer to categories and event details refer to their event and venue by
+ * name.
+ */
+@Data
+@NoArgsConstructor
+public class ImportRecordData {
+  private String type;
+
+  private String categoryName;
+  private String categoryNote;
+
+  private String venueName;
+  private Integer capacity;
+  private String venueAddress;
+  private String venueCity;
+  private String venueZip;
+  private String venueNote;
+
+  private String eventName;
+  private String frequency;
+  private String duration;
+  private String eventNote;
+  private Set<String> categories = new HashSet<>();
+
+  private String description;
+  private LocalDate date;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Boolean isFree;
+  private Boolean availability;
+}
@@ -0,0 +1,120 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.springframework.web.context.request.WebRequest;
+import lombok.Getter;
+
+/**
+ * A validator of a listing, computed with aggregate queries instead of loading the rows. The row
+ * count catches deletions and the latest modification time catches inserts and updates, so the
+ * entity tag changes whenever the listing can change.
+ */
+@Getter
+public class ListingVersion {
+  private static final String SEPARATOR = ".";
+
+  // Number of rows of the listing itself, zero when it is empty
+  private final long count;
+  private final LocalDateTime lastModified;
+  private final String tag;
+
+  public ListingVersion(Long count, LocalDateTime lastModified) {
+    this(count, lastModified, count + "-" + toMicros(lastModified));
+  }
+
+  /*
+   * Used by the event detail listings, whose rows also show the name of their event and venue.
+   */
+  public ListingVersion(Long count, LocalDateTime lastModified,
+      LocalDateTime eventLastModified, LocalDateTime venueLastModified) {
+    this(count, latest(lastModified, latest(eventLastModified, venueLastModified)));
+  }
+
+  private ListingVersion(long count, LocalDateTime lastModified, String tag) {
+    this.count = count;
+    this.lastModified = lastModified;
+    this.tag = tag;
+  }
+
+
+  /**
+   * A method combines this version with the version of other rows the listing shows, e.g. the
+   * category names of the events.
+   *
+   * @param other ListingVersion
+   * @return ListingVersion with the count of this listing.
+   */
+  public ListingVersion and(ListingVersion other) {
+    return new ListingVersion(count, latest(lastModified, other.lastModified),
+        tag + SEPARATOR + other.tag);
+  }
+
+
+  /**
+   * A method adds the archived rows a listing shows. Archived rows never change, but they are
+   * shown under the current names of their event and venue, so the tag covers their count and
+   * those names.
+   *
+   * @param archived List of EventDetailResponse archived rows of the listing
+   * @return ListingVersion counting the archived rows as well.
+   */
+  public ListingVersion withArchived(List<EventDetailResponse> archived) {
+    if (archived.isEmpty()) {
+      return this;
+    }
+
+    int names = archived.stream().map(row -> Objects.hash(row.getEventName(), row.getVenueName()))
+        .toList().hashCode();
+
+    return new ListingVersion(count + archived.size(), lastModified,
+        tag + SEPARATOR + "a" + archived.size() + "-" + Integer.toHexString(names));
+  }
+
+
+  /**
+   * A method answers If-None-Match against this version and adds the ETag header to the
+   * response. Empty listings are never reported as unmodified, so they keep answering 404. No
+   * Last-Modified is sent and If-Modified-Since is not honoured: the latest modification time
+   * does not move when rows are only deleted, so a date alone would report a shrunken listing as
+   * unmodified.
+   *
+   * @param webRequest WebRequest
+   * @return true if the client copy is current and the response is a 304 without body.
+   */
+  public boolean checkNotModified(WebRequest webRequest) {
+    if (count == 0) {
+      return false;
+    }
+
+    return webRequest.checkNotModified("W/\"" + tag + "\"");
+  }
+
+
+  /**
+   * A convenient method for turning a modification time into a compact tag part.
+   *
+   * @param dateTime LocalDateTime
+   * @return microseconds since the epoch, zero for null.
+   */
+  private static long toMicros(LocalDateTime dateTime) {
+    return Objects.isNull(dateTime) ? 0
+        : dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+  }
+
+
+  /**
+   * A convenient method for the later of two modification times.
+   *
+   * @param first LocalDateTime
+   * @param second LocalDateTime
+   * @return the later one, ignoring nulls.
+   */
+  private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+    return Stream.of(first, second).filter(Objects::nonNull).max(LocalDateTime::compareTo)
+        .orElse(null);
+  }
+}
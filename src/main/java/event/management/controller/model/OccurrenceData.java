@@ -0,0 +1,62 @@
+package event.management.controller.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import event.management.entity.Recurrence;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An occurrence of an event, either stored as an event detail or expanded from a recurrence.
+ */
+@Data
+@NoArgsConstructor
+public class OccurrenceData {
+  // Set for stored occurrences, including the ones replacing an occurrence of a recurrence
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long eventDetailId;
+
+  // Set for occurrences expanded from a recurrence
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long recurrenceId;
+
+  private Long eventId;
+  private String eventName;
+  private String venueName;
+
+  private String description;
+  private LocalDate date;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Boolean isFree;
+  private Boolean availability;
+
+
+  public OccurrenceData(EventDetailResponse eventDetail) {
+    this.eventDetailId = eventDetail.getEventDetailId();
+    this.eventId = eventDetail.getEventId();
+    this.eventName = eventDetail.getEventName();
+    this.venueName = eventDetail.getVenueName();
+    this.description = eventDetail.getDescription();
+    this.date = eventDetail.getDate();
+    this.startTime = eventDetail.getStartTime();
+    this.endTime = eventDetail.getEndTime();
+    this.isFree = eventDetail.getIsFree();
+    this.availability = eventDetail.getAvailability();
+  }
+
+
+  public OccurrenceData(Recurrence recurrence, LocalDate date) {
+    this.recurrenceId = recurrence.getRecurrenceId();
+    this.eventId = recurrence.getEvent().getEventId();
+    this.eventName = recurrence.getEvent().getEventName();
+    this.venueName = recurrence.getVenue().getVenueName();
+    this.description = recurrence.getDescription();
+    this.date = date;
+    this.startTime = recurrence.getStartTime();
+    this.endTime = recurrence.getEndTime();
+    this.isFree = recurrence.getIsFree();
+    this.availability = recurrence.getAvailability();
+  }
+}
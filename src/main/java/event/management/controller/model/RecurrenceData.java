@@ -0,0 +1,43 @@
+package event.management.controller.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import event.management.entity.Recurrence;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class RecurrenceData {
+  private Long recurrenceId;
+  private Long eventId;
+  private Long venueId;
+
+  // RRULE subset, e.g. FREQ=WEEKLY;BYDAY=MO,WE;COUNT=20, returned in normalized form
+  private String rule;
+  private LocalDate startDate;
+
+  // Derived from UNTIL or COUNT of the rule, ignored on input
+  private LocalDate untilDate;
+
+  private String description;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Boolean isFree;
+  private Boolean availability;
+
+
+  public RecurrenceData(Recurrence recurrence) {
+    this.recurrenceId = recurrence.getRecurrenceId();
+    this.eventId = recurrence.getEvent().getEventId();
+    this.venueId = recurrence.getVenue().getVenueId();
+    this.rule = recurrence.getRule();
+    this.startDate = recurrence.getStartDate();
+    this.untilDate = recurrence.getUntilDate();
+    this.description = recurrence.getDescription();
+    this.startTime = recurrence.getStartTime();
+    this.endTime = recurrence.getEndTime();
+    this.isFree = recurrence.getIsFree();
+    this.availability = recurrence.getAvailability();
+  }
+}
@@ -0,0 +1,26 @@
+package event.management.controller.model;
+
+import java.time.LocalDateTime;
+import event.management.entity.SeatReservation;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ReservationData {
+  private Long reservationId;
+  private Long eventDetailId;
+  private Integer quantity;
+  private SeatReservation.Status status;
+  private LocalDateTime createdAt;
+  private LocalDateTime expiresAt;
+
+  public ReservationData(SeatReservation seatReservation) {
+    this.reservationId = seatReservation.getReservationId();
+    this.eventDetailId = seatReservation.getEventDetailId();
+    this.quantity = seatReservation.getQuantity();
+    this.status = seatReservation.getStatus();
+    this.createdAt = seatReservation.getCreatedAt();
+    this.expiresAt = seatReservation.getExpiresAt();
+  }
+}
@@ -0,0 +1,16 @@
+package event.management.controller.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleChangeResult {
+  private int eventDetailCount;
+
+  // Ids of the created event details when the schedule was copied, null otherwise
+  private Long firstEventDetailId;
+  private Long lastEventDetailId;
+}
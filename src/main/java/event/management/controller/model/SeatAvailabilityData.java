@@ -0,0 +1,16 @@
+package event.management.controller.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailabilityData {
+  private Long eventDetailId;
+  private Integer capacity;
+
+  // Seats neither held nor sold
+  private Integer available;
+}
@@ -0,0 +1,23 @@
+package event.management.controller.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueSummaryData {
+  private Long venueId;  
+  private String venueName;
+  private Integer capacity;
+  private String venueAddress;
+  private String venueCity;
+  private String venueZip;
+  private String venueNote;
+  
+  // Only present when the listing was asked for a detail count
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long detailCount;
+}
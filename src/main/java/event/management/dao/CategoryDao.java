@@ -1,8 +1,17 @@
 package event.management.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import event.management.controller.model.ListingVersion;
 import event.management.entity.Category;
+import jakarta.persistence.QueryHint;
 
 
 public interface CategoryDao extends JpaRepository<Category, Long> {
@@ -12,6 +21,48 @@ public interface CategoryDao extends JpaRepository<Category, Long> {
    * @param categories Set<Category>
    * @return set of categories found in DB.
    */
-  Set<Category> findAllByCategoryNameIn(Set<String> categories); 
-  
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+  Set<Category> findAllByCategoryNameIn(Set<String> categories);
+
+
+  /**
+   * A method returns which of the given category Ids exist.
+   * @param categoryIds Collection of category Id
+   * @return list of existing category Id.
+   */
+  @Query("SELECT c.categoryId FROM Category c WHERE c.categoryId IN :categoryIds")
+  List<Long> findCategoryIdsByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+
+
+  /**
+   * A method deletes every given category that no event belongs to with a single statement. The
+   * check and the delete happen in the same statement, so a category that gets an event
+   * concurrently is never deleted. It is native because the JPQL form also issues a join table
+   * cleanup whose subqueries MySQL rejects on the table being deleted from.
+   * @param categoryIds Collection of category Id
+   * @return number of deleted categories.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category"))
+  @Modifying
+  @Query(value = "DELETE FROM category WHERE category_id IN (:categoryIds) AND NOT EXISTS"
+      + " (SELECT 1 FROM event_category ec WHERE ec.category_id = category.category_id)",
+      nativeQuery = true)
+  int deleteUnusedByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+
+
+  /**
+   * A method returns (category name, category Id) pairs of every category.
+   * @return list of category name and Id pairs.
+   */
+  @Query("SELECT c.categoryName, c.categoryId FROM Category c")
+  List<Object[]> findAllCategoryNameAndId();
+
+
+  /**
+   * A method returns the validator of the category listing without loading any category.
+   * @return ListingVersion
+   */
+  @Query("SELECT new event.management.controller.model.ListingVersion("
+      + "COUNT(c), MAX(c.lastModified)) FROM Category c")
+  ListingVersion findListingVersion();
 }
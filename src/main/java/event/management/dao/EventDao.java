@@ -1,15 +1,187 @@
 package event.management.dao;
 
+import java.util.Collection;
 import java.util.List;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import event.management.controller.model.EventSummaryData;
+import event.management.controller.model.ListingVersion;
 import event.management.entity.Event;
+import jakarta.persistence.QueryHint;
 
 public interface EventDao extends JpaRepository<Event, Long> {
 
   /**
-   * A method returns a list of event by a specific category Id.
+   * A method checks whether any event belongs to a specific category Id without loading them.
    * @param categoryId Long
-   * @return list of event.
+   * @return true if at least one event is in the category.
    */
-  List<Event> findAllByCategoriesCategoryId(Long categoryId);  
+  boolean existsByCategoriesCategoryId(Long categoryId);
+
+
+  /*
+   * Projects events straight into EventSummaryData without touching their event details. The
+   * detail count subquery only runs when withDetailCount is true.
+   */
+  String SELECT_SUMMARY = "SELECT new event.management.controller.model.EventSummaryData("
+      + "e.eventId, e.eventName, e.frequency, e.duration, e.eventNote,"
+      + " CASE WHEN :withDetailCount = true"
+      + " THEN (SELECT COUNT(ed) FROM EventDetail ed WHERE ed.event = e) END)"
+      + " FROM Event e";
+
+
+  /**
+   * A method returns a summary of every event.
+   * @param withDetailCount boolean whether to count the event details of each event
+   * @return list of event summary.
+   */
+  @Query(SELECT_SUMMARY + " ORDER BY e.eventId")
+  List<EventSummaryData> findAllSummaries(@Param("withDetailCount") boolean withDetailCount);
+
+
+  /**
+   * A method returns a summary of the events by a specific category Id.
+   * @param categoryId Long
+   * @param withDetailCount boolean whether to count the event details of each event
+   * @return list of event summary.
+   */
+  @Query(SELECT_SUMMARY
+      + " JOIN e.categories c WHERE c.categoryId = :categoryId ORDER BY e.eventId")
+  List<EventSummaryData> findSummariesByCategoryId(@Param("categoryId") Long categoryId,
+      @Param("withDetailCount") boolean withDetailCount);
+
+
+  /**
+   * A method returns a summary of the events by a specific category name. The filter runs in the
+   * database through the category join.
+   * @param categoryName String
+   * @param withDetailCount boolean whether to count the event details of each event
+   * @return list of event summary.
+   */
+  @Query(SELECT_SUMMARY
+      + " JOIN e.categories c WHERE c.categoryName = :categoryName ORDER BY e.eventId")
+  List<EventSummaryData> findSummariesByCategoryName(@Param("categoryName") String categoryName,
+      @Param("withDetailCount") boolean withDetailCount);
+
+
+  /**
+   * A method returns (event Id, category name) pairs of the given events.
+   * @param eventIds Collection<Long>
+   * @return list of event Id and category name pairs.
+   */
+  @Query("SELECT e.eventId, c.categoryName FROM Event e JOIN e.categories c"
+      + " WHERE e.eventId IN :eventIds")
+  List<Object[]> findCategoryNamesByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+
+  /**
+   * Links a category to every given event that exists and is not linked to it yet, in one
+   * statement.
+   * @param categoryId Long
+   * @param eventIds Collection<Long>
+   * @return number of events linked.
+   */
+  // Hibernate drops cached collections only through the query space of their element entity,
+  // never through their join table, so the category space is what drops the stale
+  // Event.categories entries (CategoryLinkCacheTest fails without it)
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category"),
+      @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_category")})
+  @Modifying
+  @Query(value = "INSERT INTO event_category (event_id, category_id)"
+      + " SELECT e.event_id, :categoryId FROM event e WHERE e.event_id IN :eventIds"
+      + " AND NOT EXISTS (SELECT 1 FROM event_category ec"
+      + " WHERE ec.event_id = e.event_id AND ec.category_id = :categoryId)", nativeQuery = true)
+  int addCategoryToEvents(@Param("categoryId") Long categoryId,
+      @Param("eventIds") Collection<Long> eventIds);
+
+
+  /**
+   * Unlinks a category from every given event in one statement.
+   * @param categoryId Long
+   * @param eventIds Collection<Long>
+   * @return number of events unlinked.
+   */
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category"),
+      @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_category")})
+  @Modifying
+  @Query(value = "DELETE FROM event_category WHERE category_id = :categoryId"
+      + " AND event_id IN :eventIds", nativeQuery = true)
+  int removeCategoryFromEvents(@Param("categoryId") Long categoryId,
+      @Param("eventIds") Collection<Long> eventIds);
+
+
+  /**
+   * Bumps the version of the given events, whose category links were changed by a native
+   * statement that MySQL does not see as an update of the event row.
+   * @param eventIds Collection<Long>
+   * @return number of events bumped.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event"))
+  @Modifying
+  @Query(value = "UPDATE event SET version = version + 1 WHERE event_id IN :eventIds",
+      nativeQuery = true)
+  int incrementVersions(@Param("eventIds") Collection<Long> eventIds);
+
+
+  /**
+   * Unlinks an event from all of its categories in one statement.
+   * @param eventId Long
+   * @return number of categories unlinked.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_category"))
+  @Modifying
+  @Query(value = "DELETE FROM event_category WHERE event_id = :eventId", nativeQuery = true)
+  int removeEventFromCategories(@Param("eventId") Long eventId);
+
+
+  /**
+   * Deletes the event row itself without cascading to its event details, which must already be
+   * gone.
+   * @param eventId Long
+   * @return number of events deleted.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event"))
+  @Modifying
+  @Query(value = "DELETE FROM event WHERE event_id = :eventId", nativeQuery = true)
+  int deleteEventRowById(@Param("eventId") Long eventId);
+
+
+  /**
+   * A method returns the Ids and current names of the given events that exist.
+   * @param eventIds Collection of event Id
+   * @return rows of event Id and event name.
+   */
+  @Query("SELECT e.eventId, e.eventName FROM Event e WHERE e.eventId IN :eventIds")
+  List<Object[]> findEventNamesByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+
+  /**
+   * A method returns the Ids of the events with a name, from the event name index. Names are not
+   * unique, so there may be several.
+   * @param eventName String
+   * @return list of event Id in ascending order.
+   */
+  @Query("SELECT e.eventId FROM Event e WHERE e.eventName = :eventName ORDER BY e.eventId")
+  List<Long> findEventIdsByEventName(@Param("eventName") String eventName);
+
+
+  /**
+   * A method returns (event name, event Id) pairs of every event.
+   * @return list of event name and Id pairs.
+   */
+  @Query("SELECT e.eventName, e.eventId FROM Event e")
+  List<Object[]> findAllEventNameAndId();
+
+
+  /**
+   * A method returns the validator of the event listing without loading any event.
+   * @return ListingVersion
+   */
+  @Query("SELECT new event.management.controller.model.ListingVersion("
+      + "COUNT(e), MAX(e.lastModified)) FROM Event e")
+  ListingVersion findListingVersion();
 }
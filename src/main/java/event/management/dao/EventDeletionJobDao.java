@@ -0,0 +1,75 @@
+package event.management.dao;
+
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.EventDeletionJob;
+
+public interface EventDeletionJobDao extends JpaRepository<EventDeletionJob, Long> {
+
+  /**
+   * Adds the size of a deleted chunk to the progress of a running deletion job and renews its
+   * heartbeat. The owner check keeps a worker that lost its job, e.g. one paused past the stale
+   * time, from deleting on while a new job for the event runs.
+   * @param eventDeletionJobId Long
+   * @param owner String JobOwner Id of the process running the job
+   * @param count int number of event details deleted by the chunk
+   * @param now LocalDateTime
+   * @return 1 if the job is still running under the owner, otherwise 0.
+   */
+  @Modifying
+  @Query("UPDATE EventDeletionJob edj SET edj.eventDetailsDeleted = edj.eventDetailsDeleted"
+      + " + :count, edj.heartbeatAt = :now WHERE edj.eventDeletionJobId = :eventDeletionJobId"
+      + " AND edj.owner = :owner AND edj.status = 'RUNNING'")
+  int addEventDetailsDeleted(@Param("eventDeletionJobId") Long eventDeletionJobId,
+      @Param("owner") String owner, @Param("count") int count, @Param("now") LocalDateTime now);
+
+
+  /**
+   * Ends a running deletion job and marks it inactive, unless it was failed as stale meanwhile.
+   * @param eventDeletionJobId Long
+   * @param owner String JobOwner Id of the process running the job
+   * @param to EventDeletionJob.Status COMPLETED or FAILED
+   * @param lastError String
+   * @param finishedAt LocalDateTime
+   * @return 1 if the job was ended, otherwise 0.
+   */
+  @Modifying
+  @Query("UPDATE EventDeletionJob edj SET edj.status = :to, edj.active = null,"
+      + " edj.lastError = :lastError, edj.finishedAt = :finishedAt"
+      + " WHERE edj.eventDeletionJobId = :eventDeletionJobId AND edj.owner = :owner"
+      + " AND edj.status = 'RUNNING'")
+  int finishEventDeletionJob(@Param("eventDeletionJobId") Long eventDeletionJobId,
+      @Param("owner") String owner, @Param("to") EventDeletionJob.Status to,
+      @Param("lastError") String lastError, @Param("finishedAt") LocalDateTime finishedAt);
+
+
+  /**
+   * Renews the heartbeat of the running deletion jobs of a process.
+   * @param owner String JobOwner Id of the process
+   * @param now LocalDateTime
+   * @return number of running deletion jobs of the process.
+   */
+  @Modifying
+  @Query("UPDATE EventDeletionJob edj SET edj.heartbeatAt = :now"
+      + " WHERE edj.owner = :owner AND edj.status = 'RUNNING'")
+  int updateHeartbeat(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+
+  /**
+   * Fails the running deletion jobs whose process stopped reporting in, whichever process ran
+   * them, and marks them inactive so their events can be deleted again.
+   * @param staleBefore LocalDateTime heartbeats before it are stale
+   * @param lastError String
+   * @param finishedAt LocalDateTime
+   * @return number of failed deletion jobs.
+   */
+  @Modifying
+  @Query("UPDATE EventDeletionJob edj SET edj.status = 'FAILED', edj.active = null,"
+      + " edj.lastError = :lastError, edj.finishedAt = :finishedAt"
+      + " WHERE edj.status = 'RUNNING' AND edj.heartbeatAt < :staleBefore")
+  int failStaleEventDeletionJobs(@Param("staleBefore") LocalDateTime staleBefore,
+      @Param("lastError") String lastError, @Param("finishedAt") LocalDateTime finishedAt);
+}
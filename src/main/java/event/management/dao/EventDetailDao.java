@@ -1,43 +1,485 @@
 package event.management.dao;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.ListingVersion;
 import event.management.entity.EventDetail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
-public interface EventDetailDao extends JpaRepository<EventDetail, Long> {
+public interface EventDetailDao extends JpaRepository<EventDetail, Long>, EventDetailSearchDao {
 
-  List<EventDetail> findAllByDate(LocalDate date);
+  /*
+   * Keyset predicate for the listing pages, which are ordered by (date, eventDetailId). A null
+   * afterId selects the first page. Rows without a date sort first in MySQL, so a cursor sitting
+   * on such a row continues with the remaining undated rows and then every dated row.
+   */
+  String AFTER_CURSOR = "(:afterId IS NULL"
+      + " OR (:afterDate IS NULL AND (ed.date IS NOT NULL OR ed.eventDetailId > :afterId))"
+      + " OR ed.date > :afterDate"
+      + " OR (ed.date = :afterDate AND ed.eventDetailId > :afterId))";
 
-  List<EventDetail> findAllByEventEventId(Long eventId);
+  String PAGE_ORDER = " ORDER BY ed.date, ed.eventDetailId";
 
-  List<EventDetail> findAllByEventEventName(String event);
-  
-  List<EventDetail> findAllByVenueVenueId(Long eventId);
+  /*
+   * Projects the listing rows straight into EventDetailResponse from one joined statement, so no
+   * EventDetail, Event or Venue entity is materialized.
+   */
+  String SELECT_RESPONSE = "SELECT new event.management.controller.model.EventDetailResponse("
+      + "ed.eventDetailId, e.eventId, e.eventName, v.venueName, ed.description, ed.date,"
+      + " ed.startTime, ed.endTime, ed.isFree, ed.availability)"
+      + " FROM EventDetail ed JOIN ed.event e JOIN ed.venue v";
+
+  /*
+   * The same projection for the unfiltered listing. With inner joins MySQL starts from the smaller
+   * event table and sorts every joined row, the outer joins make it read event_detail in the order
+   * of the date index and stop after one page. The foreign keys make both forms equal.
+   */
+  String SELECT_RESPONSE_BY_DATE = "SELECT new event.management.controller.model"
+      + ".EventDetailResponse(ed.eventDetailId, e.eventId, e.eventName, v.venueName,"
+      + " ed.description, ed.date, ed.startTime, ed.endTime, ed.isFree, ed.availability)"
+      + " FROM EventDetail ed LEFT JOIN ed.event e LEFT JOIN ed.venue v"
+      + " WHERE ed.event IS NOT NULL AND ed.venue IS NOT NULL";
+
+  /*
+   * Validator of a filtered listing, aggregated over the same join so that renaming an event or a
+   * venue shown in the listing changes it as well.
+   */
+  String SELECT_VERSION = "SELECT new event.management.controller.model.ListingVersion("
+      + "COUNT(ed), MAX(ed.lastModified), MAX(e.lastModified), MAX(v.lastModified))"
+      + " FROM EventDetail ed JOIN ed.event e JOIN ed.venue v";
+
+
+  /**
+   * Returns a page of event details following a keyset cursor.
+   * @param afterDate LocalDate date of the last row of the previous page
+   * @param afterId Long Id of the last row of the previous page, null for the first page
+   * @param pageable Pageable limits the number of rows
+   * @return list of event detail responses.
+   */
+  @Query(SELECT_RESPONSE_BY_DATE + " AND " + AFTER_CURSOR + PAGE_ORDER)
+  List<EventDetailResponse> findPage(@Param("afterDate") LocalDate afterDate,
+      @Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * Returns the validator of the event detail rows alone, from the count and the last_modified
+   * index.
+   * @return ListingVersion
+   */
+  @Query("SELECT new event.management.controller.model.ListingVersion("
+      + "COUNT(ed), MAX(ed.lastModified)) FROM EventDetail ed")
+  ListingVersion findListingVersion();
 
-  List<EventDetail> findAllByVenueVenueName(String venue);
+  @Query(SELECT_VERSION + " WHERE ed.date = :date")
+  ListingVersion findListingVersionByDate(@Param("date") LocalDate date);
+
+  @Query(SELECT_VERSION + " WHERE e.eventId = :eventId")
+  ListingVersion findListingVersionByEventId(@Param("eventId") Long eventId);
+
+  @Query(SELECT_VERSION + " WHERE e.eventName = :eventName")
+  ListingVersion findListingVersionByEventName(@Param("eventName") String eventName);
+
+  @Query(SELECT_VERSION + " WHERE v.venueId = :venueId")
+  ListingVersion findListingVersionByVenueId(@Param("venueId") Long venueId);
+
+  @Query(SELECT_VERSION + " WHERE v.venueName = :venueName")
+  ListingVersion findListingVersionByVenueName(@Param("venueName") String venueName);
+
+
+  /**
+   * Returns the whole schedule of a date, which the schedule cache keeps for the date listing.
+   * @param date LocalDate
+   * @return list of event detail responses ordered by event detail Id.
+   */
+  @Query(SELECT_RESPONSE + " WHERE ed.date = :date" + PAGE_ORDER)
+  List<EventDetailResponse> findAllResponsesByDate(@Param("date") LocalDate date);
+
+  @Query(SELECT_RESPONSE + " WHERE e.eventId = :eventId AND " + AFTER_CURSOR
+      + PAGE_ORDER)
+  List<EventDetailResponse> findPageByEventId(@Param("eventId") Long eventId,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Pageable pageable);
+
+  @Query(SELECT_RESPONSE + " WHERE v.venueId = :venueId AND " + AFTER_CURSOR
+      + PAGE_ORDER)
+  List<EventDetailResponse> findPageByVenueId(@Param("venueId") Long venueId,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Pageable pageable);
+
+  /**
+   * Streams event details for an export with a forward-only cursor. Rows are projections, so the
+   * persistence context does not grow however many rows are read. Every filter is optional. The
+   * fetch size of Integer.MIN_VALUE makes Connector/J read the rows one by one as they arrive
+   * instead of buffering the whole result, without switching the other statements of the
+   * application to server-side cursors. The connection runs no other statement until the stream
+   * is closed.
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param venueId Long
+   * @param eventId Long
+   * @return stream of event detail responses, which must be closed.
+   */
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query(SELECT_RESPONSE + " WHERE (:from IS NULL OR ed.date >= :from)"
+      + " AND (:to IS NULL OR ed.date <= :to)"
+      + " AND (:venueId IS NULL OR v.venueId = :venueId)"
+      + " AND (:eventId IS NULL OR e.eventId = :eventId)" + PAGE_ORDER)
+  Stream<EventDetailResponse> streamForExport(@Param("from") LocalDate from,
+      @Param("to") LocalDate to, @Param("venueId") Long venueId, @Param("eventId") Long eventId);
+
+  /**
+   * Streams the event details of an event between two dates in the order of the occurrence
+   * listing, so they can be merged with the occurrences expanded from its recurrences. Rows are
+   * read one by one like those of streamForExport.
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return stream of event detail responses, which must be closed.
+   */
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  @Query(SELECT_RESPONSE + " WHERE e.eventId = :eventId AND ed.date BETWEEN :from AND :to"
+      + " ORDER BY ed.date, ed.startTime, ed.eventDetailId")
+  Stream<EventDetailResponse> streamByEventIdBetween(@Param("eventId") Long eventId,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  /**
+   * Returns the dates an event takes place on, read from the (event_id, date) index only.
+   * @param eventId Long
+   * @return set of dates.
+   */
+  @Query("SELECT DISTINCT ed.date FROM EventDetail ed WHERE ed.event.eventId = :eventId")
+  Set<LocalDate> findDatesByEventId(@Param("eventId") Long eventId);
+
+
+  /**
+   * Returns the dates a venue hosts an event detail on, read from the (venue_id, date,
+   * event_detail_id) index only.
+   * @param venueId Long
+   * @return set of dates.
+   */
+  @Query("SELECT DISTINCT ed.date FROM EventDetail ed WHERE ed.venue.venueId = :venueId")
+  Set<LocalDate> findDatesByVenueId(@Param("venueId") Long venueId);
+
+
+  /**
+   * Returns the time slots booked at a venue over a range of dates, read from the (venue_id,
+   * date, event_detail_id) index.
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return rows of date, event detail Id, start time and end time.
+   */
+  @Query("SELECT ed.date, ed.eventDetailId, ed.startTime, ed.endTime FROM EventDetail ed"
+      + " WHERE ed.venue.venueId = :venueId AND ed.date BETWEEN :from AND :to")
+  List<Object[]> findBookingsByVenueId(@Param("venueId") Long venueId,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+  /**
+   * Returns the time slots of the event details a bulk schedule change touches and locks them,
+   * together with the index range, so the statement that follows changes exactly these rows.
+   * Every filter is optional.
+   * @param eventId Long
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return rows of event detail Id, venue Id, date, start time and end time ordered by event
+   *         detail Id.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT ed.eventDetailId, ed.venue.venueId, ed.date, ed.startTime, ed.endTime"
+      + " FROM EventDetail ed WHERE (:eventId IS NULL OR ed.event.eventId = :eventId)"
+      + " AND (:venueId IS NULL OR ed.venue.venueId = :venueId)"
+      + " AND (:from IS NULL OR ed.date >= :from) AND (:to IS NULL OR ed.date <= :to)"
+      + " ORDER BY ed.eventDetailId")
+  List<Object[]> findBookingsForUpdate(@Param("eventId") Long eventId,
+      @Param("venueId") Long venueId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+  /**
+   * Returns the next event details an availability change selects with filters, without loading
+   * them, following a keyset cursor. Every filter is optional.
+   * @param eventId Long
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param afterDate LocalDate date of the last row of the previous chunk
+   * @param afterId Long Id of the last row of the previous chunk, null for the first chunk
+   * @param pageable Pageable limits the number of rows
+   * @return rows of event detail Id and date ordered by date and event detail Id.
+   */
+  @Query("SELECT ed.eventDetailId, ed.date FROM EventDetail ed"
+      + " WHERE (:eventId IS NULL OR ed.event.eventId = :eventId)"
+      + " AND (:venueId IS NULL OR ed.venue.venueId = :venueId)"
+      + " AND (:from IS NULL OR ed.date >= :from) AND (:to IS NULL OR ed.date <= :to)"
+      + " AND " + AFTER_CURSOR + PAGE_ORDER)
+  List<Object[]> findDatesPageBy(@Param("eventId") Long eventId,
+      @Param("venueId") Long venueId, @Param("from") LocalDate from, @Param("to") LocalDate to,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+      Pageable pageable);
+
+  /**
+   * Returns the event details of an availability change given by Id that exist.
+   * @param eventDetailIds Collection of Long
+   * @return rows of event detail Id and date ordered by event detail Id.
+   */
+  @Query("SELECT ed.eventDetailId, ed.date FROM EventDetail ed"
+      + " WHERE ed.eventDetailId IN :eventDetailIds ORDER BY ed.eventDetailId")
+  List<Object[]> findDatesByEventDetailIdIn(
+      @Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+  @Query(SELECT_RESPONSE + " WHERE ed.eventDetailId IN :eventDetailIds" + PAGE_ORDER)
+  List<EventDetailResponse> findAllResponsesByEventDetailIdIn(
+      @Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+
+  /**
+   * Returns what a reservation checks before it takes seats of an event detail, in one statement.
+   * @param eventDetailId Long
+   * @return a row of date, start time, end time, availability and venue capacity, none if the
+   *         event detail is not found.
+   */
+  @Query("SELECT ed.date, ed.startTime, ed.endTime, ed.availability, v.capacity"
+      + " FROM EventDetail ed LEFT JOIN ed.venue v WHERE ed.eventDetailId = :eventDetailId")
+  List<Object[]> findReservationCheck(@Param("eventDetailId") Long eventDetailId);
+
+
+  /**
+   * Returns the next available event details that are over, following a keyset cursor on the
+   * (availability, date) index. An event detail is over once its date has passed, or on its date
+   * once its end time has passed. An end time not after the start time runs to midnight.
+   * @param today LocalDate
+   * @param now LocalTime
+   * @param afterDate LocalDate date of the last row of the previous batch
+   * @param afterId Long Id of the last row of the previous batch, null for the first batch
+   * @param pageable Pageable limits the number of rows
+   * @return rows of event detail Id, date, start time and end time ordered by date and event
+   *         detail Id.
+   */
+  @Query("SELECT ed.eventDetailId, ed.date, ed.startTime, ed.endTime FROM EventDetail ed"
+      + " WHERE ed.availability = true AND (ed.date < :today OR (ed.date = :today"
+      + " AND ed.endTime > ed.startTime AND ed.endTime <= :now)) AND " + AFTER_CURSOR
+      + PAGE_ORDER)
+  List<Object[]> findExpiredPage(@Param("today") LocalDate today, @Param("now") LocalTime now,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+      Pageable pageable);
+
+
+  /**
+   * Locks the next event details before a date that may move to the archive, following a keyset
+   * cursor. Event details with seat reservations or recurrence exceptions stay in the table, as
+   * those rows still point at them.
+   * @param before LocalDate first date that stays in the table
+   * @param afterDate LocalDate date of the last row of the previous chunk
+   * @param afterId Long Id of the last row of the previous chunk, null for the first chunk
+   * @param pageable Pageable limits the number of rows
+   * @return rows of event detail Id and date ordered by date and event detail Id.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT ed.eventDetailId, ed.date FROM EventDetail ed WHERE ed.date < :before"
+      + " AND ed.event IS NOT NULL AND ed.venue IS NOT NULL"
+      + " AND NOT EXISTS (SELECT re FROM RecurrenceException re"
+      + " WHERE re.eventDetailId = ed.eventDetailId)"
+      + " AND NOT EXISTS (SELECT sr FROM SeatReservation sr"
+      + " WHERE sr.eventDetailId = ed.eventDetailId) AND " + AFTER_CURSOR + PAGE_ORDER)
+  List<Object[]> findArchivableKeys(@Param("before") LocalDate before,
+      @Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId,
+      Pageable pageable);
+
+  /**
+   * Returns the event details to archive together with the Ids of their event and venue, in the
+   * column order of ArchivedEventDetail.
+   * @param eventDetailIds Collection of Long
+   * @return rows ordered by event detail Id.
+   */
+  @Query("SELECT ed.eventDetailId, e.eventId, v.venueId,"
+      + " ed.description, ed.date, ed.startTime, ed.endTime, ed.isFree, ed.availability"
+      + " FROM EventDetail ed JOIN ed.event e JOIN ed.venue v"
+      + " WHERE ed.eventDetailId IN :eventDetailIds ORDER BY ed.eventDetailId")
+  List<Object[]> findArchiveRowsByEventDetailIdIn(
+      @Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "DELETE FROM event_detail WHERE event_detail_id IN :eventDetailIds",
+      nativeQuery = true)
+  int deleteByEventDetailIdIn(@Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+
+  /**
+   * A method checks whether a venue has any event detail without loading them.
+   * @param venueId Long
+   * @return true if at least one event detail takes place at the venue.
+   */
+  boolean existsByVenueVenueId(Long venueId);
   
   
+  /**
+   * Deletes at most limit event details of an event with a single statement, so each call holds
+   * row locks on a bounded number of rows only.
+   * @param eventId Long
+   * @param limit int maximum number of rows to delete
+   * @return number of deleted event details.
+   */
+  // Without the query space Hibernate would evict every second-level cache region on each call
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "DELETE FROM event_detail WHERE event_id = :eventId LIMIT :limit",
+      nativeQuery = true)
+  int deleteChunkByEventId(@Param("eventId") Long eventId, @Param("limit") int limit);
+
+
+  /**
+   * Copies the event details of an event between two dates a number of days later or earlier
+   * with a single statement. The copies are numbered from firstId in the order of the originals'
+   * Ids and start at version 0.
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param days long offset of the copies
+   * @param firstId long Id of the first copy, reserved with skipIds
+   * @return number of created event details.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "INSERT INTO event_detail (event_detail_id, event_id, venue_id, description,"
+      + " date, start_time, end_time, is_free, availability, version)"
+      + " SELECT :firstId - 1 + ROW_NUMBER() OVER (ORDER BY ed.event_detail_id), ed.event_id,"
+      + " ed.venue_id, ed.description, TIMESTAMPADD(DAY, :days, ed.date), ed.start_time,"
+      + " ed.end_time, ed.is_free, ed.availability, 0 FROM event_detail ed"
+      + " WHERE ed.event_id = :eventId AND ed.date BETWEEN :from AND :to", nativeQuery = true)
+  int cloneByEventId(@Param("eventId") Long eventId, @Param("from") LocalDate from,
+      @Param("to") LocalDate to, @Param("days") long days, @Param("firstId") long firstId);
+
+
+  /**
+   * Moves the event details of an event a number of days later or earlier with a single
+   * statement. Both dates are optional.
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param days long offset
+   * @return number of updated event details.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "UPDATE event_detail ed SET ed.date = TIMESTAMPADD(DAY, :days, ed.date),"
+      + " ed.version = ed.version + 1 WHERE ed.event_id = :eventId"
+      + " AND (:from IS NULL OR ed.date >= :from) AND (:to IS NULL OR ed.date <= :to)",
+      nativeQuery = true)
+  int shiftByEventId(@Param("eventId") Long eventId, @Param("from") LocalDate from,
+      @Param("to") LocalDate to, @Param("days") long days);
+
+
+  /**
+   * Moves the event details of a venue to another venue with a single statement. Both dates are
+   * optional.
+   * @param venueId Long
+   * @param targetVenueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return number of updated event details.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "UPDATE event_detail ed SET ed.venue_id = :targetVenueId,"
+      + " ed.version = ed.version + 1 WHERE ed.venue_id = :venueId"
+      + " AND (:from IS NULL OR ed.date >= :from) AND (:to IS NULL OR ed.date <= :to)",
+      nativeQuery = true)
+  int moveByVenueId(@Param("venueId") Long venueId, @Param("targetVenueId") Long targetVenueId,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+  /**
+   * Moves the event detail row of the Id generator past a number of Ids, which are then no
+   * longer handed out by Hibernate. Only meant for a short transaction of its own, the row stays
+   * locked until it commits. The row is created by the V1 migration.
+   * @param count long number of Ids to skip
+   * @return number of updated rows.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "id_generator"))
+  @Modifying
+  @Query(value = "UPDATE id_generator SET next_id = next_id + :count"
+      + " WHERE id_name = 'event_detail'", nativeQuery = true)
+  int skipIds(@Param("count") long count);
+
+  @Query(value = "SELECT next_id FROM id_generator WHERE id_name = 'event_detail'",
+      nativeQuery = true)
+  Long findNextId();
+
+
   /**
    * Updates a single record availability column on event detail table by event detail Id.
    * @param availability Boolean
    * @param eventDetailId Long
+   * @param version Long expected version, null to match any version
+   * @return number of updated event details, 0 if the version did not match.
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
   @Modifying                            
-  @Query(value = "UPDATE event_detail ed SET ed.availability = ?1 WHERE ed.event_detail_id = ?2", nativeQuery = true)
-  void updateEventDetailAvailabilityById(Boolean availability, Long eventDetailId);
+  @Query(value = "UPDATE event_detail ed SET ed.availability = ?1, ed.version = ed.version + 1"
+      + " WHERE ed.event_detail_id = ?2 AND (?3 IS NULL OR ed.version = ?3)", nativeQuery = true)
+  int updateEventDetailAvailabilityById(Boolean availability, Long eventDetailId, Long version);
   
  
+  /**
+   * Sets the availability of a chunk of event details with a single statement. Event details
+   * that already have it are left alone, so their version does not move.
+   * @param availability Boolean
+   * @param eventDetailIds Collection of Long
+   * @return number of changed event details.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "UPDATE event_detail ed SET ed.availability = :availability,"
+      + " ed.version = ed.version + 1 WHERE ed.event_detail_id IN :eventDetailIds"
+      + " AND (ed.availability IS NULL OR ed.availability <> :availability)", nativeQuery = true)
+  int updateAvailabilityByEventDetailIdIn(@Param("availability") Boolean availability,
+      @Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+
+  /**
+   * Makes a batch of event details found by findExpiredPage unavailable with a single statement.
+   * The expiry predicate is checked again, so an event detail moved to a later date or time, or
+   * made available again, after the batch was read is left alone.
+   * @param today LocalDate
+   * @param now LocalTime
+   * @param eventDetailIds Collection of Long
+   * @return number of expired event details.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
+  @Modifying
+  @Query(value = "UPDATE event_detail ed SET ed.availability = false,"
+      + " ed.version = ed.version + 1 WHERE ed.event_detail_id IN :eventDetailIds"
+      + " AND ed.availability = true AND (ed.date < :today OR (ed.date = :today"
+      + " AND ed.end_time > ed.start_time AND ed.end_time <= :now))", nativeQuery = true)
+  int expireByEventDetailIdIn(@Param("today") LocalDate today, @Param("now") LocalTime now,
+      @Param("eventDetailIds") Collection<Long> eventDetailIds);
+
+
   /**
    * Updates a group of records availability column on event detail table by a given date.
    * @param availability Boolean
    * @param date LocalDate
    * @return
    */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_detail"))
   @Modifying                            
-  @Query(value = "UPDATE event_detail ed SET ed.availability = ?1 WHERE ed.date = ?2", nativeQuery = true)
+  @Query(value = "UPDATE event_detail ed SET ed.availability = ?1, ed.version = ed.version + 1"
+      + " WHERE ed.date = ?2", nativeQuery = true)
   int updateEventDetailAvailabilityByDate(Boolean availability, LocalDate date);
   
 }
@@ -0,0 +1,22 @@
+package event.management.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.EventDetailSearchCriteria;
+
+public interface EventDetailSearchDao {
+
+  /**
+   * Returns a page of event details matching every filter set on the criteria, following a keyset
+   * cursor over (date, eventDetailId). The filters, the cursor and the limit all go into one
+   * statement.
+   * @param criteria EventDetailSearchCriteria
+   * @param afterDate LocalDate date of the last row of the previous page
+   * @param afterId Long Id of the last row of the previous page, null for the first page
+   * @param limit int maximum number of rows
+   * @return list of event detail responses.
+   */
+  List<EventDetailResponse> search(EventDetailSearchCriteria criteria, LocalDate afterDate,
+      Long afterId, int limit);
+}
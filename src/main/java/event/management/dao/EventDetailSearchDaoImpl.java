@@ -0,0 +1,101 @@
+package event.management.dao;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.EventDetailSearchCriteria;
+import event.management.entity.Category;
+import event.management.entity.Event;
+import event.management.entity.EventDetail;
+import event.management.entity.Venue;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/*
+ * Criteria implementation of the event detail search. Only the filters that are set become
+ * predicates, so MySQL can pick the index matching the actual combination: (venue_id, date,
+ * event_detail_id), (event_id, date), (date) or the primary key of event_category.
+ */
+class EventDetailSearchDaoImpl implements EventDetailSearchDao {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+
+  @Override
+  public List<EventDetailResponse> search(EventDetailSearchCriteria criteria,
+      LocalDate afterDate, Long afterId, int limit) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<EventDetailResponse> query = builder.createQuery(EventDetailResponse.class);
+
+    Root<EventDetail> eventDetail = query.from(EventDetail.class);
+    Join<EventDetail, Event> event = eventDetail.join("event");
+    Join<EventDetail, Venue> venue = eventDetail.join("venue");
+
+    Path<LocalDate> date = eventDetail.get("date");
+    Path<Long> eventDetailId = eventDetail.get("eventDetailId");
+
+    List<Predicate> predicates = new ArrayList<>();
+
+    if (Objects.nonNull(criteria.getFrom())) {
+      predicates.add(builder.greaterThanOrEqualTo(date, criteria.getFrom()));
+    }
+    if (Objects.nonNull(criteria.getTo())) {
+      predicates.add(builder.lessThanOrEqualTo(date, criteria.getTo()));
+    }
+    if (Objects.nonNull(criteria.getStartTime())) {
+      predicates.add(builder.greaterThanOrEqualTo(eventDetail.<LocalTime>get("startTime"),
+          criteria.getStartTime()));
+    }
+    if (Objects.nonNull(criteria.getEndTime())) {
+      predicates.add(
+          builder.lessThanOrEqualTo(eventDetail.<LocalTime>get("endTime"), criteria.getEndTime()));
+    }
+    if (Objects.nonNull(criteria.getVenueId())) {
+      predicates.add(builder.equal(venue.get("venueId"), criteria.getVenueId()));
+    }
+    if (Objects.nonNull(criteria.getEventId())) {
+      predicates.add(builder.equal(event.get("eventId"), criteria.getEventId()));
+    }
+    if (Objects.nonNull(criteria.getCategoryId())) {
+      // An event is linked to a category at most once, so this join cannot duplicate rows
+      Join<Event, Category> category = event.join("categories");
+      predicates.add(builder.equal(category.get("categoryId"), criteria.getCategoryId()));
+    }
+    if (Objects.nonNull(criteria.getIsFree())) {
+      predicates.add(builder.equal(eventDetail.get("isFree"), criteria.getIsFree()));
+    }
+    if (Objects.nonNull(criteria.getAvailability())) {
+      predicates.add(builder.equal(eventDetail.get("availability"), criteria.getAvailability()));
+    }
+
+    // Same keyset predicate as EventDetailDao.AFTER_CURSOR, built only when there is a cursor
+    if (Objects.nonNull(afterId)) {
+      if (Objects.isNull(afterDate)) {
+        predicates.add(
+            builder.or(builder.isNotNull(date), builder.greaterThan(eventDetailId, afterId)));
+      } else {
+        predicates.add(builder.or(builder.greaterThan(date, afterDate), builder.and(
+            builder.equal(date, afterDate), builder.greaterThan(eventDetailId, afterId))));
+      }
+    }
+
+    query.select(builder.construct(EventDetailResponse.class, eventDetailId,
+        event.get("eventId"), event.get("eventName"), venue.get("venueName"),
+        eventDetail.get("description"), date, eventDetail.get("startTime"),
+        eventDetail.get("endTime"), eventDetail.get("isFree"), eventDetail.get("availability")))
+        .where(predicates.toArray(Predicate[]::new))
+        .orderBy(builder.asc(date), builder.asc(eventDetailId));
+
+    return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+  }
+}
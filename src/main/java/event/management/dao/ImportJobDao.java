@@ -0,0 +1,102 @@
+package event.management.dao;
+
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.ImportJob;
+
+public interface ImportJobDao extends JpaRepository<ImportJob, Long> {
+
+  /**
+   * Moves an import job from one status to another, clears its last error and hands it to an
+   * owner. The status check makes sure only one caller wins when several try the same transition.
+   * @param importJobId Long
+   * @param from ImportJob.Status the job must currently have
+   * @param to ImportJob.Status
+   * @param owner String JobOwner Id of the process running the job from now on
+   * @param now LocalDateTime first heartbeat
+   * @return 1 if the job was moved, otherwise 0.
+   */
+  @Modifying
+  @Query("UPDATE ImportJob ij SET ij.status = :to, ij.lastError = null, ij.finishedAt = null,"
+      + " ij.owner = :owner, ij.heartbeatAt = :now"
+      + " WHERE ij.importJobId = :importJobId AND ij.status = :from")
+  int updateImportJobStatus(@Param("importJobId") Long importJobId,
+      @Param("from") ImportJob.Status from, @Param("to") ImportJob.Status to,
+      @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+
+  /**
+   * Adds the counts of a committed chunk to a running import job and renews its heartbeat. The
+   * owner check keeps a worker that lost its job, e.g. one paused past the stale time, from
+   * writing on.
+   * @param importJobId Long
+   * @param owner String JobOwner Id of the process running the job
+   * @param lines long number of lines of the chunk
+   * @param created long
+   * @param skipped long
+   * @param failed long
+   * @param lastError String, null to keep the current one
+   * @param now LocalDateTime
+   * @return 1 if the job is still running under the owner, otherwise 0.
+   */
+  @Modifying
+  @Query("UPDATE ImportJob ij SET ij.linesCommitted = ij.linesCommitted + :lines,"
+      + " ij.recordsCreated = ij.recordsCreated + :created,"
+      + " ij.recordsSkipped = ij.recordsSkipped + :skipped,"
+      + " ij.recordsFailed = ij.recordsFailed + :failed,"
+      + " ij.lastError = COALESCE(:lastError, ij.lastError), ij.heartbeatAt = :now"
+      + " WHERE ij.importJobId = :importJobId AND ij.owner = :owner AND ij.status = 'RUNNING'")
+  int addProgress(@Param("importJobId") Long importJobId, @Param("owner") String owner,
+      @Param("lines") long lines, @Param("created") long created,
+      @Param("skipped") long skipped, @Param("failed") long failed,
+      @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+
+
+  /**
+   * Ends a running import job, unless another process has taken it over meanwhile.
+   * @param importJobId Long
+   * @param owner String JobOwner Id of the process running the job
+   * @param to ImportJob.Status COMPLETED or FAILED
+   * @param lastError String
+   * @param finishedAt LocalDateTime
+   * @return 1 if the job was ended, otherwise 0.
+   */
+  @Modifying
+  @Query("UPDATE ImportJob ij SET ij.status = :to, ij.lastError = :lastError,"
+      + " ij.finishedAt = :finishedAt"
+      + " WHERE ij.importJobId = :importJobId AND ij.owner = :owner AND ij.status = 'RUNNING'")
+  int finishImportJob(@Param("importJobId") Long importJobId, @Param("owner") String owner,
+      @Param("to") ImportJob.Status to, @Param("lastError") String lastError,
+      @Param("finishedAt") LocalDateTime finishedAt);
+
+
+  /**
+   * Renews the heartbeat of the running import jobs of a process.
+   * @param owner String JobOwner Id of the process
+   * @param now LocalDateTime
+   * @return number of running import jobs of the process.
+   */
+  @Modifying
+  @Query("UPDATE ImportJob ij SET ij.heartbeatAt = :now"
+      + " WHERE ij.owner = :owner AND ij.status = 'RUNNING'")
+  int updateHeartbeat(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+
+  /**
+   * Fails the running import jobs whose process stopped reporting in, whichever process ran
+   * them.
+   * @param staleBefore LocalDateTime heartbeats before it are stale
+   * @param lastError String
+   * @param finishedAt LocalDateTime
+   * @return number of failed import jobs.
+   */
+  @Modifying
+  @Query("UPDATE ImportJob ij SET ij.status = 'FAILED', ij.lastError = :lastError,"
+      + " ij.finishedAt = :finishedAt"
+      + " WHERE ij.status = 'RUNNING' AND ij.heartbeatAt < :staleBefore")
+  int failStaleImportJobs(@Param("staleBefore") LocalDateTime staleBefore,
+      @Param("lastError") String lastError, @Param("finishedAt") LocalDateTime finishedAt);
+}
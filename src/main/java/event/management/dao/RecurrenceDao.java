@@ -0,0 +1,70 @@
+package event.management.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.Recurrence;
+
+public interface RecurrenceDao extends JpaRepository<Recurrence, Long> {
+
+  /**
+   * A method retrieves the recurrences of an event that can have an occurrence between two dates,
+   * with their event and venue, read from the (event_id, start_date) index.
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return list of recurrences ordered by recurrence Id.
+   */
+  @Query("SELECT r FROM Recurrence r JOIN FETCH r.event JOIN FETCH r.venue"
+      + " WHERE r.event.eventId = :eventId AND r.startDate <= :to"
+      + " AND (r.untilDate IS NULL OR r.untilDate >= :from) ORDER BY r.recurrenceId")
+  List<Recurrence> findAllByEventIdBetween(@Param("eventId") Long eventId,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+  List<Recurrence> findAllByEventEventIdOrderByRecurrenceId(Long eventId);
+
+
+  /**
+   * A method retrieves the recurrences at a venue that can have an occurrence between two dates,
+   * read from the venue_id index, for the bookings of the venue.
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return list of recurrences ordered by recurrence Id.
+   */
+  @Query("SELECT r FROM Recurrence r WHERE r.venue.venueId = :venueId AND r.startDate <= :to"
+      + " AND (r.untilDate IS NULL OR r.untilDate >= :from) ORDER BY r.recurrenceId")
+  List<Recurrence> findAllByVenueIdBetween(@Param("venueId") Long venueId,
+      @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+
+  /**
+   * A method retrieves the Ids of the recurrences of an event.
+   * @param eventId Long
+   * @return list of recurrence Id.
+   */
+  @Query("SELECT r.recurrenceId FROM Recurrence r WHERE r.event.eventId = :eventId")
+  List<Long> findRecurrenceIdsByEventId(@Param("eventId") Long eventId);
+
+
+  /**
+   * A method checks whether a venue hosts any recurrence without loading them.
+   * @param venueId Long
+   * @return true if at least one recurrence takes place at the venue.
+   */
+  boolean existsByVenueVenueId(Long venueId);
+
+
+  /**
+   * Deletes every recurrence of an event with a single statement. Their exceptions must be
+   * deleted first.
+   * @param eventId Long
+   * @return number of deleted recurrences.
+   */
+  @Modifying
+  @Query("DELETE FROM Recurrence r WHERE r.event.eventId = :eventId")
+  int deleteAllByEventId(@Param("eventId") Long eventId);
+}
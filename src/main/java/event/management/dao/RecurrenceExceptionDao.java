@@ -0,0 +1,49 @@
+package event.management.dao;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.RecurrenceException;
+
+public interface RecurrenceExceptionDao
+    extends JpaRepository<RecurrenceException, RecurrenceException.Key> {
+
+  /**
+   * A method retrieves the exceptions of some recurrences between two dates, read from the
+   * primary key.
+   * @param recurrenceIds Collection of recurrence Id
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return list of recurrence exceptions.
+   */
+  @Query("SELECT re FROM RecurrenceException re WHERE re.recurrenceId IN :recurrenceIds"
+      + " AND re.occurrenceDate BETWEEN :from AND :to")
+  List<RecurrenceException> findAllBetween(
+      @Param("recurrenceIds") Collection<Long> recurrenceIds, @Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+
+
+  /**
+   * Deletes the exceptions of a recurrence with a single statement.
+   * @param recurrenceId Long
+   * @return number of deleted exceptions.
+   */
+  @Modifying
+  @Query("DELETE FROM RecurrenceException re WHERE re.recurrenceId = :recurrenceId")
+  int deleteAllByRecurrenceId(@Param("recurrenceId") Long recurrenceId);
+
+
+  /**
+   * Deletes the exceptions of every recurrence of an event with a single statement.
+   * @param eventId Long
+   * @return number of deleted exceptions.
+   */
+  @Modifying
+  @Query("DELETE FROM RecurrenceException re WHERE re.recurrenceId IN"
+      + " (SELECT r.recurrenceId FROM Recurrence r WHERE r.event.eventId = :eventId)")
+  int deleteAllByEventId(@Param("eventId") Long eventId);
+}
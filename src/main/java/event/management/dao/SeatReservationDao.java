@@ -0,0 +1,53 @@
+package event.management.dao;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.SeatReservation;
+
+public interface SeatReservationDao extends JpaRepository<SeatReservation, Long> {
+
+  /**
+   * A method confirms a reservation only while its hold is still running.
+   * @param reservationId Long
+   * @param now LocalDateTime
+   * @return 1 if the reservation was confirmed, 0 otherwise.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE SeatReservation sr SET sr.status = 'CONFIRMED'"
+      + " WHERE sr.reservationId = :reservationId AND sr.status = 'HELD'"
+      + " AND sr.expiresAt > :now")
+  int confirm(@Param("reservationId") Long reservationId, @Param("now") LocalDateTime now);
+
+
+  /**
+   * A method moves a reservation to a new status only if it is still in one of the given ones.
+   * Exactly one caller wins the transition and gives the seats back, however many race for it.
+   * @param reservationId Long
+   * @param from statuses the reservation may be in
+   * @param to SeatReservation.Status
+   * @return 1 if the status was changed, 0 otherwise.
+   */
+  @Modifying(clearAutomatically = true)
+  @Query("UPDATE SeatReservation sr SET sr.status = :to"
+      + " WHERE sr.reservationId = :reservationId AND sr.status IN :from")
+  int transition(@Param("reservationId") Long reservationId,
+      @Param("from") Collection<SeatReservation.Status> from,
+      @Param("to") SeatReservation.Status to);
+
+
+  /**
+   * A method retrieves a batch of holds that ran out, using idx_seat_reservation_status_expires.
+   * @param now LocalDateTime
+   * @param pageable Pageable limiting the batch size
+   * @return IDs of the expired holds.
+   */
+  @Query("SELECT sr.reservationId FROM SeatReservation sr WHERE sr.status = 'HELD'"
+      + " AND sr.expiresAt <= :now ORDER BY sr.expiresAt")
+  List<Long> findExpiredHoldIds(@Param("now") LocalDateTime now, Pageable pageable);
+}
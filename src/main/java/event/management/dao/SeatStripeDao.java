@@ -0,0 +1,113 @@
+package event.management.dao;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.entity.SeatStripe;
+import jakarta.persistence.LockModeType;
+
+public interface SeatStripeDao extends JpaRepository<SeatStripe, SeatStripe.Key> {
+
+  /*
+   * The stripes are only ever read as numbers. Entities would stay in the persistence context of
+   * the request, and a later locking query would hand back their stale counts.
+   */
+
+  /**
+   * A method retrieves the seats left per stripe without locking them.
+   * @param eventDetailId Long
+   * @return seats left in stripe order, empty if the seats were never initialized.
+   */
+  @Query("SELECT ss.remaining FROM SeatStripe ss WHERE ss.eventDetailId = :eventDetailId"
+      + " ORDER BY ss.stripe")
+  List<Integer> findRemaining(@Param("eventDetailId") Long eventDetailId);
+
+
+  /**
+   * A method retrieves the venue capacity the stripes were counted from.
+   * @param eventDetailId Long
+   * @return capacity, null if the seats were never initialized.
+   */
+  @Query("SELECT MAX(ss.capacity) FROM SeatStripe ss WHERE ss.eventDetailId = :eventDetailId")
+  Integer findCapacity(@Param("eventDetailId") Long eventDetailId);
+
+
+  /**
+   * A method retrieves the seats left per stripe and locks the stripes. Only used when no single
+   * stripe has enough seats left for a reservation and they have to be gathered into one.
+   * @param eventDetailId Long
+   * @return seats left in stripe order.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT ss.remaining FROM SeatStripe ss WHERE ss.eventDetailId = :eventDetailId"
+      + " ORDER BY ss.stripe")
+  List<Integer> findRemainingForUpdate(@Param("eventDetailId") Long eventDetailId);
+
+
+  /**
+   * A method moves all seats left of an event detail into one stripe. The caller must hold the
+   * locks of findRemainingForUpdate.
+   * @param eventDetailId Long
+   * @param stripe int receiving the seats
+   * @param remaining int seats left in that stripe afterwards
+   * @return number of updated stripes.
+   */
+  @Modifying
+  @Query("UPDATE SeatStripe ss SET ss.remaining = CASE WHEN ss.stripe = :stripe"
+      + " THEN :remaining ELSE 0 END WHERE ss.eventDetailId = :eventDetailId")
+  int gatherSeats(@Param("eventDetailId") Long eventDetailId, @Param("stripe") int stripe,
+      @Param("remaining") int remaining);
+
+
+  /**
+   * A method spreads the seats left of an event detail evenly over its stripes again and records
+   * the capacity they are counted from. The caller must hold the locks of findRemainingForUpdate.
+   * @param eventDetailId Long
+   * @param share int seats left in every stripe
+   * @param extra int number of first stripes with one more seat
+   * @param capacity int venue capacity
+   * @return number of updated stripes.
+   */
+  @Modifying
+  @Query("UPDATE SeatStripe ss SET ss.capacity = :capacity, ss.remaining = :share"
+      + " + CASE WHEN ss.stripe < :extra THEN 1 ELSE 0 END"
+      + " WHERE ss.eventDetailId = :eventDetailId")
+  int recountSeats(@Param("eventDetailId") Long eventDetailId, @Param("share") int share,
+      @Param("extra") int extra, @Param("capacity") int capacity);
+
+
+  /**
+   * A method takes seats from a stripe only if it has enough of them left and was counted from
+   * the given capacity. The checks and the decrement are one statement, so concurrent
+   * reservations can never drive a stripe negative nor sell seats of a capacity that changed.
+   * @param eventDetailId Long
+   * @param stripe int
+   * @param quantity int
+   * @param capacity int venue capacity the reservation was checked against
+   * @return 1 if the seats were taken, 0 if the stripe has fewer seats left or was counted from
+   *         another capacity.
+   */
+  @Modifying
+  @Query("UPDATE SeatStripe ss SET ss.remaining = ss.remaining - :quantity"
+      + " WHERE ss.eventDetailId = :eventDetailId AND ss.stripe = :stripe"
+      + " AND ss.remaining >= :quantity AND ss.capacity = :capacity")
+  int takeSeats(@Param("eventDetailId") Long eventDetailId, @Param("stripe") int stripe,
+      @Param("quantity") int quantity, @Param("capacity") int capacity);
+
+
+  /**
+   * A method gives the seats of a cancelled or expired reservation back to its stripe.
+   * @param eventDetailId Long
+   * @param stripe int
+   * @param quantity int
+   * @return number of updated stripes.
+   */
+  @Modifying
+  @Query("UPDATE SeatStripe ss SET ss.remaining = ss.remaining + :quantity"
+      + " WHERE ss.eventDetailId = :eventDetailId AND ss.stripe = :stripe")
+  int returnSeats(@Param("eventDetailId") Long eventDetailId, @Param("stripe") int stripe,
+      @Param("quantity") int quantity);
+}
@@ -1,8 +1,86 @@
 package event.management.dao;
 
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import event.management.controller.model.ListingVersion;
+import event.management.controller.model.VenueSummaryData;
 import event.management.entity.Venue;
 
 public interface VenueDao extends JpaRepository<Venue, Long> {
 
+  /**
+   * A method returns a summary of every venue without touching its event details. The detail count
+   * subquery only runs when withDetailCount is true.
+   * @param withDetailCount boolean whether to count the event details of each venue
+   * @return list of venue summary.
+   */
+  @Query("SELECT new event.management.controller.model.VenueSummaryData("
+      + "v.venueId, v.venueName, v.capacity, v.venueAddress, v.venueCity, v.venueZip, v.venueNote,"
+      + " CASE WHEN :withDetailCount = true"
+      + " THEN (SELECT COUNT(ed) FROM EventDetail ed WHERE ed.venue = v) END)"
+      + " FROM Venue v ORDER BY v.venueId")
+  List<VenueSummaryData> findAllSummaries(@Param("withDetailCount") boolean withDetailCount);
+
+
+  /**
+   * A method returns which of the given venue Ids exist.
+   * @param venueIds Collection of venue Id
+   * @return list of existing venue Id.
+   */
+  @Query("SELECT v.venueId FROM Venue v WHERE v.venueId IN :venueIds")
+  List<Long> findVenueIdsByVenueIdIn(@Param("venueIds") Collection<Long> venueIds);
+
+
+  /**
+   * A method returns the Ids and current names of the given venues that exist.
+   * @param venueIds Collection of venue Id
+   * @return rows of venue Id and venue name.
+   */
+  @Query("SELECT v.venueId, v.venueName FROM Venue v WHERE v.venueId IN :venueIds")
+  List<Object[]> findVenueNamesByVenueIdIn(@Param("venueIds") Collection<Long> venueIds);
+
+
+  /**
+   * A method deletes every given venue that has no event detail nor recurrence with a single
+   * statement. The check and the delete happen in the same statement, so a venue that gets an
+   * event detail concurrently is never deleted.
+   * @param venueIds Collection of venue Id
+   * @return number of deleted venues.
+   */
+  @Modifying
+  @Query("DELETE FROM Venue v WHERE v.venueId IN :venueIds"
+      + " AND NOT EXISTS (SELECT ed.eventDetailId FROM EventDetail ed WHERE ed.venue = v)"
+      + " AND NOT EXISTS (SELECT r.recurrenceId FROM Recurrence r WHERE r.venue = v)")
+  int deleteUnusedByVenueIdIn(@Param("venueIds") Collection<Long> venueIds);
+
+
+  /**
+   * A method returns the Ids of the venues with a name, from the venue name index. Names are not
+   * unique, so there may be several.
+   * @param venueName String
+   * @return list of venue Id in ascending order.
+   */
+  @Query("SELECT v.venueId FROM Venue v WHERE v.venueName = :venueName ORDER BY v.venueId")
+  List<Long> findVenueIdsByVenueName(@Param("venueName") String venueName);
+
+
+  /**
+   * A method returns (venue name, venue Id) pairs of every venue.
+   * @return list of venue name and Id pairs.
+   */
+  @Query("SELECT v.venueName, v.venueId FROM Venue v")
+  List<Object[]> findAllVenueNameAndId();
+
+
+  /**
+   * A method returns the validator of the venue listing without loading any venue.
+   * @return ListingVersion
+   */
+  @Query("SELECT new event.management.controller.model.ListingVersion("
+      + "COUNT(v), MAX(v.lastModified)) FROM Venue v")
+  ListingVersion findListingVersion();
 }
@@ -1,24 +1,48 @@
 package event.management.entity;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_category_name", columnList = "categoryName"))
 public class Category {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "category_id")
+  @TableGenerator(name = "category_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "category", allocationSize = 50)
   private Long categoryId;
   private String categoryName;
   private String categoryNote;
+
+  @EqualsAndHashCode.Exclude
+  @Version
+  private Long version;
+
+  // Maintained by the database on every insert and update, native statements included
+  @EqualsAndHashCode.Exclude
+  @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) NOT NULL"
+      + " DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+  private LocalDateTime lastModified;
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude  
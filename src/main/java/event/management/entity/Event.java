@@ -1,16 +1,26 @@
 package event.management.entity;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -18,22 +28,39 @@ import lombok.ToString;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_event_name", columnList = "eventName"))
 public class Event {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "event_id")
+  @TableGenerator(name = "event_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "event", allocationSize = 50)
   private Long eventId;
   private String eventName;
   private String frequency;
   private String duration;
   private String eventNote;
+
+  @EqualsAndHashCode.Exclude
+  @Version
+  private Long version;
+
+  // Maintained by the database on every insert and update, native statements included
+  @EqualsAndHashCode.Exclude
+  @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) NOT NULL"
+      + " DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+  private LocalDateTime lastModified;
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
-  @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
+  @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true,
+      fetch = FetchType.LAZY)
   private Set<EventDetail> eventDetails = new HashSet<>(); 
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @ManyToMany(cascade = CascadeType.PERSIST)
   @JoinTable(name = "event_category",
       joinColumns = @JoinColumn(name = "event_id"),
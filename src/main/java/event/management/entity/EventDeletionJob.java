@@ -0,0 +1,52 @@
+package event.management.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import lombok.Data;
+
+@Entity
+@Data
+@Table(indexes = @Index(name = "uk_event_deletion_job_active", columnList = "eventId, active",
+    unique = true))
+public class EventDeletionJob {
+  public enum Status {
+    RUNNING, COMPLETED, FAILED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "event_deletion_job_id")
+  @TableGenerator(name = "event_deletion_job_id", table = "id_generator",
+      pkColumnName = "id_name", valueColumnName = "next_id", pkColumnValue = "event_deletion_job",
+      allocationSize = 50)
+  private Long eventDeletionJobId;
+
+  // Plain column rather than a relationship, the event is gone once the job completes
+  private Long eventId;
+
+  @Enumerated(EnumType.STRING)
+  private Status status;
+
+  // TRUE while the job runs, NULL afterwards, so the unique index allows one running job per event
+  private Boolean active;
+
+  private Long eventDetailsDeleted;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  // JobOwner of the process running the job, and when it last reported in
+  private String owner;
+  private LocalDateTime heartbeatAt;
+}
@@ -1,34 +1,53 @@
 package event.management.entity;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
 @Data
+@Table(indexes = {
+    @Index(name = "idx_event_detail_date", columnList = "date"),
+    @Index(name = "idx_event_detail_venue_date", columnList = "venue_id, date, eventDetailId"),
+    @Index(name = "idx_event_detail_event_date", columnList = "event_id, date"),
+    @Index(name = "idx_event_detail_last_modified", columnList = "lastModified"),
+    @Index(name = "idx_event_detail_availability_date", columnList = "availability, date")})
 public class EventDetail {
+  // Ids Hibernate takes from the generator at a time, also relied on when reserving Ids in bulk
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "event_detail_id")
+  @TableGenerator(name = "event_detail_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "event_detail",
+      allocationSize = ID_ALLOCATION_SIZE)
   private Long eventDetailId;
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
-  @ManyToOne(cascade = CascadeType.PERSIST)
+  @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
   @JoinColumn(name = "event_id")
   private Event event;  
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
-  @ManyToOne(cascade = CascadeType.PERSIST)
+  @ManyToOne(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
   @JoinColumn(name = "venue_id")
   private Venue venue;
   
@@ -38,6 +57,16 @@ public class EventDetail {
   private LocalTime endTime;
   private Boolean isFree;
   private Boolean availability;
+
+  @EqualsAndHashCode.Exclude
+  @Version
+  private Long version;
+
+  // Maintained by the database on every insert and update, native statements included
+  @EqualsAndHashCode.Exclude
+  @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) NOT NULL"
+      + " DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+  private LocalDateTime lastModified;
   
 
 }
@@ -0,0 +1,55 @@
+package event.management.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.TableGenerator;
+import lombok.Data;
+
+@Entity
+@Data
+public class ImportJob {
+  public enum Format {
+    NDJSON, CSV
+  }
+
+  public enum Status {
+    RUNNING, COMPLETED, FAILED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "import_job_id")
+  @TableGenerator(name = "import_job_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "import_job", allocationSize = 50)
+  private Long importJobId;
+
+  @Enumerated(EnumType.STRING)
+  private Format format;
+
+  @Enumerated(EnumType.STRING)
+  private Status status;
+
+  // Spooled copy of the uploaded file, read again when the import is resumed
+  private String filePath;
+
+  // Data lines (after the CSV header) whose chunk has been committed
+  private Long linesCommitted;
+  private Long recordsCreated;
+  private Long recordsSkipped;
+  private Long recordsFailed;
+
+  @Column(length = 1000)
+  private String lastError;
+
+  private LocalDateTime startedAt;
+  private LocalDateTime finishedAt;
+
+  // JobOwner of the process running the job, and when it last reported in
+  private String owner;
+  private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,59 @@
+package event.management.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * A recurring schedule of an event at a venue. Its occurrences are not stored but expanded from
+ * the rule for the dates asked for, only the exceptions to it are.
+ */
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_recurrence_event", columnList = "event_id, startDate"))
+public class Recurrence {
+  @Id
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "recurrence_id")
+  @TableGenerator(name = "recurrence_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "recurrence", allocationSize = 50)
+  private Long recurrenceId;
+
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "event_id")
+  private Event event;
+
+  @EqualsAndHashCode.Exclude
+  @ToString.Exclude
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "venue_id")
+  private Venue venue;
+
+  // RRULE subset, e.g. FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=20
+  private String rule;
+
+  // First date of the series, the DTSTART of the rule
+  private LocalDate startDate;
+
+  // Last date an occurrence can fall on, from UNTIL or COUNT, null if the series is open ended
+  private LocalDate untilDate;
+
+  private String description;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private Boolean isFree;
+  private Boolean availability;
+}
@@ -0,0 +1,41 @@
+package event.management.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An occurrence of a recurrence that differs from its rule. It is either replaced by an event
+ * detail, which is then stored like any other, or cancelled.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(RecurrenceException.Key.class)
+public class RecurrenceException {
+  @Id
+  private Long recurrenceId;
+
+  // Date the rule puts the occurrence on, the replacing event detail may be moved elsewhere
+  @Id
+  private LocalDate occurrenceDate;
+
+  // Event detail replacing the occurrence, null if the occurrence is cancelled
+  private Long eventDetailId;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long recurrenceId;
+    private LocalDate occurrenceDate;
+  }
+}
@@ -0,0 +1,47 @@
+package event.management.entity;
+
+import java.time.LocalDateTime;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+@Entity
+@Data
+@Table(indexes = @Index(name = "idx_seat_reservation_status_expires",
+    columnList = "status, expiresAt"))
+public class SeatReservation {
+  public enum Status {
+    HELD, CONFIRMED, CANCELLED, EXPIRED
+  }
+
+  /*
+   * Identity rather than the id_generator table: a reservation is inserted while its stripe row is
+   * locked, and fetching a new id block would need a second connection under that lock.
+   * Reservations are inserted one at a time, so losing insert batching costs nothing.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long reservationId;
+
+  // Plain columns rather than relationships, a reservation never loads its event detail
+  private Long eventDetailId;
+
+  // Stripe the seats were taken from and are given back to
+  private Integer stripe;
+
+  private Integer quantity;
+
+  @Enumerated(EnumType.STRING)
+  private Status status;
+
+  private LocalDateTime createdAt;
+
+  // End of the hold, a held reservation must be confirmed before it
+  private LocalDateTime expiresAt;
+}
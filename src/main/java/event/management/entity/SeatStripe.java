@@ -0,0 +1,40 @@
+package event.management.entity;
+
+import java.io.Serializable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One share of the seats of an event detail. The seats are split over several stripes, so
+ * concurrent reservations decrement different rows instead of queueing on a single row lock.
+ */
+@Entity
+@Data
+@IdClass(SeatStripe.Key.class)
+public class SeatStripe {
+  @Id
+  private Long eventDetailId;
+
+  @Id
+  private Integer stripe;
+
+  // Seats of the stripe that are neither held nor sold
+  private Integer remaining;
+
+  // Venue capacity the seats were counted from, the same on every stripe of an event detail
+  private Integer capacity;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private Long eventDetailId;
+    private Integer stripe;
+  }
+}
@@ -1,22 +1,37 @@
 package event.management.entity;
 
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_venue_name", columnList = "venueName"))
 public class Venue {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "venue_id")
+  @TableGenerator(name = "venue_id", table = "id_generator", pkColumnName = "id_name",
+      valueColumnName = "next_id", pkColumnValue = "venue", allocationSize = 50)
   private Long venueId;
   
   private String venueName;
@@ -25,9 +40,20 @@ public class Venue {
   private String venueCity;
   private String venueZip;
   private String venueNote;
+
+  @EqualsAndHashCode.Exclude
+  @Version
+  private Long version;
+
+  // Maintained by the database on every insert and update, native statements included
+  @EqualsAndHashCode.Exclude
+  @Column(insertable = false, updatable = false, columnDefinition = "DATETIME(6) NOT NULL"
+      + " DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)")
+  private LocalDateTime lastModified;
   
   @EqualsAndHashCode.Exclude
   @ToString.Exclude
-  @OneToMany(mappedBy = "venue", cascade = CascadeType.ALL, orphanRemoval = true)
+  @OneToMany(mappedBy = "venue", cascade = CascadeType.ALL, orphanRemoval = true,
+      fetch = FetchType.LAZY)
   private Set<EventDetail> eventDetails = new HashSet<>();
 }
@@ -0,0 +1,51 @@
+package event.management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import event.management.controller.model.EventDetailResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An event detail as it is kept in the archive. The names of its event and venue are not kept,
+ * so a listing shows them as they are now.
+ */
+@Getter
+@AllArgsConstructor
+class ArchivedEventDetail {
+  private final Long eventDetailId;
+  private final Long eventId;
+  private final Long venueId;
+  private final String description;
+  private final LocalDate date;
+  private final LocalTime startTime;
+  private final LocalTime endTime;
+  private final Boolean isFree;
+  private final Boolean availability;
+
+
+  /**
+   * A method creates an archived event detail from a row of the archive projection.
+   *
+   * @param row Object array in the order of the fields
+   * @return ArchivedEventDetail
+   */
+  static ArchivedEventDetail of(Object[] row) {
+    return new ArchivedEventDetail((Long) row[0], (Long) row[1], (Long) row[2], (String) row[3],
+        (LocalDate) row[4], (LocalTime) row[5], (LocalTime) row[6], (Boolean) row[7],
+        (Boolean) row[8]);
+  }
+
+
+  /**
+   * A method turns the archived event detail into a listing row.
+   *
+   * @param eventName String current name of its event
+   * @param venueName String current name of its venue
+   * @return EventDetailResponse
+   */
+  EventDetailResponse toResponse(String eventName, String venueName) {
+    return new EventDetailResponse(eventDetailId, eventId, eventName, venueName, description,
+        date, startTime, endTime, isFree, availability);
+  }
+}
@@ -0,0 +1,28 @@
+package event.management.service;
+
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Thrown when an event detail or an occurrence of a recurrence would occupy its venue at a time
+ * another event detail or occurrence already does. It carries the Ids of the clashing event
+ * details and recurrences.
+ */
+@Getter
+public class BookingConflictException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final List<Long> conflictingEventDetailIds;
+  private final List<Long> conflictingRecurrenceIds;
+
+  public BookingConflictException(String message, List<Long> conflictingEventDetailIds) {
+    this(message, conflictingEventDetailIds, List.of());
+  }
+
+  public BookingConflictException(String message, List<Long> conflictingEventDetailIds,
+      List<Long> conflictingRecurrenceIds) {
+    super(message);
+    this.conflictingEventDetailIds = List.copyOf(conflictingEventDetailIds);
+    this.conflictingRecurrenceIds = List.copyOf(conflictingRecurrenceIds);
+  }
+}
@@ -0,0 +1,44 @@
+package event.management.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import event.management.controller.model.CacheRegionStatisticsData;
+import event.management.controller.model.CacheStatisticsData;
+import jakarta.persistence.EntityManagerFactory;
+
+@Service
+public class CacheStatisticsService {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+
+  /**
+   * A service layer method that reports the hit and miss counts of the second-level cache and
+   * the query cache since startup.
+   * 
+   * @return CacheStatisticsData
+   */
+  public CacheStatisticsData retrieveCacheStatistics() {
+    Statistics statistics =
+        entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    CacheStatisticsData cacheStatistics = new CacheStatisticsData();
+    cacheStatistics.setSecondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount());
+    cacheStatistics.setSecondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount());
+    cacheStatistics.setSecondLevelCachePutCount(statistics.getSecondLevelCachePutCount());
+    cacheStatistics.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+    cacheStatistics.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+    cacheStatistics.setQueryCachePutCount(statistics.getQueryCachePutCount());
+
+    Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted()
+        .map(statistics::getCacheRegionStatistics).filter(Objects::nonNull)
+        .map(CacheRegionStatisticsData::new).forEach(cacheStatistics.getRegions()::add);
+
+    return cacheStatistics;
+  }
+}
@@ -1,18 +1,22 @@
 package event.management.service;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import event.management.controller.model.BulkDeleteResult;
 import event.management.controller.model.CategoryData;
+import event.management.controller.model.ListingVersion;
 import event.management.dao.CategoryDao;
 import event.management.dao.EventDao;
 import event.management.entity.Category;
-import event.management.entity.Event;
 
 @Service
 public class CategoryService {
@@ -85,6 +89,17 @@ public class CategoryService {
   }
 
 
+  /**
+   * A service layer method that retrieves the validator of the category listing.
+   * 
+   * @return ListingVersion
+   */
+  @Transactional(readOnly = true)
+  public ListingVersion retrieveCategoryListingVersion() {
+    return categoryDao.findListingVersion();
+  }
+
+
   /**
    * A service layer method that retrieves all categories.
    * 
@@ -125,11 +140,9 @@ public class CategoryService {
   @Transactional(readOnly = false)
   public Map<String, String> deleteCategoryById(Long categoryId) {
 
-    List<Event> associatedEvents = eventDao.findAllByCategoriesCategoryId(categoryId);
-
     // Checking category Id is associated to events. If it is, throw exception. we can not
     // perform the deletion.
-    if (associatedEvents.size() > 0) {
+    if (eventDao.existsByCategoriesCategoryId(categoryId)) {
       throw new UnsupportedOperationException(
           "Can not be deleted!!! Category with ID=" + categoryId + " is already associated with event");
     }
@@ -140,4 +153,106 @@ public class CategoryService {
 
     return Map.of("massage", "Deletion of category with ID=" + categoryId + " was successful.");
   }
+
+
+  /**
+   * A method deletes many categories with set-based statements. Categories that any event belongs
+   * to are kept.
+   * 
+   * @param categoryIds List of category Id, repeated Ids are deleted and reported once
+   * @return one result per distinct category Id, in the submitted order.
+   * @throws UnsupportedOperationException if the list of category Ids is empty.
+   */
+  @Transactional(readOnly = false)
+  public List<BulkDeleteResult> deleteCategories(List<Long> categoryIds) {
+    if (Objects.isNull(categoryIds) || categoryIds.isEmpty()) {
+      throw new UnsupportedOperationException(
+          "Category Ids can not be empty. It should be a number list.");
+    }
+
+    Set<Long> existingCategoryIds =
+        new HashSet<>(categoryDao.findCategoryIdsByCategoryIdIn(categoryIds));
+    Set<Long> remainingCategoryIds = new HashSet<>();
+
+    if (!existingCategoryIds.isEmpty()) {
+      categoryDao.deleteUnusedByCategoryIdIn(existingCategoryIds);
+      // Whatever still exists was kept by the delete because events belong to it
+      remainingCategoryIds.addAll(categoryDao.findCategoryIdsByCategoryIdIn(existingCategoryIds));
+    }
+
+    return new LinkedHashSet<>(categoryIds).stream().map(categoryId -> {
+      if (!existingCategoryIds.contains(categoryId)) {
+        return new BulkDeleteResult(categoryId, BulkDeleteResult.Status.NOT_FOUND,
+            "Category with ID=" + categoryId + " was not found.");
+      } else if (remainingCategoryIds.contains(categoryId)) {
+        return new BulkDeleteResult(categoryId, BulkDeleteResult.Status.IN_USE,
+            "Category with ID=" + categoryId + " is already associated with event");
+      } else {
+        return new BulkDeleteResult(categoryId, BulkDeleteResult.Status.DELETED, null);
+      }
+    }).toList();
+  }
+
+
+  /**
+   * A method adds a category to many events with a single statement. Events that do not exist or
+   * already have the category are skipped.
+   * 
+   * @param categoryId Long
+   * @param eventIds Set of event Id
+   * @return update operation message.
+   * @throws UnsupportedOperationException if the list of event Ids is empty.
+   */
+  @Transactional(readOnly = false)
+  public Map<String, String> addCategoryToEvents(Long categoryId, Set<Long> eventIds) {
+    checkEventIds(eventIds);
+    findCategory(categoryId);
+
+    int numberOfEvent = eventDao.addCategoryToEvents(categoryId, eventIds);
+
+    if (numberOfEvent > 0) {
+      eventDao.incrementVersions(eventIds);
+    }
+
+    return Map.of("message",
+        numberOfEvent + " event(s) were added to category with ID=" + categoryId);
+  }
+
+
+  /**
+   * A method removes a category from many events with a single statement.
+   * 
+   * @param categoryId Long
+   * @param eventIds Set of event Id
+   * @return update operation message.
+   * @throws UnsupportedOperationException if the list of event Ids is empty.
+   */
+  @Transactional(readOnly = false)
+  public Map<String, String> removeCategoryFromEvents(Long categoryId, Set<Long> eventIds) {
+    checkEventIds(eventIds);
+    findCategory(categoryId);
+
+    int numberOfEvent = eventDao.removeCategoryFromEvents(categoryId, eventIds);
+
+    if (numberOfEvent > 0) {
+      eventDao.incrementVersions(eventIds);
+    }
+
+    return Map.of("message",
+        numberOfEvent + " event(s) were removed from category with ID=" + categoryId);
+  }
+
+
+  /**
+   * A convenient method for checking a list of event Ids is given.
+   * 
+   * @param eventIds Set of event Id
+   * @throws UnsupportedOperationException if the list of event Ids is empty.
+   */
+  private void checkEventIds(Set<Long> eventIds) {
+    if (Objects.isNull(eventIds) || eventIds.isEmpty()) {
+      throw new UnsupportedOperationException(
+          "Event Ids can not be empty. It should be a number list.");
+    }
+  }
 }
@@ -0,0 +1,247 @@
+package event.management.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import event.management.controller.model.EventDeletionJobData;
+import event.management.dao.EventDao;
+import event.management.dao.EventDeletionJobDao;
+import event.management.dao.EventDetailDao;
+import event.management.dao.RecurrenceDao;
+import event.management.dao.RecurrenceExceptionDao;
+import event.management.entity.EventDeletionJob;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes events with large schedules in the background. The event details are purged with
+ * bounded DELETE statements, each in its own short transaction together with the job progress,
+ * so no transaction holds locks on the whole schedule and the request returns immediately. The
+ * process running a job renews its heartbeat, and only a job whose heartbeat stops is failed, so
+ * an event never has two jobs deleting it at once.
+ */
+@Service
+@Slf4j
+public class EventDeletionService {
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  @Autowired
+  private EventDeletionJobDao eventDeletionJobDao;
+
+  @Autowired
+  private EventDao eventDao;
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private RecurrenceDao recurrenceDao;
+
+  @Autowired
+  private RecurrenceExceptionDao recurrenceExceptionDao;
+
+  @Autowired
+  private EventService eventService;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private TaskExecutor taskExecutor;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Autowired
+  private JobOwner jobOwner;
+
+  @Value("${event-management.deletion.chunk-size}")
+  private int deletionChunkSize;
+
+  @Value("${event-management.jobs.stale-after}")
+  private Duration staleAfter;
+
+
+  /**
+   * A method renews the heartbeat of the deletion jobs this process runs, then fails the running
+   * deletion jobs whose process stopped reporting in, this one's after a restart included. Their
+   * worker is gone, so deleting the event again starts a new job that picks up the remaining
+   * schedule. Jobs of processes that are still running keep their event.
+   */
+  @Scheduled(fixedDelayString = "${event-management.jobs.heartbeat-interval}")
+  void recoverEventDeletionJobs() {
+    LocalDateTime now = LocalDateTime.now();
+
+    int recovered = transactionTemplate.execute(status -> {
+      eventDeletionJobDao.updateHeartbeat(jobOwner.getId(), now);
+      return eventDeletionJobDao.failStaleEventDeletionJobs(now.minus(staleAfter),
+          "Its process stopped running it.", now);
+    });
+
+    if (recovered > 0) {
+      log.warn("Failed {} event deletion jobs whose process stopped", recovered);
+    }
+  }
+
+
+  /**
+   * A service layer method that starts deleting an event and its schedule in the background.
+   * 
+   * @param eventId Long
+   * @return the running deletion job.
+   * @throws NoSuchElementException if event Id is not found.
+   * @throws UnsupportedOperationException if the event is already being deleted.
+   */
+  public EventDeletionJobData startEventDeletion(Long eventId) {
+    EventDeletionJob dbEventDeletionJob;
+
+    try {
+      dbEventDeletionJob = transactionTemplate.execute(status -> {
+        eventService.findEventById(eventId);
+
+        EventDeletionJob eventDeletionJob = new EventDeletionJob();
+        eventDeletionJob.setEventId(eventId);
+        eventDeletionJob.setStatus(EventDeletionJob.Status.RUNNING);
+        eventDeletionJob.setActive(true);
+        eventDeletionJob.setEventDetailsDeleted(0L);
+        eventDeletionJob.setStartedAt(LocalDateTime.now());
+        eventDeletionJob.setOwner(jobOwner.getId());
+        eventDeletionJob.setHeartbeatAt(eventDeletionJob.getStartedAt());
+
+        return eventDeletionJobDao.saveAndFlush(eventDeletionJob);
+      });
+    } catch (DataIntegrityViolationException e) {
+      // Another request started a job for the event first, caught by its unique index
+      throw new UnsupportedOperationException(
+          "Event with ID=" + eventId + " is already being deleted.");
+    }
+
+    taskExecutor.execute(() -> runEventDeletion(dbEventDeletionJob.getEventDeletionJobId()));
+
+    return new EventDeletionJobData(dbEventDeletionJob);
+  }
+
+
+  /**
+   * A method finds an event deletion job from a given job Id.
+   * 
+   * @param eventDeletionJobId Long
+   * @return EventDeletionJobData object.
+   */
+  @Transactional(readOnly = true)
+  public EventDeletionJobData retrieveEventDeletionJobById(Long eventDeletionJobId) {
+    return new EventDeletionJobData(findEventDeletionJobById(eventDeletionJobId));
+  }
+
+
+  /**
+   * A method finds event deletion job from a given job Id.
+   * 
+   * @param eventDeletionJobId Long
+   * @return EventDeletionJob object.
+   * @throws NoSuchElementException if event deletion job Id is not found.
+   */
+  private EventDeletionJob findEventDeletionJobById(Long eventDeletionJobId) {
+    return eventDeletionJobDao.findById(eventDeletionJobId)
+        .orElseThrow(() -> new NoSuchElementException(
+            "Event deletion job with ID=" + eventDeletionJobId + " was not found."));
+  }
+
+
+  /**
+   * A method purges the event details of the event one chunk per transaction, then removes the
+   * recurrences, the category links and the event itself in a last short transaction.
+   * 
+   * @param eventDeletionJobId Long
+   */
+  private void runEventDeletion(Long eventDeletionJobId) {
+    EventDeletionJob eventDeletionJob = findEventDeletionJobById(eventDeletionJobId);
+    Long eventId = eventDeletionJob.getEventId();
+    log.info("Running deletion job with ID={} for event with ID={}", eventDeletionJobId, eventId);
+
+    try {
+      Set<LocalDate> dates = eventDetailDao.findDatesByEventId(eventId);
+      int deleted;
+
+      do {
+        deleted = transactionTemplate.execute(status -> {
+          int count = eventDetailDao.deleteChunkByEventId(eventId, deletionChunkSize);
+          addEventDetailsDeleted(eventDeletionJobId, count);
+          eventPublisher.publishEvent(ScheduleChangedEvent.forDates(dates));
+          venueBookingIndex.invalidate(dates);
+          return count;
+        });
+      } while (deleted == deletionChunkSize);
+
+      transactionTemplate.executeWithoutResult(status -> {
+        // Event details added while the chunks were running are picked up here. A schedule that
+        // keeps growing fails the event delete on its foreign key and the job can be restarted.
+        Set<LocalDate> remainingDates = eventDetailDao.findDatesByEventId(eventId);
+        int count = eventDetailDao.deleteChunkByEventId(eventId, deletionChunkSize);
+        addEventDetailsDeleted(eventDeletionJobId, count);
+        eventPublisher.publishEvent(ScheduleChangedEvent.forDates(remainingDates));
+        venueBookingIndex.invalidate(remainingDates);
+        venueBookingIndex.invalidateRecurrences(recurrenceDao.findRecurrenceIdsByEventId(eventId));
+        // Archived event details of the event are no longer listed
+        eventPublisher.publishEvent(ScheduleChangedEvent
+            .forDates(archive.findDates(EventDetailArchive.Filter.byEventId(eventId))));
+        recurrenceExceptionDao.deleteAllByEventId(eventId);
+        recurrenceDao.deleteAllByEventId(eventId);
+        eventDao.removeEventFromCategories(eventId);
+        eventDao.deleteEventRowById(eventId);
+      });
+
+      eventDeletionJob.setStatus(EventDeletionJob.Status.COMPLETED);
+      log.info("Deletion job with ID={} completed", eventDeletionJobId);
+    } catch (RuntimeException e) {
+      log.error("Deletion job with ID={} failed", eventDeletionJobId, e);
+      eventDeletionJob.setStatus(EventDeletionJob.Status.FAILED);
+      String error = e.toString();
+      eventDeletionJob.setLastError(
+          error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+    }
+
+    int finished = transactionTemplate.execute(status -> eventDeletionJobDao
+        .finishEventDeletionJob(eventDeletionJobId, jobOwner.getId(),
+            eventDeletionJob.getStatus(), eventDeletionJob.getLastError(), LocalDateTime.now()));
+
+    if (finished == 0) {
+      log.warn("Deletion job with ID={} is no longer run by this process", eventDeletionJobId);
+    }
+  }
+
+
+  /**
+   * A method adds the size of a deleted chunk to the job progress, in the transaction of the
+   * chunk.
+   * 
+   * @param eventDeletionJobId Long
+   * @param count int
+   * @throws IllegalStateException if the job was failed as stale, which rolls the chunk back.
+   */
+  private void addEventDetailsDeleted(Long eventDeletionJobId, int count) {
+    int updated = eventDeletionJobDao.addEventDetailsDeleted(eventDeletionJobId,
+        jobOwner.getId(), count, LocalDateTime.now());
+
+    if (updated == 0) {
+      throw new IllegalStateException("Deletion job with ID=" + eventDeletionJobId
+          + " is no longer run by this process.");
+    }
+  }
+}
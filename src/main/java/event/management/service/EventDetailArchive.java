@@ -0,0 +1,467 @@
+package event.management.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import event.management.controller.model.EventDetailResponse;
+import event.management.dao.EventDao;
+import event.management.dao.VenueDao;
+import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The event details moved out of the table, as immutable segment files in one directory per
+ * month. A month gains a segment each time rows of it are archived, and its segments are merged
+ * into one after the archival run. Readers drop duplicate Ids, so a crash between writing a
+ * segment and deleting its rows from the table, or between writing a merged segment and deleting
+ * the merged ones, only leaves a copy that is never shown twice. Rows of events and venues deleted
+ * since are left out when read, and dropped for good when their month is merged. The names of
+ * their event and venue are read from the tables, so a renamed event or venue is listed and found
+ * under its current name.
+ */
+@Component
+@Slf4j
+class EventDetailArchive {
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+  private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+  // Ids looked up in the table in one statement
+  private static final int ID_CHECK_SIZE = 1000;
+
+  // Undated rows sort first, as in MySQL
+  static final Comparator<EventDetailResponse> LISTING_ORDER = Comparator
+      .comparing(EventDetailResponse::getDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(EventDetailResponse::getEventDetailId);
+
+  @Autowired
+  private EventDao eventDao;
+
+  @Autowired
+  private VenueDao venueDao;
+
+  @Value("${event-management.archive.directory}")
+  private Path directory;
+
+  private final NavigableMap<YearMonth, List<EventDetailSegment>> months =
+      new ConcurrentSkipListMap<>();
+
+  // Makes segment file names unique, started from the clock so they stay unique over restarts
+  private final AtomicLong segmentSequence = new AtomicLong(System.currentTimeMillis());
+
+
+  /**
+   * A method opens the segments written before the last shutdown and removes the files of
+   * segments whose writing was interrupted.
+   */
+  @PostConstruct
+  void load() {
+    int segments = 0;
+
+    try {
+      Files.createDirectories(directory);
+
+      for (Path monthDirectory : list(directory)) {
+        String name = monthDirectory.getFileName().toString();
+
+        if (!Files.isDirectory(monthDirectory) || !name.matches("\\d{4}-\\d{2}")) {
+          continue;
+        }
+
+        for (Path file : list(monthDirectory)) {
+          if (file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+            Files.delete(file);
+          } else if (file.getFileName().toString().endsWith(SEGMENT_SUFFIX)) {
+            months.computeIfAbsent(YearMonth.parse(name, MONTH_FORMAT),
+                month -> new CopyOnWriteArrayList<>()).add(EventDetailSegment.open(file));
+            segments++;
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    log.info("Opened {} event detail archive segments in {}", segments, directory);
+  }
+
+
+  /**
+   * A method checks whether the archive may hold event details of a listing after a cursor,
+   * from the dates and key filters of the segments alone.
+   *
+   * @param filter Filter
+   * @param cursor EventDetailCursor
+   * @return false if no archived event detail can match.
+   */
+  boolean covers(Filter filter, EventDetailCursor cursor) {
+    LocalDate afterDate = afterDateOf(cursor);
+
+    return candidates(filter, afterDate).values().stream().flatMap(List::stream)
+        .anyMatch(segment -> reaches(segment, afterDate) && segment.mayMatch(filter));
+  }
+
+
+  /**
+   * A method finds the dates of the archived event details matching a filter, for the schedules
+   * a deleted event or venue drops rows from.
+   *
+   * @param filter Filter
+   * @return set of dates.
+   */
+  Set<LocalDate> findDates(Filter filter) {
+    return candidates(filter, null).values().stream().flatMap(List::stream)
+        .flatMap(segment -> segment.find(filter).stream()).map(ArchivedEventDetail::getDate)
+        .collect(Collectors.toSet());
+  }
+
+
+  /**
+   * A method writes archived event details to one new segment per month.
+   *
+   * @param rows Collection of ArchivedEventDetail with a date
+   * @return the written segments, readable from now on.
+   */
+  synchronized List<EventDetailSegment> write(Collection<ArchivedEventDetail> rows) {
+    Map<YearMonth, List<ArchivedEventDetail>> rowsByMonth = rows.stream().collect(
+        Collectors.groupingBy(row -> YearMonth.from(row.getDate()), TreeMap::new,
+            Collectors.toList()));
+    List<EventDetailSegment> segments = new ArrayList<>();
+
+    try {
+      for (Map.Entry<YearMonth, List<ArchivedEventDetail>> entry : rowsByMonth.entrySet()) {
+        Path monthDirectory = directory.resolve(entry.getKey().format(MONTH_FORMAT));
+        Files.createDirectories(monthDirectory);
+
+        EventDetailSegment segment =
+            EventDetailSegment.write(newSegmentFile(monthDirectory, entry.getValue()),
+                entry.getValue());
+
+        months.computeIfAbsent(entry.getKey(), month -> new CopyOnWriteArrayList<>())
+            .add(segment);
+        segments.add(segment);
+      }
+    } catch (IOException | RuntimeException e) {
+      discard(segments);
+      throw e instanceof IOException ? new UncheckedIOException((IOException) e)
+          : (RuntimeException) e;
+    }
+
+    return segments;
+  }
+
+
+  /**
+   * A method removes segments whose rows stay in the table after all.
+   *
+   * @param segments List of EventDetailSegment
+   */
+  synchronized void discard(List<EventDetailSegment> segments) {
+    for (EventDetailSegment segment : segments) {
+      months.values().forEach(monthSegments -> monthSegments.remove(segment));
+
+      try {
+        Files.deleteIfExists(segment.getFile());
+      } catch (IOException e) {
+        log.warn("Could not delete archive segment {}", segment.getFile(), e);
+      }
+    }
+  }
+
+
+  /**
+   * A method merges the segments of every month holding more than one into a single segment.
+   * Duplicate Ids and the rows of deleted events and venues are left out. The merged segment is
+   * written before the others are removed, so a reader always finds every row of the month.
+   */
+  synchronized void compact() {
+    int compacted = 0;
+
+    for (Map.Entry<YearMonth, List<EventDetailSegment>> entry : months.entrySet()) {
+      List<EventDetailSegment> segments = List.copyOf(entry.getValue());
+
+      if (segments.size() < 2) {
+        continue;
+      }
+
+      Set<Long> seen = new HashSet<>();
+      List<ArchivedEventDetail> merged = segments.stream()
+          .flatMap(segment -> segment.find(Filter.ALL).stream())
+          .filter(row -> seen.add(row.getEventDetailId())).toList();
+      Set<Long> live = keepLive(merged).stream().map(EventDetailResponse::getEventDetailId)
+          .collect(Collectors.toSet());
+      List<ArchivedEventDetail> rows =
+          merged.stream().filter(row -> live.contains(row.getEventDetailId())).toList();
+
+      if (!rows.isEmpty()) {
+        Path monthDirectory = directory.resolve(entry.getKey().format(MONTH_FORMAT));
+        entry.getValue()
+            .add(EventDetailSegment.write(newSegmentFile(monthDirectory, rows), rows));
+      }
+
+      discard(segments);
+      months.remove(entry.getKey(), List.of());
+      compacted++;
+    }
+
+    if (compacted > 0) {
+      log.info("Merged the archive segments of {} months", compacted);
+    }
+  }
+
+
+  /**
+   * A method returns archived event details following a keyset cursor, in the (date,
+   * eventDetailId) order of the listings. Only the months from the cursor on are read, only the
+   * segments of a month whose dates reach the cursor and whose key filter may match, and only
+   * the rows whose event and venue still exist are returned, under their current names.
+   *
+   * @param filter Filter
+   * @param cursor EventDetailCursor
+   * @param limit int maximum number of rows
+   * @return list of event detail responses.
+   */
+  List<EventDetailResponse> findPage(Filter filter, EventDetailCursor cursor, int limit) {
+    LocalDate afterDate = afterDateOf(cursor);
+    List<EventDetailResponse> page = new ArrayList<>();
+
+    for (List<EventDetailSegment> segments : candidates(filter, afterDate).values()) {
+      Set<Long> seen = new HashSet<>();
+
+      Iterator<ArchivedEventDetail> rows = segments.stream()
+          .filter(segment -> reaches(segment, afterDate))
+          .flatMap(segment -> segment.find(filter).stream())
+          .filter(row -> isAfter(row, cursor)).sorted(EventDetailSegment.ORDER)
+          .filter(row -> seen.add(row.getEventDetailId())).iterator();
+
+      // Checked a page at a time, rows of deleted events or venues are made up from the next
+      while (page.size() < limit && rows.hasNext()) {
+        List<ArchivedEventDetail> block = new ArrayList<>();
+
+        while (block.size() < limit - page.size() && rows.hasNext()) {
+          block.add(rows.next());
+        }
+
+        page.addAll(keepLive(block));
+      }
+
+      // Later months only hold later rows
+      if (page.size() >= limit) {
+        break;
+      }
+    }
+
+    return page;
+  }
+
+
+  /**
+   * A method merges a page of rows read from the table with the archived rows following the same
+   * cursor. Rows of the table come first among equals, so an event detail still in the table
+   * during its archival is shown once, as read from the table.
+   *
+   * @param rows List of EventDetailResponse from the table in listing order
+   * @param archived List of EventDetailResponse from findPage
+   * @param limit int maximum number of rows
+   * @return list of event detail responses in listing order.
+   */
+  static List<EventDetailResponse> merge(List<EventDetailResponse> rows,
+      List<EventDetailResponse> archived, int limit) {
+    if (archived.isEmpty()) {
+      return rows;
+    }
+
+    Set<Long> seen = new HashSet<>();
+
+    return Stream.concat(rows.stream(), archived.stream()).sorted(LISTING_ORDER)
+        .filter(row -> seen.add(row.getEventDetailId())).limit(limit).toList();
+  }
+
+
+  /**
+   * A method drops the rows whose event or venue has been deleted since they were archived, and
+   * names the others after their event and venue as they are now.
+   *
+   * @param rows List of ArchivedEventDetail
+   * @return event detail responses of the other rows, in the same order.
+   */
+  private List<EventDetailResponse> keepLive(List<ArchivedEventDetail> rows) {
+    Map<Long, String> eventNames = findNames(rows, ArchivedEventDetail::getEventId,
+        eventDao::findEventNamesByEventIdIn);
+    Map<Long, String> venueNames = findNames(rows, ArchivedEventDetail::getVenueId,
+        venueDao::findVenueNamesByVenueIdIn);
+
+    return rows.stream()
+        .filter(row -> (Objects.isNull(row.getEventId())
+            || eventNames.containsKey(row.getEventId()))
+            && (Objects.isNull(row.getVenueId()) || venueNames.containsKey(row.getVenueId())))
+        .map(row -> row.toResponse(eventNames.get(row.getEventId()),
+            venueNames.get(row.getVenueId())))
+        .toList();
+  }
+
+
+  /**
+   * A method finds the current names of the Ids of a column of rows that still exist in their
+   * table.
+   *
+   * @param rows List of ArchivedEventDetail
+   * @param getter Function for the Id of a row
+   * @param finder Function returning rows of Id and name out of some Ids
+   * @return names by existing Id, the name may be null.
+   */
+  private static Map<Long, String> findNames(List<ArchivedEventDetail> rows,
+      Function<ArchivedEventDetail, Long> getter, Function<List<Long>, List<Object[]>> finder) {
+    List<Long> ids =
+        rows.stream().map(getter).filter(Objects::nonNull).distinct().sorted().toList();
+    Map<Long, String> names = new HashMap<>();
+
+    for (int start = 0; start < ids.size(); start += ID_CHECK_SIZE) {
+      for (Object[] row : finder.apply(ids.subList(start, Math.min(start + ID_CHECK_SIZE,
+          ids.size())))) {
+        names.put((Long) row[0], (String) row[1]);
+      }
+    }
+
+    return names;
+  }
+
+
+  /**
+   * A method selects the months a listing after a cursor may find rows in.
+   *
+   * @param filter Filter
+   * @param afterDate LocalDate of the cursor, null for the start of the listings
+   * @return months and their segments.
+   */
+  private NavigableMap<YearMonth, List<EventDetailSegment>> candidates(Filter filter,
+      LocalDate afterDate) {
+    if (Objects.nonNull(filter.getDate())) {
+      YearMonth month = YearMonth.from(filter.getDate());
+      return months.subMap(month, true, month, true);
+    }
+
+    return Objects.isNull(afterDate) ? months
+        : months.tailMap(YearMonth.from(afterDate), true);
+  }
+
+
+  /**
+   * A method names the file of a new segment after the lowest Id of its rows.
+   *
+   * @param monthDirectory Path
+   * @param rows List of ArchivedEventDetail, at least one
+   * @return Path of the segment file.
+   */
+  private Path newSegmentFile(Path monthDirectory, List<ArchivedEventDetail> rows) {
+    long firstId = rows.stream().mapToLong(ArchivedEventDetail::getEventDetailId).min()
+        .orElseThrow();
+    return monthDirectory
+        .resolve(firstId + "-" + segmentSequence.incrementAndGet() + SEGMENT_SUFFIX);
+  }
+
+
+  private static LocalDate afterDateOf(EventDetailCursor cursor) {
+    return Objects.isNull(cursor.getEventDetailId()) ? null : cursor.getDate();
+  }
+
+
+  private static boolean reaches(EventDetailSegment segment, LocalDate afterDate) {
+    return Objects.isNull(afterDate) || !segment.getLastDate().isBefore(afterDate);
+  }
+
+
+  /**
+   * A convenient method mirroring the keyset predicate of the listing queries. Archived rows
+   * always have a date, so they all follow a cursor on an undated row.
+   *
+   * @param row ArchivedEventDetail
+   * @param cursor EventDetailCursor
+   * @return true if the row comes after the cursor.
+   */
+  private static boolean isAfter(ArchivedEventDetail row, EventDetailCursor cursor) {
+    if (Objects.isNull(cursor.getEventDetailId()) || Objects.isNull(cursor.getDate())) {
+      return true;
+    }
+
+    int byDate = row.getDate().compareTo(cursor.getDate());
+    return byDate > 0 || byDate == 0 && row.getEventDetailId() > cursor.getEventDetailId();
+  }
+
+
+  /**
+   * A convenient method for the entries of a directory.
+   *
+   * @param directory Path
+   * @return list of paths.
+   * @throws IOException if the directory can not be read.
+   */
+  private static List<Path> list(Path directory) throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.sorted().toList();
+    }
+  }
+
+
+  /*
+   * What a listing selects, the same filters as the retrieveAllEventDetailBy* queries. A listing
+   * by name selects the Ids of the events or venues with that name now, null Ids select any.
+   */
+  @Getter
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  static class Filter {
+    static final Filter ALL = new Filter(null, null, null);
+
+    private final LocalDate date;
+    private final Set<Long> eventIds;
+    private final Set<Long> venueIds;
+
+    static Filter byDate(LocalDate date) {
+      return new Filter(date, null, null);
+    }
+
+    static Filter byEventId(Long eventId) {
+      return new Filter(null, Set.of(eventId), null);
+    }
+
+    static Filter byEventIds(Collection<Long> eventIds) {
+      return new Filter(null, Set.copyOf(eventIds), null);
+    }
+
+    static Filter byVenueId(Long venueId) {
+      return new Filter(null, null, Set.of(venueId));
+    }
+
+    static Filter byVenueIds(Collection<Long> venueIds) {
+      return new Filter(null, null, Set.copyOf(venueIds));
+    }
+  }
+}
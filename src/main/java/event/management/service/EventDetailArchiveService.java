@@ -0,0 +1,128 @@
+package event.management.service;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import event.management.dao.EventDetailDao;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves the event details of the months that ended before the retention period out of the table
+ * into the archive, where the event detail listings still find them. Each chunk is written to
+ * the archive before its rows are deleted in the same short transaction, so an event detail is
+ * always readable from one of them.
+ */
+@Service
+@Slf4j
+public class EventDetailArchiveService {
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Value("${event-management.archive.retention}")
+  private Period retention;
+
+  @Value("${event-management.archive.chunk-size}")
+  private int chunkSize;
+
+
+  /**
+   * Archives the event details dated before the first day of the month retention ago, chunk by
+   * chunk, so a month is only ever archived as a whole. The segments the chunks added to a month
+   * are merged into one afterwards.
+   */
+  @Scheduled(fixedDelayString = "${event-management.archive.interval}")
+  public void archiveEventDetails() {
+    LocalDate before = YearMonth.from(LocalDate.now().minus(retention)).atDay(1);
+
+    LocalDate afterDate = null;
+    Long afterId = null;
+    int archived = 0;
+    int chunks = 0;
+    List<Object[]> keys;
+
+    do {
+      LocalDate chunkAfterDate = afterDate;
+      Long chunkAfterId = afterId;
+      List<EventDetailSegment> segments = new ArrayList<>();
+
+      try {
+        keys = transactionTemplate.execute(status -> {
+          List<Object[]> chunk = eventDetailDao.findArchivableKeys(before, chunkAfterDate,
+              chunkAfterId, PageRequest.of(0, chunkSize));
+
+          if (!chunk.isEmpty()) {
+            archiveChunk(chunk, segments);
+          }
+
+          return chunk;
+        });
+      } catch (RuntimeException e) {
+        // The rows stay in the table, so their copies must not be read any more
+        archive.discard(segments);
+        throw e;
+      }
+
+      if (keys.isEmpty()) {
+        break;
+      }
+
+      archived += keys.size();
+      chunks++;
+
+      Object[] last = keys.get(keys.size() - 1);
+      afterDate = (LocalDate) last[1];
+      afterId = (Long) last[0];
+    } while (keys.size() == chunkSize);
+
+    if (archived > 0) {
+      log.info("Archived {} event details before {} in {} chunks", archived, before, chunks);
+    }
+
+    archive.compact();
+  }
+
+
+  /**
+   * A method writes a locked chunk of event details to the archive and deletes them from the
+   * table.
+   *
+   * @param keys List of rows of event detail Id and date
+   * @param segments List of EventDetailSegment receiving the written segments
+   */
+  private void archiveChunk(List<Object[]> keys, List<EventDetailSegment> segments) {
+    List<Long> eventDetailIds = keys.stream().map(key -> (Long) key[0]).toList();
+    Set<LocalDate> dates = keys.stream().map(key -> (LocalDate) key[1])
+        .collect(Collectors.toSet());
+
+    segments.addAll(archive.write(eventDetailDao.findArchiveRowsByEventDetailIdIn(eventDetailIds)
+        .stream().map(ArchivedEventDetail::of).toList()));
+    eventDetailDao.deleteByEventDetailIdIn(eventDetailIds);
+
+    venueBookingIndex.invalidate(dates);
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(dates));
+  }
+}
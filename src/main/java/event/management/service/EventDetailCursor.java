@@ -0,0 +1,61 @@
+package event.management.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A keyset cursor over the (date, eventDetailId) ordering of the event detail listings. Clients
+ * only ever see it as an opaque page token.
+ */
+@Getter
+@AllArgsConstructor
+class EventDetailCursor {
+  static final EventDetailCursor FIRST_PAGE = new EventDetailCursor(null, null);
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDate date;
+  private final Long eventDetailId;
+
+
+  /**
+   * A method encodes the cursor as a URL safe page token.
+   * 
+   * @return page token.
+   */
+  String encode() {
+    String key = (Objects.isNull(date) ? "" : date.toString()) + SEPARATOR + eventDetailId;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+
+  /**
+   * A method decodes a page token handed out by {@link #encode()}.
+   * 
+   * @param pageToken String
+   * @return the cursor, or the first page cursor if the token is null.
+   * @throws IllegalStateException if the page token is not valid.
+   */
+  static EventDetailCursor decode(String pageToken) {
+    if (Objects.isNull(pageToken)) {
+      return FIRST_PAGE;
+    }
+
+    try {
+      String key = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+      int separator = key.indexOf(SEPARATOR);
+      String date = key.substring(0, separator);
+      Long eventDetailId = Long.valueOf(key.substring(separator + 1));
+
+      return new EventDetailCursor(date.isEmpty() ? null : LocalDate.parse(date), eventDetailId);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new IllegalStateException("Invalid page token " + pageToken);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package event.management.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import event.management.controller.model.ExpiryStatisticsData;
+import event.management.dao.EventDetailDao;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes event details unavailable once they are over. Each run walks the available event details
+ * in date order with a keyset cursor on the (availability, date) index, so the history that is
+ * already unavailable is never read, and changes one batch per short transaction, pausing between
+ * batches, so it never holds many row locks at once.
+ */
+@Service
+@Slf4j
+public class EventDetailExpiryService {
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Value("${event-management.expiry.batch-size}")
+  private int batchSize;
+
+  @Value("${event-management.expiry.batch-pause}")
+  private Duration batchPause;
+
+  private volatile ExpiryStatisticsData statistics = new ExpiryStatisticsData();
+
+
+  /**
+   * A method reports what the expiry runs did since startup.
+   *
+   * @return ExpiryStatisticsData
+   */
+  public ExpiryStatisticsData retrieveExpiryStatistics() {
+    return statistics;
+  }
+
+
+  /**
+   * Makes the available event details that are over unavailable, batch by batch.
+   */
+  @Scheduled(fixedDelayString = "${event-management.expiry.interval}")
+  public void expireEventDetails() {
+    LocalDateTime startedAt = LocalDateTime.now();
+    LocalDate today = startedAt.toLocalDate();
+    LocalTime now = startedAt.toLocalTime();
+
+    LocalDate afterDate = null;
+    Long afterId = null;
+    int expired = 0;
+    int batches = 0;
+    long maxLagSeconds = 0;
+    List<Object[]> rows;
+
+    try {
+      do {
+        rows = eventDetailDao.findExpiredPage(today, now, afterDate, afterId,
+            PageRequest.of(0, batchSize));
+
+        if (rows.isEmpty()) {
+          break;
+        }
+
+        expired += expireBatch(rows, today, now);
+        batches++;
+
+        for (Object[] row : rows) {
+          maxLagSeconds = Math.max(maxLagSeconds,
+              Duration.between(endOf(row), startedAt).toSeconds());
+        }
+
+        Object[] last = rows.get(rows.size() - 1);
+        afterDate = (LocalDate) last[1];
+        afterId = (Long) last[0];
+
+        if (rows.size() == batchSize) {
+          Thread.sleep(batchPause.toMillis());
+        }
+      } while (rows.size() == batchSize);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      ExpiryStatisticsData previous = statistics;
+      statistics = new ExpiryStatisticsData(previous.getRunCount() + 1,
+          previous.getTotalExpiredCount() + expired, startedAt, LocalDateTime.now(), expired,
+          batches, maxLagSeconds);
+    }
+
+    if (expired > 0) {
+      log.info("Expired {} event details in {} batches", expired, batches);
+    }
+  }
+
+
+  /**
+   * A method makes one batch unavailable with one statement in a short transaction. Rows that
+   * changed since the batch was read and are no longer over keep their availability.
+   *
+   * @param rows List of rows of event detail Id, date, start time and end time
+   * @param today LocalDate the run started on
+   * @param now LocalTime the run started at
+   * @return the number of changed event details.
+   */
+  private int expireBatch(List<Object[]> rows, LocalDate today, LocalTime now) {
+    return transactionTemplate.execute(status -> {
+      int updated = eventDetailDao.expireByEventDetailIdIn(today, now,
+          rows.stream().map(row -> (Long) row[0]).toList());
+      eventPublisher.publishEvent(ScheduleChangedEvent
+          .forDates(rows.stream().map(row -> (LocalDate) row[1]).collect(Collectors.toSet())));
+      return updated;
+    });
+  }
+
+
+  /**
+   * A convenient method for the time a row of findExpiredPage was over.
+   *
+   * @param row Object array of event detail Id, date, start time and end time
+   * @return LocalDateTime, midnight after the date if the end time does not end the event detail
+   */
+  private static LocalDateTime endOf(Object[] row) {
+    LocalDate date = (LocalDate) row[1];
+    LocalTime startTime = (LocalTime) row[2];
+    LocalTime endTime = (LocalTime) row[3];
+
+    if (Objects.nonNull(startTime) && Objects.nonNull(endTime) && endTime.isAfter(startTime)) {
+      return date.atTime(endTime);
+    }
+
+    return date.plusDays(1).atStartOfDay();
+  }
+}
@@ -0,0 +1,148 @@
+package event.management.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import event.management.controller.model.EventDetailResponse;
+import event.management.dao.EventDetailDao;
+
+/**
+ * Writes event details to an output stream as NDJSON or CSV straight from a database cursor, so
+ * heap usage does not depend on the number of rows exported.
+ */
+@Service
+public class EventDetailExportService {
+  public enum Format {
+    NDJSON("application/x-ndjson"), CSV("text/csv");
+
+    private final String contentType;
+
+    Format(String contentType) {
+      this.contentType = contentType;
+    }
+
+    public String getContentType() {
+      return contentType;
+    }
+  }
+
+  private static final String CSV_HEADER = "eventDetailId,eventId,eventName,venueName,description,"
+      + "date,startTime,endTime,isFree,availability";
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+
+  /**
+   * A method finds an export format by name, ignoring case.
+   * 
+   * @param format String
+   * @return Format
+   * @throws IllegalStateException if the format is not supported.
+   */
+  public Format findFormat(String format) {
+    return Arrays.stream(Format.values())
+        .filter(exportFormat -> exportFormat.name().equalsIgnoreCase(format)).findFirst()
+        .orElseThrow(() -> new IllegalStateException(
+            "Export format " + format + " is not supported. Only ndjson or csv."));
+  }
+
+
+  /**
+   * A service layer method that writes the matching event details ordered by date. The first row
+   * is flushed right away so clients start receiving data before the export is complete.
+   * 
+   * @param format Format
+   * @param from LocalDate first date, inclusive, or null
+   * @param to LocalDate last date, inclusive, or null
+   * @param venueId Long or null
+   * @param eventId Long or null
+   * @param outputStream OutputStream
+   */
+  @Transactional(readOnly = true)
+  public void exportEventDetails(Format format, LocalDate from, LocalDate to, Long venueId,
+      Long eventId, OutputStream outputStream) {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    try (Stream<EventDetailResponse> eventDetails =
+        eventDetailDao.streamForExport(from, to, venueId, eventId)) {
+      if (format == Format.CSV) {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+      }
+
+      long numberOfRow = 0;
+
+      Iterator<EventDetailResponse> iterator = eventDetails.iterator();
+
+      while (iterator.hasNext()) {
+        EventDetailResponse eventDetail = iterator.next();
+        writer.write(format == Format.CSV ? toCsvLine(eventDetail)
+            : objectMapper.writeValueAsString(eventDetail));
+        writer.write('\n');
+
+        if (++numberOfRow == 1) {
+          writer.flush();
+        }
+      }
+
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+
+  /**
+   * A convenient method for formatting an event detail as a CSV line.
+   * 
+   * @param eventDetail EventDetailResponse
+   * @return CSV line without line break.
+   */
+  private String toCsvLine(EventDetailResponse eventDetail) {
+    return String.join(",", toCsvValue(eventDetail.getEventDetailId()),
+        toCsvValue(eventDetail.getEventId()), toCsvValue(eventDetail.getEventName()),
+        toCsvValue(eventDetail.getVenueName()), toCsvValue(eventDetail.getDescription()),
+        toCsvValue(eventDetail.getDate()), toCsvValue(eventDetail.getStartTime()),
+        toCsvValue(eventDetail.getEndTime()), toCsvValue(eventDetail.getIsFree()),
+        toCsvValue(eventDetail.getAvailability()));
+  }
+
+
+  /**
+   * A method quotes a CSV value when it holds a comma, a quote or a line break.
+   * 
+   * @param value Object
+   * @return CSV value, empty for null.
+   */
+  private String toCsvValue(Object value) {
+    if (Objects.isNull(value)) {
+      return "";
+    }
+
+    String text = value.toString();
+
+    if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+      return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    return text;
+  }
+}
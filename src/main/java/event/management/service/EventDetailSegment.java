@@ -0,0 +1,654 @@
+package event.management.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import lombok.Getter;
+
+/**
+ * An immutable file of archived event details of one month, stored column by column. Ids and
+ * dates are delta encoded, strings go through a dictionary, every value is a variable-length
+ * integer, and each column is deflated on its own. A query inflates the date column and the
+ * columns it filters on, and the others only when some row matches. The header also keeps the
+ * range of the event and venue Ids and a Bloom filter of them, so a segment a filter can not
+ * match is skipped without inflating anything. Event and venue names are not kept, they are read
+ * from their tables when the rows are listed. The file is memory-mapped, so reads go
+ * through the page cache instead of the heap.
+ */
+class EventDetailSegment {
+  // Order of the rows in a segment and of the archive listings, dates are never null here
+  static final Comparator<ArchivedEventDetail> ORDER = Comparator
+      .comparing(ArchivedEventDetail::getDate).thenComparing(ArchivedEventDetail::getEventDetailId);
+
+  private static final int MAGIC = 0x45445347;
+  // Earlier segment files also kept the names, and are refused instead of misread
+  private static final int FORMAT_VERSION = 3;
+
+  // Four probes at ten bits per distinct key let about one segment in a hundred through wrongly
+  private static final int KEY_FILTER_BITS_PER_KEY = 10;
+  private static final int KEY_FILTER_PROBES = 4;
+
+  // Columns in file order
+  private static final int ID = 0;
+  private static final int EVENT_ID = 1;
+  private static final int VENUE_ID = 2;
+  private static final int DESCRIPTION = 3;
+  private static final int DATE = 4;
+  private static final int START_TIME = 5;
+  private static final int END_TIME = 6;
+  private static final int IS_FREE = 7;
+  private static final int AVAILABILITY = 8;
+  private static final int COLUMN_COUNT = 9;
+
+  // Magic, format version, row count, first and last date, then both lengths of every column
+  private static final int HEADER_SIZE = (5 + 2 * COLUMN_COUNT) * Integer.BYTES;
+
+  // Then lowest and highest event and venue Id, and the number of words of the key filter
+  private static final int KEYS_HEADER_SIZE = 4 * Long.BYTES + Integer.BYTES;
+
+  @Getter
+  private final Path file;
+
+  @Getter
+  private final int rowCount;
+
+  @Getter
+  private final LocalDate firstDate;
+
+  @Getter
+  private final LocalDate lastDate;
+
+  private final MappedByteBuffer buffer;
+
+  private final long minEventId;
+  private final long maxEventId;
+  private final long minVenueId;
+  private final long maxVenueId;
+
+  // Bloom filter of the event and venue Ids
+  private final BitSet keyFilter;
+  private final int keyFilterBits;
+
+  // Position and deflated length of every column in the file, and its inflated length
+  private final int[] offsets = new int[COLUMN_COUNT];
+  private final int[] lengths = new int[COLUMN_COUNT];
+  private final int[] rawLengths = new int[COLUMN_COUNT];
+
+  private EventDetailSegment(Path file, MappedByteBuffer buffer) {
+    this.file = file;
+    this.buffer = buffer;
+
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+      throw new IllegalStateException(file + " is not an event detail segment.");
+    }
+
+    rowCount = buffer.getInt(2 * Integer.BYTES);
+    firstDate = LocalDate.ofEpochDay(buffer.getInt(3 * Integer.BYTES));
+    lastDate = LocalDate.ofEpochDay(buffer.getInt(4 * Integer.BYTES));
+
+    int offset = HEADER_SIZE;
+    minEventId = buffer.getLong(offset);
+    maxEventId = buffer.getLong(offset + Long.BYTES);
+    minVenueId = buffer.getLong(offset + 2 * Long.BYTES);
+    maxVenueId = buffer.getLong(offset + 3 * Long.BYTES);
+    long[] words = new long[buffer.getInt(offset + 4 * Long.BYTES)];
+    offset += KEYS_HEADER_SIZE;
+
+    for (int word = 0; word < words.length; word++) {
+      words[word] = buffer.getLong(offset);
+      offset += Long.BYTES;
+    }
+
+    keyFilter = BitSet.valueOf(words);
+    keyFilterBits = words.length * 64;
+
+    for (int column = 0; column < COLUMN_COUNT; column++) {
+      offsets[column] = offset;
+      lengths[column] = buffer.getInt((5 + 2 * column) * Integer.BYTES);
+      rawLengths[column] = buffer.getInt((6 + 2 * column) * Integer.BYTES);
+      offset += lengths[column];
+    }
+  }
+
+
+  /**
+   * A method writes the rows of one month to a new segment file and opens it. The file is
+   * written under a temporary name, forced to disk and then renamed, so a segment file is either
+   * complete or not there at all.
+   *
+   * @param file Path of the segment, which must not exist
+   * @param rows List of ArchivedEventDetail with a date, at least one
+   * @return the opened segment.
+   */
+  static EventDetailSegment write(Path file, List<ArchivedEventDetail> rows) {
+    List<ArchivedEventDetail> sorted = rows.stream().sorted(ORDER).toList();
+    byte[][] columns = new byte[COLUMN_COUNT][];
+
+    columns[ID] = encodeDeltas(sorted, ArchivedEventDetail::getEventDetailId);
+    columns[EVENT_ID] = encodeLongs(sorted, ArchivedEventDetail::getEventId);
+    columns[VENUE_ID] = encodeLongs(sorted, ArchivedEventDetail::getVenueId);
+    columns[DESCRIPTION] = encodeStrings(sorted, ArchivedEventDetail::getDescription);
+    columns[DATE] = encodeDeltas(sorted, row -> row.getDate().toEpochDay());
+    columns[START_TIME] = encodeLongs(sorted, row -> toSeconds(row.getStartTime()));
+    columns[END_TIME] = encodeLongs(sorted, row -> toSeconds(row.getEndTime()));
+    columns[IS_FREE] = encodeLongs(sorted, row -> toLong(row.getIsFree()));
+    columns[AVAILABILITY] = encodeLongs(sorted, row -> toLong(row.getAvailability()));
+
+    long[] keyFilter = buildKeyFilter(sorted);
+
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (FileChannel channel =
+        FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+      byte[][] deflated = new byte[COLUMN_COUNT][];
+
+      for (int column = 0; column < COLUMN_COUNT; column++) {
+        deflated[column] = deflate(columns[column]);
+      }
+
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(sorted.size());
+      out.writeInt((int) sorted.get(0).getDate().toEpochDay());
+      out.writeInt((int) sorted.get(sorted.size() - 1).getDate().toEpochDay());
+
+      for (int column = 0; column < COLUMN_COUNT; column++) {
+        out.writeInt(deflated[column].length);
+        out.writeInt(columns[column].length);
+      }
+
+      out.writeLong(min(sorted, ArchivedEventDetail::getEventId));
+      out.writeLong(max(sorted, ArchivedEventDetail::getEventId));
+      out.writeLong(min(sorted, ArchivedEventDetail::getVenueId));
+      out.writeLong(max(sorted, ArchivedEventDetail::getVenueId));
+      out.writeInt(keyFilter.length);
+
+      for (long word : keyFilter) {
+        out.writeLong(word);
+      }
+
+      for (byte[] column : deflated) {
+        out.write(column);
+      }
+
+      out.flush();
+      channel.force(true);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    try {
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return open(file);
+  }
+
+
+  /**
+   * A method maps an existing segment file into memory.
+   *
+   * @param file Path
+   * @return the opened segment.
+   * @throws IllegalStateException if the file is not a segment.
+   */
+  static EventDetailSegment open(Path file) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      return new EventDetailSegment(file,
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+
+  /**
+   * A method checks from the header alone whether some row of the segment may match a filter.
+   *
+   * @param filter EventDetailArchive.Filter
+   * @return false if no row can match, true if some row may.
+   */
+  boolean mayMatch(EventDetailArchive.Filter filter) {
+    LocalDate date = filter.getDate();
+
+    if (Objects.nonNull(date) && (date.isBefore(firstDate) || date.isAfter(lastDate))) {
+      return false;
+    }
+
+    return mayHoldAny(EVENT_ID, filter.getEventIds(), minEventId, maxEventId)
+        && mayHoldAny(VENUE_ID, filter.getVenueIds(), minVenueId, maxVenueId);
+  }
+
+
+  /**
+   * A method finds the rows of the segment matching a filter.
+   *
+   * @param filter EventDetailArchive.Filter
+   * @return matching rows in (date, eventDetailId) order.
+   */
+  List<ArchivedEventDetail> find(EventDetailArchive.Filter filter) {
+    if (!mayMatch(filter)) {
+      return List.of();
+    }
+
+    LocalDate date = filter.getDate();
+
+    long[] dates = decodeDeltas(DATE);
+    BitSet matches = new BitSet(rowCount);
+    matches.set(0, rowCount);
+
+    Long[] eventIds = null;
+    Long[] venueIds = null;
+
+    if (Objects.nonNull(date)) {
+      for (int row = 0; row < rowCount; row++) {
+        if (dates[row] != date.toEpochDay()) {
+          matches.clear(row);
+        }
+      }
+    }
+
+    if (Objects.nonNull(filter.getEventIds())) {
+      eventIds = decodeLongs(EVENT_ID);
+      keepIn(matches, eventIds, filter.getEventIds());
+    }
+
+    if (Objects.nonNull(filter.getVenueIds())) {
+      venueIds = decodeLongs(VENUE_ID);
+      keepIn(matches, venueIds, filter.getVenueIds());
+    }
+
+    if (matches.isEmpty()) {
+      return List.of();
+    }
+
+    // The remaining columns are only inflated for segments that return rows
+    long[] ids = decodeDeltas(ID);
+    eventIds = Objects.isNull(eventIds) ? decodeLongs(EVENT_ID) : eventIds;
+    venueIds = Objects.isNull(venueIds) ? decodeLongs(VENUE_ID) : venueIds;
+    String[] descriptions = decodeStrings(DESCRIPTION);
+    Long[] startTimes = decodeLongs(START_TIME);
+    Long[] endTimes = decodeLongs(END_TIME);
+    Long[] isFree = decodeLongs(IS_FREE);
+    Long[] availabilities = decodeLongs(AVAILABILITY);
+
+    List<ArchivedEventDetail> rows = new ArrayList<>(matches.cardinality());
+
+    for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+      rows.add(new ArchivedEventDetail(ids[row], eventIds[row], venueIds[row], descriptions[row],
+          LocalDate.ofEpochDay(dates[row]), toTime(startTimes[row]), toTime(endTimes[row]),
+          toBoolean(isFree[row]), toBoolean(availabilities[row])));
+    }
+
+    return rows;
+  }
+
+
+  private boolean mayHoldAny(int column, Set<Long> ids, long min, long max) {
+    return Objects.isNull(ids)
+        || ids.stream().anyMatch(id -> id >= min && id <= max && mayHold(column, id));
+  }
+
+
+  /**
+   * A method probes the key filter for a value of a column.
+   *
+   * @param column int
+   * @param value long Id
+   * @return false if no row has the value.
+   */
+  private boolean mayHold(int column, long value) {
+    long hash = keyHash(column, value);
+
+    for (int probe = 0; probe < KEY_FILTER_PROBES; probe++) {
+      if (!keyFilter.get(probeBit(hash, probe, keyFilterBits))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+
+  /**
+   * A method builds the key filter of the event and venue Ids of the rows, sized for the distinct
+   * keys.
+   *
+   * @param rows List of ArchivedEventDetail
+   * @return the words of the filter.
+   */
+  private static long[] buildKeyFilter(List<ArchivedEventDetail> rows) {
+    Set<Long> hashes = new HashSet<>();
+
+    for (ArchivedEventDetail row : rows) {
+      if (Objects.nonNull(row.getEventId())) {
+        hashes.add(keyHash(EVENT_ID, row.getEventId()));
+      }
+      if (Objects.nonNull(row.getVenueId())) {
+        hashes.add(keyHash(VENUE_ID, row.getVenueId()));
+      }
+    }
+
+    int words = Math.max(1, (hashes.size() * KEY_FILTER_BITS_PER_KEY + 63) / 64);
+    BitSet filter = new BitSet(words * 64);
+
+    for (long hash : hashes) {
+      for (int probe = 0; probe < KEY_FILTER_PROBES; probe++) {
+        filter.set(probeBit(hash, probe, words * 64));
+      }
+    }
+
+    // Trailing zero words are dropped by toLongArray, the file keeps the full size
+    return Arrays.copyOf(filter.toLongArray(), words);
+  }
+
+
+  /*
+   * Key hashes mix the column into a 64-bit finalizer, and the probes are derived from its two
+   * halves by double hashing.
+   */
+  private static long keyHash(int column, long value) {
+    long hash = value * 0x9E3779B97F4A7C15L + column;
+    hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+    return hash ^ (hash >>> 31);
+  }
+
+  private static int probeBit(long hash, int probe, int bits) {
+    int first = (int) hash;
+    int second = (int) (hash >>> 32) | 1;
+    return Math.floorMod(first + probe * second, bits);
+  }
+
+
+  private static long min(List<ArchivedEventDetail> rows,
+      Function<ArchivedEventDetail, Long> getter) {
+    return rows.stream().map(getter).filter(Objects::nonNull).mapToLong(Long::longValue).min()
+        .orElse(Long.MAX_VALUE);
+  }
+
+  private static long max(List<ArchivedEventDetail> rows,
+      Function<ArchivedEventDetail, Long> getter) {
+    return rows.stream().map(getter).filter(Objects::nonNull).mapToLong(Long::longValue).max()
+        .orElse(Long.MIN_VALUE);
+  }
+
+
+  /**
+   * A method clears the rows whose value is not one of those looked for.
+   *
+   * @param matches BitSet of the rows still matching
+   * @param values Long array of a decoded column
+   * @param wanted Set of Long looked for
+   */
+  private static void keepIn(BitSet matches, Long[] values, Set<Long> wanted) {
+    for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+      if (Objects.isNull(values[row]) || !wanted.contains(values[row])) {
+        matches.clear(row);
+      }
+    }
+  }
+
+
+  /**
+   * A method inflates one column from the mapped file.
+   *
+   * @param column int
+   * @return the encoded column.
+   */
+  private byte[] inflate(int column) {
+    Inflater inflater = new Inflater();
+
+    try {
+      inflater.setInput(buffer.slice(offsets[column], lengths[column]));
+      byte[] raw = new byte[rawLengths[column]];
+      int inflated = 0;
+
+      while (inflated < raw.length && !inflater.finished()) {
+        inflated += inflater.inflate(raw, inflated, raw.length - inflated);
+      }
+
+      return raw;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Column " + column + " of " + file + " is corrupt.", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+
+  /**
+   * A method decodes a column of values stored as differences to the previous row.
+   *
+   * @param column int
+   * @return values, one per row.
+   */
+  private long[] decodeDeltas(int column) {
+    ByteBuffer encoded = ByteBuffer.wrap(inflate(column));
+    long[] values = new long[rowCount];
+    long previous = 0;
+
+    for (int row = 0; row < rowCount; row++) {
+      previous += unzigzag(readVarLong(encoded));
+      values[row] = previous;
+    }
+
+    return values;
+  }
+
+
+  /**
+   * A method decodes a column of nullable values, stored one higher than their zigzag form so
+   * zero stands for null.
+   *
+   * @param column int
+   * @return values, one per row.
+   */
+  private Long[] decodeLongs(int column) {
+    ByteBuffer encoded = ByteBuffer.wrap(inflate(column));
+    Long[] values = new Long[rowCount];
+
+    for (int row = 0; row < rowCount; row++) {
+      long value = readVarLong(encoded);
+      values[row] = value == 0 ? null : unzigzag(value - 1);
+    }
+
+    return values;
+  }
+
+
+  /**
+   * A method decodes a dictionary column: the distinct strings, then one code per row, zero for
+   * null. Rows with the same string share one instance.
+   *
+   * @param column int
+   * @return values, one per row.
+   */
+  private String[] decodeStrings(int column) {
+    ByteBuffer encoded = ByteBuffer.wrap(inflate(column));
+    String[] dictionary = new String[(int) readVarLong(encoded)];
+
+    for (int code = 0; code < dictionary.length; code++) {
+      byte[] utf8 = new byte[(int) readVarLong(encoded)];
+      encoded.get(utf8);
+      dictionary[code] = new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    String[] values = new String[rowCount];
+
+    for (int row = 0; row < rowCount; row++) {
+      int code = (int) readVarLong(encoded);
+      values[row] = code == 0 ? null : dictionary[code - 1];
+    }
+
+    return values;
+  }
+
+
+  private static byte[] encodeDeltas(List<ArchivedEventDetail> rows,
+      ToLongFunction<ArchivedEventDetail> getter) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long previous = 0;
+
+    for (ArchivedEventDetail row : rows) {
+      long value = getter.applyAsLong(row);
+      writeVarLong(out, zigzag(value - previous));
+      previous = value;
+    }
+
+    return out.toByteArray();
+  }
+
+
+  private static byte[] encodeLongs(List<ArchivedEventDetail> rows,
+      Function<ArchivedEventDetail, Long> getter) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    for (ArchivedEventDetail row : rows) {
+      Long value = getter.apply(row);
+      writeVarLong(out, Objects.isNull(value) ? 0 : zigzag(value) + 1);
+    }
+
+    return out.toByteArray();
+  }
+
+
+  private static byte[] encodeStrings(List<ArchivedEventDetail> rows,
+      Function<ArchivedEventDetail, String> getter) {
+    Map<String, Integer> codes = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+    ByteArrayOutputStream encodedCodes = new ByteArrayOutputStream();
+
+    for (ArchivedEventDetail row : rows) {
+      String value = getter.apply(row);
+
+      if (Objects.isNull(value)) {
+        writeVarLong(encodedCodes, 0);
+        continue;
+      }
+
+      int code = codes.computeIfAbsent(value, newValue -> {
+        dictionary.add(newValue);
+        return dictionary.size();
+      });
+      writeVarLong(encodedCodes, code);
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writeVarLong(out, dictionary.size());
+
+    for (String value : dictionary) {
+      byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+      writeVarLong(out, utf8.length);
+      out.writeBytes(utf8);
+    }
+
+    out.writeBytes(encodedCodes.toByteArray());
+    return out.toByteArray();
+  }
+
+
+  private static byte[] deflate(byte[] raw) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+      byte[] chunk = new byte[8192];
+
+      while (!deflater.finished()) {
+        out.write(chunk, 0, deflater.deflate(chunk));
+      }
+
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+
+  /*
+   * Variable-length integers, seven bits per byte with the high bit set on all but the last.
+   * Zigzag encoding maps small negative numbers to small positive ones first.
+   */
+  private static void writeVarLong(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+
+    out.write((int) value);
+  }
+
+  private static long readVarLong(ByteBuffer in) {
+    long value = 0;
+
+    for (int shift = 0;; shift += 7) {
+      byte next = in.get();
+      value |= (long) (next & 0x7F) << shift;
+
+      if ((next & 0x80) == 0) {
+        return value;
+      }
+    }
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+
+  private static Long toSeconds(LocalTime time) {
+    return Objects.isNull(time) ? null : (long) time.toSecondOfDay();
+  }
+
+  private static LocalTime toTime(Long seconds) {
+    return Objects.isNull(seconds) ? null : LocalTime.ofSecondOfDay(seconds);
+  }
+
+  private static Long toLong(Boolean value) {
+    return Objects.isNull(value) ? null : value ? 1L : 0L;
+  }
+
+  private static Boolean toBoolean(Long value) {
+    return Objects.isNull(value) ? null : value == 1L;
+  }
+}
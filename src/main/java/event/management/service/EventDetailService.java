@@ -1,20 +1,49 @@
 package event.management.service;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import event.management.controller.model.AvailabilityUpdateData;
+import event.management.controller.model.AvailabilityUpdateResult;
+import event.management.controller.model.EventDetailBatchData;
+import event.management.controller.model.EventDetailBatchResult;
 import event.management.controller.model.EventDetailData;
+import event.management.controller.model.EventDetailPage;
 import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.EventDetailSearchCriteria;
+import event.management.controller.model.ListingVersion;
+import event.management.controller.model.ScheduleChangeResult;
+import event.management.dao.EventDao;
 import event.management.dao.EventDetailDao;
+import event.management.dao.VenueDao;
 import event.management.entity.Event;
 import event.management.entity.EventDetail;
 import event.management.entity.Venue;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class EventDetailService {
@@ -28,18 +57,100 @@ public class EventDetailService {
   @Autowired
   private VenueService venueService;
 
+  @Value("${event-management.page.default-size}")
+  private int defaultPageSize;
+
+  @Value("${event-management.page.max-size}")
+  private int maxPageSize;
+
+  @Value("${event-management.batch.chunk-size}")
+  private int batchChunkSize;
+
+  @Autowired
+  private EventDao eventDao;
+
+  @Autowired
+  private VenueDao venueDao;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private ScheduleCache scheduleCache;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
 
 
   /**
-   * A service layer method that save or update an event detail.
+   * A service layer method that save or update an event detail. An update carrying a version is
+   * only applied to that version, and every update is checked against concurrent ones when it is
+   * flushed, so no lock is held between reading and writing.
    * 
    * @param eventId Long
    * @param venueId Long
    * @param eventDetailData EventDetailData
    * @return created or modified EventDetailData object
+   * @throws VersionConflictException if the event detail was changed by someone else.
+   * @throws BookingConflictException if the venue is already booked at that time.
    */
   public EventDetailData saveEventDetail(Long eventId, Long venueId,
       EventDetailData eventDetailData) {
+    return saveEventDetail(eventId, venueId, eventDetailData, null);
+  }
+
+
+  /**
+   * A method saves an event detail replacing an occurrence of a recurrence, whose booking the new
+   * event detail takes over.
+   * 
+   * @param eventId Long
+   * @param venueId Long
+   * @param eventDetailData EventDetailData
+   * @param replaced VenueBooking of the replaced occurrence, null if there is none
+   * @return created or modified EventDetailData object
+   * @throws VersionConflictException if the event detail was changed by someone else.
+   * @throws BookingConflictException if the venue is already booked at that time.
+   */
+  EventDetailData saveEventDetail(Long eventId, Long venueId, EventDetailData eventDetailData,
+      VenueBooking replaced) {
+    try {
+      return transactionTemplate
+          .execute(status -> writeEventDetail(eventId, venueId, eventDetailData, replaced));
+    } catch (OptimisticLockingFailureException e) {
+      // A concurrent update committed between our read and our flush
+      throw new VersionConflictException(
+          "Event detail with ID=" + eventDetailData.getEventDetailId()
+              + " was modified concurrently.",
+          transactionTemplate.execute(status -> new EventDetailData(
+              findEventDetailById(eventDetailData.getEventDetailId()))));
+    }
+  }
+
+
+  /**
+   * A method writes an event detail in the transaction of saveEventDetail.
+   * 
+   * @param eventId Long
+   * @param venueId Long
+   * @param eventDetailData EventDetailData
+   * @param replaced VenueBooking of the occurrence a new event detail replaces, null if none
+   * @return created or modified EventDetailData object
+   * @throws VersionConflictException if the given version is not the current one.
+   * @throws BookingConflictException if the venue is already booked at that time.
+   */
+  private EventDetailData writeEventDetail(Long eventId, Long venueId,
+      EventDetailData eventDetailData, VenueBooking replaced) {
 
     // Retrieving event
     Event event = eventService.findEventById(eventId);
@@ -49,22 +160,207 @@ public class EventDetailService {
     Long eventDetailId = eventDetailData.getEventDetailId();
 
     EventDetail eventDetail = findOrCreateEventDetail(eventId, venueId, eventDetailId);
+    LocalDate previousDate = eventDetail.getDate();
+    VenueBooking previousBooking =
+        Objects.isNull(eventDetailId) ? replaced : VenueBooking.of(eventDetail);
+
+    if (Objects.nonNull(eventDetailId) && Objects.nonNull(eventDetailData.getVersion())
+        && !eventDetailData.getVersion().equals(eventDetail.getVersion())) {
+      throw new VersionConflictException("Event detail with ID=" + eventDetailId
+          + " is at version " + eventDetail.getVersion() + ", not "
+          + eventDetailData.getVersion() + ".", new EventDetailData(eventDetail));
+    }
 
     copyEventDetailFields(eventDetail, eventDetailData);
 
-    // Setting relationships with event
+    // Setting relationships on the owning side only. The lazy event details collections of event
+    // and venue are never initialized, so an insert does not depend on their history.
     eventDetail.setEvent(event);
-    event.getEventDetails().add(eventDetail);
-
-    // Setting relationships with venue
     eventDetail.setVenue(venue);
-    venue.getEventDetails().add(eventDetail);
 
-    EventDetail dbEventDetail = eventDetailDao.save(eventDetail);
+    // Flushing here runs the version check and returns the incremented version
+    EventDetail dbEventDetail = eventDetailDao.saveAndFlush(eventDetail);
+    // Claimed after the flush, when a new event detail has its Id to report in conflicts
+    venueBookingIndex.book(VenueBooking.of(dbEventDetail), previousBooking);
+    eventPublisher
+        .publishEvent(ScheduleChangedEvent.forDates(previousDate, dbEventDetail.getDate()));
     return new EventDetailData(dbEventDetail);
   }
 
 
+  /**
+   * A service layer method that creates many event details. The items are written in chunks, each
+   * in its own transaction with JDBC batching, so a failing chunk only affects its own items.
+   * 
+   * @param eventDetailsData List of EventDetailBatchData
+   * @return one result per item, in the submitted order.
+   */
+  public List<EventDetailBatchResult> saveEventDetails(
+      List<EventDetailBatchData> eventDetailsData) {
+    List<EventDetailBatchResult> results = new ArrayList<>(eventDetailsData.size());
+
+    for (int start = 0; start < eventDetailsData.size(); start += batchChunkSize) {
+      int end = Math.min(start + batchChunkSize, eventDetailsData.size());
+      results.addAll(saveEventDetailChunk(eventDetailsData.subList(start, end), start));
+    }
+
+    return results;
+  }
+
+
+  /**
+   * A method writes one chunk of a batch in a single transaction. If the transaction fails, every
+   * item of the chunk that would have been created is reported as failed.
+   * 
+   * @param chunk List of EventDetailBatchData
+   * @param offset int index of the first item of the chunk in the whole batch
+   * @return one result per item of the chunk.
+   */
+  private List<EventDetailBatchResult> saveEventDetailChunk(List<EventDetailBatchData> chunk,
+      int offset) {
+    EventDetailBatchResult[] results = new EventDetailBatchResult[chunk.size()];
+
+    try {
+      transactionTemplate
+          .executeWithoutResult(status -> writeEventDetailChunk(chunk, offset, results));
+    } catch (DataAccessException | TransactionException e) {
+      failCreatedItems(results, e.getMostSpecificCause().getMessage());
+    } catch (BookingConflictException e) {
+      // A concurrent write booked the venue between the check of an item and its claim
+      failCreatedItems(results, e.getMessage());
+    }
+
+    return List.of(results);
+  }
+
+
+  /**
+   * A method reports the items of a rolled back chunk that would have been created as failed.
+   * 
+   * @param results EventDetailBatchResult array of the chunk
+   * @param message String
+   */
+  private void failCreatedItems(EventDetailBatchResult[] results, String message) {
+    for (EventDetailBatchResult result : results) {
+      if (Objects.nonNull(result)
+          && result.getStatus() == EventDetailBatchResult.Status.CREATED) {
+        result.setEventDetailId(null);
+        result.setStatus(EventDetailBatchResult.Status.FAILED);
+        result.setMessage(message);
+      }
+    }
+  }
+
+
+  /**
+   * A method validates and inserts one chunk. Events and venues are resolved with one query each
+   * for the whole chunk, and the persistence context is cleared afterwards so it does not grow
+   * with the batch.
+   * 
+   * @param chunk List of EventDetailBatchData
+   * @param offset int index of the first item of the chunk in the whole batch
+   * @param results EventDetailBatchResult array filled with one result per item
+   */
+  private void writeEventDetailChunk(List<EventDetailBatchData> chunk, int offset,
+      EventDetailBatchResult[] results) {
+    Map<Long, Event> events = new HashMap<>();
+    Map<Long, Venue> venues = new HashMap<>();
+
+    eventDao.findAllById(chunk.stream().map(EventDetailBatchData::getEventId)
+        .filter(Objects::nonNull).collect(Collectors.toSet()))
+        .forEach(event -> events.put(event.getEventId(), event));
+    venueDao.findAllById(chunk.stream().map(EventDetailBatchData::getVenueId)
+        .filter(Objects::nonNull).collect(Collectors.toSet()))
+        .forEach(venue -> venues.put(venue.getVenueId(), venue));
+
+    Map<Integer, EventDetail> eventDetails = new LinkedHashMap<>();
+    Map<Integer, VenueBooking> bookings = new LinkedHashMap<>();
+
+    for (int i = 0; i < chunk.size(); i++) {
+      EventDetailBatchData eventDetailData = chunk.get(i);
+
+      if (Objects.nonNull(eventDetailData.getEventDetailId())) {
+        results[i] = new EventDetailBatchResult(offset + i, null,
+            EventDetailBatchResult.Status.FAILED, "Event detail Id must be null in a batch.");
+      } else if (!events.containsKey(eventDetailData.getEventId())) {
+        results[i] = new EventDetailBatchResult(offset + i, null,
+            EventDetailBatchResult.Status.FAILED,
+            "Event with ID=" + eventDetailData.getEventId() + " does not exist.");
+      } else if (!venues.containsKey(eventDetailData.getVenueId())) {
+        results[i] = new EventDetailBatchResult(offset + i, null,
+            EventDetailBatchResult.Status.FAILED,
+            "Venue with ID=" + eventDetailData.getVenueId() + " was not found.");
+      } else {
+        String conflict = findBatchConflict(eventDetailData, bookings, offset);
+
+        if (Objects.nonNull(conflict)) {
+          results[i] = new EventDetailBatchResult(offset + i, null,
+              EventDetailBatchResult.Status.FAILED, conflict);
+          continue;
+        }
+
+        EventDetail eventDetail = new EventDetail();
+        copyEventDetailFields(eventDetail, eventDetailData);
+        eventDetail.setEvent(events.get(eventDetailData.getEventId()));
+        eventDetail.setVenue(venues.get(eventDetailData.getVenueId()));
+        eventDetails.put(i, eventDetail);
+        bookings.put(i, VenueBooking.of(eventDetail));
+      }
+    }
+
+    eventDetailDao.saveAll(eventDetails.values());
+    eventDetailDao.flush();
+
+    // The new event details have their Ids now, a clash here means a concurrent write
+    for (EventDetail eventDetail : eventDetails.values()) {
+      venueBookingIndex.book(VenueBooking.of(eventDetail), null);
+    }
+
+    eventDetails.forEach((i, eventDetail) -> results[i] = new EventDetailBatchResult(offset + i,
+        eventDetail.getEventDetailId(), EventDetailBatchResult.Status.CREATED, null));
+
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(
+        eventDetails.values().stream().map(EventDetail::getDate).toList()));
+
+    entityManager.clear();
+  }
+
+
+  /**
+   * A method checks a batch item against the venue bookings and the earlier items of its chunk.
+   * 
+   * @param eventDetailData EventDetailBatchData
+   * @param bookings VenueBooking of the accepted items of the chunk by index, null values for
+   *        items booking nothing
+   * @param offset int index of the first item of the chunk in the whole batch
+   * @return the conflict message, or null if the venue is free at that time.
+   */
+  private String findBatchConflict(EventDetailBatchData eventDetailData,
+      Map<Integer, VenueBooking> bookings, int offset) {
+    VenueBooking booking = VenueBooking.of(eventDetailData.getVenueId(),
+        eventDetailData.getDate(), eventDetailData.getStartTime(), eventDetailData.getEndTime(),
+        null);
+
+    if (Objects.isNull(booking)) {
+      return null;
+    }
+
+    List<VenueBooking> conflicts = venueBookingIndex.findConflicts(booking);
+
+    if (!conflicts.isEmpty()) {
+      return VenueBookingIndex.describeConflict(booking, conflicts);
+    }
+
+    return bookings.entrySet().stream()
+        .filter(entry -> Objects.nonNull(entry.getValue()) && entry.getValue().overlaps(booking))
+        .findFirst()
+        .map(entry -> "Venue with ID=" + booking.getVenueId() + " is already booked on "
+            + booking.getDate() + " from " + booking.describe() + " by item "
+            + (offset + entry.getKey()) + " of the batch.")
+        .orElse(null);
+  }
+
+
   /**
    * A convenient method for setting event detail object fields.
    * 
@@ -172,17 +468,55 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details.
+   * A method retrieves the validator of an event detail listing with aggregate queries. At most
+   * one filter is set, the same one as for the listing itself.
+   * 
+   * @param eventId Long
+   * @param eventName String
+   * @param venueId Long
+   * @param venueName String
+   * @param date LocalDate
+   * @return ListingVersion
+   */
+  // Not transactional, the date listing validator is usually served from the schedule cache
+  public ListingVersion retrieveEventDetailListingVersion(Long eventId, String eventName,
+      Long venueId, String venueName, LocalDate date) {
+    if (Objects.nonNull(eventId)) {
+      return eventDetailDao.findListingVersionByEventId(eventId);
+    } else if (Objects.nonNull(eventName)) {
+      return eventDetailDao.findListingVersionByEventName(eventName);
+    } else if (Objects.nonNull(venueId)) {
+      return eventDetailDao.findListingVersionByVenueId(venueId);
+    } else if (Objects.nonNull(venueName)) {
+      return eventDetailDao.findListingVersionByVenueName(venueName);
+    } else if (Objects.nonNull(date)) {
+      return scheduleCache.findScheduleVersion(date);
+    }
+
+    // Without a filter each table is aggregated on its own instead of joining them all
+    return eventDetailDao.findListingVersion().and(eventDao.findListingVersion())
+        .and(venueDao.findListingVersion());
+  }
+
+
+  /**
+   * A method retrieves a page of all event details.
    * 
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
   @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetail() {
-    List<EventDetailResponse> eventDetails = new ArrayList<>();
-    eventDetails = eventDetailDao.findAll().stream().map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetail(Integer pageSize, String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
+
+    EventDetailPage eventDetails = buildPage(withArchived(eventDetailDao.findPage(
+        cursor.getDate(), cursor.getEventDetailId(), PageRequest.of(0, size + 1)),
+        EventDetailArchive.Filter.ALL, cursor, size + 1), size);
 
-    if (eventDetails.isEmpty()) {
+    if (eventDetails.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found.");
     }
 
@@ -191,19 +525,28 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details by date.
+   * A method retrieves a page of event details by date. The schedule of the date is served from
+   * the schedule cache and the page is cut from it in memory, so a cache hit does not touch the
+   * database.
    * 
    * @param date LocalDate
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
-  @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetailByDate(LocalDate date) {
-    List<EventDetailResponse> eventDetailsByDate = new ArrayList<>();
-    eventDetailsByDate =
-        eventDetailDao.findAllByDate(date).stream().map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetailByDate(LocalDate date, Integer pageSize,
+      String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
+
+    List<EventDetailResponse> schedule = scheduleCache.findSchedule(date);
+    int start = findPageStart(schedule, date, cursor);
 
-    if (eventDetailsByDate.isEmpty()) {
+    EventDetailPage eventDetailsByDate = buildPage(
+        schedule.subList(start, Math.min(start + size + 1, schedule.size())), size);
+
+    if (eventDetailsByDate.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found on " + date);
     }
 
@@ -212,19 +555,67 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details by event name.
+   * A method finds where the page following a cursor starts in the schedule of a date. It mirrors
+   * the keyset predicate of the listing queries, restricted to rows of a single date.
+   * 
+   * @param schedule List of EventDetailResponse of the date ordered by event detail Id
+   * @param date LocalDate
+   * @param cursor EventDetailCursor
+   * @return index of the first row of the page, the schedule size if the page is empty.
+   */
+  private int findPageStart(List<EventDetailResponse> schedule, LocalDate date,
+      EventDetailCursor cursor) {
+    if (Objects.isNull(cursor.getEventDetailId()) || Objects.isNull(cursor.getDate())
+        || cursor.getDate().isBefore(date)) {
+      return 0;
+    }
+
+    if (cursor.getDate().isAfter(date)) {
+      return schedule.size();
+    }
+
+    // Binary search for the first row after the cursor Id
+    int low = 0;
+    int high = schedule.size();
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (schedule.get(middle).getEventDetailId() <= cursor.getEventDetailId()) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+
+  /**
+   * A method retrieves a page of event details by event name.
    * 
    * @param eventName String
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
   @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetailByEventName(String eventName) {
-    List<EventDetailResponse> eventDetailsByEventName = new ArrayList<>();
-    eventDetailsByEventName = eventDetailDao.findAllByEventEventName(eventName).stream()
-        .map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetailByEventName(String eventName, Integer pageSize,
+      String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
 
-    if (eventDetailsByEventName.isEmpty()) {
+    List<Long> eventIds = eventDao.findEventIdsByEventName(eventName);
+
+    EventDetailPage eventDetailsByEventName = buildPage(withArchived(
+        findPageByEachId(eventIds,
+            eventId -> eventDetailDao.findPageByEventId(eventId, cursor.getDate(),
+                cursor.getEventDetailId(), PageRequest.of(0, size + 1)), size + 1),
+        EventDetailArchive.Filter.byEventIds(eventIds), cursor, size + 1), size);
+
+    if (eventDetailsByEventName.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found by event name= " + eventName);
     }
 
@@ -233,19 +624,26 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details by event Id.
+   * A method retrieves a page of event details by event Id.
    * 
    * @param eventId Long
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
   @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetailByEventId(Long eventId) {
-    List<EventDetailResponse> eventDetailsByEventId = new ArrayList<>();
-    eventDetailsByEventId = eventDetailDao.findAllByEventEventId(eventId).stream()
-        .map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetailByEventId(Long eventId, Integer pageSize,
+      String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
 
-    if (eventDetailsByEventId.isEmpty()) {
+    EventDetailPage eventDetailsByEventId = buildPage(withArchived(
+        eventDetailDao.findPageByEventId(eventId, cursor.getDate(), cursor.getEventDetailId(),
+            PageRequest.of(0, size + 1)),
+        EventDetailArchive.Filter.byEventId(eventId), cursor, size + 1), size);
+
+    if (eventDetailsByEventId.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found by event ID= " + eventId);
     }
 
@@ -254,19 +652,29 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details by venue name.
+   * A method retrieves a page of event details by venue name.
    * 
    * @param venueName String
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
   @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetailByVenueName(String venueName) {
-    List<EventDetailResponse> eventDetailsByVenueName = new ArrayList<>();
-    eventDetailsByVenueName = eventDetailDao.findAllByVenueVenueName(venueName).stream()
-        .map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetailByVenueName(String venueName, Integer pageSize,
+      String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
+
+    List<Long> venueIds = venueDao.findVenueIdsByVenueName(venueName);
 
-    if (eventDetailsByVenueName.isEmpty()) {
+    EventDetailPage eventDetailsByVenueName = buildPage(withArchived(
+        findPageByEachId(venueIds,
+            venueId -> eventDetailDao.findPageByVenueId(venueId, cursor.getDate(),
+                cursor.getEventDetailId(), PageRequest.of(0, size + 1)), size + 1),
+        EventDetailArchive.Filter.byVenueIds(venueIds), cursor, size + 1), size);
+
+    if (eventDetailsByVenueName.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found by venu name= " + venueName);
     }
 
@@ -275,19 +683,26 @@ public class EventDetailService {
 
 
   /**
-   * A method retrieves all event details by venue Id.
+   * A method retrieves a page of event details by venue Id.
    * 
    * @param venueId Long
-   * @return list of EventDetailResponse.
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
    * @throws NoSuchElementException if no event details are found.
    */
   @Transactional(readOnly = true)
-  public List<EventDetailResponse> retrieveAllEventDetailByVenueId(Long venueId) {
-    List<EventDetailResponse> eventDetailsByVenueId = new ArrayList<>();
-    eventDetailsByVenueId = eventDetailDao.findAllByVenueVenueId(venueId).stream()
-        .map(EventDetailResponse::new).toList();
+  public EventDetailPage retrieveAllEventDetailByVenueId(Long venueId, Integer pageSize,
+      String pageToken) {
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
+
+    EventDetailPage eventDetailsByVenueId = buildPage(withArchived(
+        eventDetailDao.findPageByVenueId(venueId, cursor.getDate(), cursor.getEventDetailId(),
+            PageRequest.of(0, size + 1)),
+        EventDetailArchive.Filter.byVenueId(venueId), cursor, size + 1), size);
 
-    if (eventDetailsByVenueId.isEmpty()) {
+    if (eventDetailsByVenueId.getEventDetails().isEmpty()) {
       throw new NoSuchElementException("No Event detail found by venue ID= " + venueId);
     }
 
@@ -295,6 +710,309 @@ public class EventDetailService {
   }
 
 
+  /**
+   * A method retrieves a page of event details matching a combination of search filters in a
+   * single query.
+   * 
+   * @param criteria EventDetailSearchCriteria
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @param pageToken String token of the page to return, null for the first page
+   * @return page of EventDetailResponse.
+   * @throws IllegalStateException if the date range or the time window is reversed.
+   * @throws NoSuchElementException if no event details are found.
+   */
+  @Transactional(readOnly = true)
+  public EventDetailPage searchEventDetails(EventDetailSearchCriteria criteria, Integer pageSize,
+      String pageToken) {
+    if (Objects.nonNull(criteria.getFrom()) && Objects.nonNull(criteria.getTo())
+        && criteria.getFrom().isAfter(criteria.getTo())) {
+      throw new IllegalStateException("Date 'from' can not be after date 'to'.");
+    }
+    if (Objects.nonNull(criteria.getStartTime()) && Objects.nonNull(criteria.getEndTime())
+        && criteria.getStartTime().isAfter(criteria.getEndTime())) {
+      throw new IllegalStateException("Start time can not be after end time.");
+    }
+
+    int size = resolvePageSize(pageSize);
+    EventDetailCursor cursor = EventDetailCursor.decode(pageToken);
+
+    EventDetailPage eventDetails = buildPage(eventDetailDao.search(criteria, cursor.getDate(),
+        cursor.getEventDetailId(), size + 1), size);
+
+    if (eventDetails.getEventDetails().isEmpty()) {
+      throw new NoSuchElementException("No Event detail found matching " + criteria);
+    }
+
+    return eventDetails;
+  }
+
+
+  /**
+   * A method caps the requested page size at the configured maximum.
+   * 
+   * @param pageSize Integer requested number of rows, null for the default page size
+   * @return number of rows per page.
+   * @throws IllegalStateException if the page size is less than one.
+   */
+  private int resolvePageSize(Integer pageSize) {
+    if (Objects.isNull(pageSize)) {
+      return defaultPageSize;
+    }
+
+    if (pageSize < 1) {
+      throw new IllegalStateException("Page size must be at least 1.");
+    }
+
+    return Math.min(pageSize, maxPageSize);
+  }
+
+
+  /**
+   * A method reads a page of the event details of every event or venue sharing a name. Each Id
+   * is read in the order of its own (id, date) index and the pages are merged, as one query over
+   * all of them would make MySQL sort every row of the name.
+   * 
+   * @param ids List of event or venue Id with the name
+   * @param findPage Function reading the page of one Id
+   * @param limit int number of rows of each page
+   * @return list of at most limit EventDetailResponse in listing order.
+   */
+  private List<EventDetailResponse> findPageByEachId(List<Long> ids,
+      Function<Long, List<EventDetailResponse>> findPage, int limit) {
+    List<EventDetailResponse> eventDetails = List.of();
+
+    for (Long id : ids) {
+      eventDetails = EventDetailArchive.merge(findPage.apply(id), eventDetails, limit);
+    }
+
+    return eventDetails;
+  }
+
+
+  /**
+   * A method adds the archived event details that belong to a page read from the table. The
+   * archive is only read when the page reaches back into an archived month holding a segment the
+   * filter may match.
+   * 
+   * @param eventDetails List of EventDetailResponse read from the table
+   * @param filter EventDetailArchive.Filter of the listing
+   * @param cursor EventDetailCursor of the page
+   * @param limit int number of rows read from the table
+   * @return list of at most limit EventDetailResponse in listing order.
+   */
+  private List<EventDetailResponse> withArchived(List<EventDetailResponse> eventDetails,
+      EventDetailArchive.Filter filter, EventDetailCursor cursor, int limit) {
+    if (!archive.covers(filter, cursor)) {
+      return eventDetails;
+    }
+
+    return EventDetailArchive.merge(eventDetails, archive.findPage(filter, cursor, limit), limit);
+  }
+
+
+  /**
+   * A method builds a page from rows fetched with one extra row, which tells whether a next page
+   * exists without a count query.
+   * 
+   * @param eventDetails List of EventDetailResponse holding at most pageSize + 1 rows
+   * @param pageSize int
+   * @return page of EventDetailResponse.
+   */
+  private EventDetailPage buildPage(List<EventDetailResponse> eventDetails, int pageSize) {
+    List<EventDetailResponse> page = eventDetails.stream().limit(pageSize).toList();
+    String nextPageToken = null;
+
+    if (eventDetails.size() > pageSize) {
+      EventDetailResponse last = page.get(page.size() - 1);
+      nextPageToken = new EventDetailCursor(last.getDate(), last.getEventDetailId()).encode();
+    }
+
+    return new EventDetailPage(page, nextPageToken);
+  }
+
+
+  /**
+   * A service layer method that copies the schedule of an event between two dates to a range
+   * starting on another date, e.g. to run a season again. The copies are inserted with one
+   * statement and keep their venue, times and availability.
+   *
+   * @param eventId Long
+   * @param from LocalDate first date to copy, inclusive
+   * @param to LocalDate last date to copy, inclusive
+   * @param targetFrom LocalDate the date from is copied to
+   * @return the number of created event details and their Ids.
+   * @throws NoSuchElementException if the event is not found.
+   * @throws IllegalStateException if the range is reversed or copied onto itself.
+   * @throws BookingConflictException if a copy clashes with a booking of its venue.
+   */
+  @Transactional(readOnly = false)
+  public ScheduleChangeResult cloneEventSchedule(Long eventId, LocalDate from, LocalDate to,
+      LocalDate targetFrom) {
+    eventService.findEventById(eventId);
+    checkScheduleRange(from, to);
+    long days = ChronoUnit.DAYS.between(from, targetFrom);
+
+    if (days == 0) {
+      throw new IllegalStateException("Schedule can not be copied onto itself.");
+    }
+
+    List<Object[]> rows = eventDetailDao.findBookingsForUpdate(eventId, null, from, to);
+
+    if (rows.isEmpty()) {
+      return new ScheduleChangeResult(0, null, null);
+    }
+
+    long firstId = reserveEventDetailIds(rows.size());
+    Set<Long> copyIds = LongStream.range(firstId, firstId + rows.size()).boxed()
+        .collect(Collectors.toSet());
+
+    // Copies are numbered in the order of their originals, as the insert numbers them
+    for (int i = 0; i < rows.size(); i++) {
+      Object[] row = rows.get(i);
+      venueBookingIndex.book(VenueBooking.of((Long) row[1], ((LocalDate) row[2]).plusDays(days),
+          (LocalTime) row[3], (LocalTime) row[4], firstId + i), null, copyIds);
+    }
+
+    int created = eventDetailDao.cloneByEventId(eventId, from, to, days, firstId);
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(
+        rows.stream().map(row -> ((LocalDate) row[2]).plusDays(days)).toList()));
+    return new ScheduleChangeResult(created, firstId, firstId + created - 1);
+  }
+
+
+  /**
+   * A service layer method that moves the schedule of an event a number of days later or
+   * earlier with one statement. Both dates are optional.
+   *
+   * @param eventId Long
+   * @param from LocalDate first date to move, inclusive
+   * @param to LocalDate last date to move, inclusive
+   * @param days long, negative to move earlier
+   * @return the number of moved event details.
+   * @throws NoSuchElementException if the event is not found.
+   * @throws IllegalStateException if the range is reversed or the offset is zero.
+   * @throws BookingConflictException if a moved event detail clashes with another booking.
+   */
+  @Transactional(readOnly = false)
+  public ScheduleChangeResult shiftEventSchedule(Long eventId, LocalDate from, LocalDate to,
+      long days) {
+    eventService.findEventById(eventId);
+    checkScheduleRange(from, to);
+
+    if (days == 0) {
+      throw new IllegalStateException("Schedule must be moved by at least one day.");
+    }
+
+    List<Object[]> rows = eventDetailDao.findBookingsForUpdate(eventId, null, from, to);
+    Set<Long> movingIds = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toSet());
+    Set<LocalDate> dates = new HashSet<>();
+
+    for (Object[] row : rows) {
+      LocalDate date = (LocalDate) row[2];
+      venueBookingIndex.book(toBooking(row, (Long) row[1], date.plusDays(days)),
+          toBooking(row, (Long) row[1], date), movingIds);
+      dates.add(date);
+      dates.add(date.plusDays(days));
+    }
+
+    int moved = eventDetailDao.shiftByEventId(eventId, from, to, days);
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(dates));
+    return new ScheduleChangeResult(moved, null, null);
+  }
+
+
+  /**
+   * A service layer method that moves the event details of a venue to another venue with one
+   * statement, e.g. when a festival changes its location. Both dates are optional.
+   *
+   * @param venueId Long
+   * @param targetVenueId Long
+   * @param from LocalDate first date to move, inclusive
+   * @param to LocalDate last date to move, inclusive
+   * @return the number of moved event details.
+   * @throws NoSuchElementException if either venue is not found.
+   * @throws IllegalStateException if the range is reversed or both venues are the same.
+   * @throws BookingConflictException if a moved event detail clashes with a booking of the
+   *         target venue.
+   */
+  @Transactional(readOnly = false)
+  public ScheduleChangeResult moveVenueSchedule(Long venueId, Long targetVenueId,
+      LocalDate from, LocalDate to) {
+    venueService.findVenueById(venueId);
+    venueService.findVenueById(targetVenueId);
+    checkScheduleRange(from, to);
+
+    if (venueId.equals(targetVenueId)) {
+      throw new IllegalStateException("Schedule can not be moved to the same venue.");
+    }
+
+    List<Object[]> rows = eventDetailDao.findBookingsForUpdate(null, venueId, from, to);
+
+    for (Object[] row : rows) {
+      venueBookingIndex.book(toBooking(row, targetVenueId, (LocalDate) row[2]),
+          toBooking(row, venueId, (LocalDate) row[2]));
+    }
+
+    int moved = eventDetailDao.moveByVenueId(venueId, targetVenueId, from, to);
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(
+        rows.stream().map(row -> (LocalDate) row[2]).collect(Collectors.toSet())));
+    return new ScheduleChangeResult(moved, null, null);
+  }
+
+
+  /**
+   * A method checks the optional range of a bulk schedule change.
+   *
+   * @param from LocalDate, may be null
+   * @param to LocalDate, may be null
+   * @throws IllegalStateException if both are given and from is after to.
+   */
+  private void checkScheduleRange(LocalDate from, LocalDate to) {
+    if (Objects.nonNull(from) && Objects.nonNull(to) && from.isAfter(to)) {
+      throw new IllegalStateException("Date from=" + from + " is after date to=" + to + ".");
+    }
+  }
+
+
+  /**
+   * A convenient method for the booking of a row of findBookingsForUpdate at another place.
+   *
+   * @param row Object array of event detail Id, venue Id, date, start time and end time
+   * @param venueId Long
+   * @param date LocalDate
+   * @return VenueBooking, null if the row books nothing.
+   */
+  private VenueBooking toBooking(Object[] row, Long venueId, LocalDate date) {
+    return VenueBooking.of(venueId, date, (LocalTime) row[3], (LocalTime) row[4], (Long) row[0]);
+  }
+
+
+  /**
+   * A method takes a number of event detail Ids from the Id generator, in a transaction of its
+   * own so its row is not locked while the copies are written. With the pooled optimizer and the
+   * last used value stored, both pinned in application.yaml, Hibernate moves the stored value up
+   * by the allocation size whenever it reads it and hands out the Ids up to one above the value
+   * it read. No Id above the stored value minus the allocation size plus one is handed out before
+   * the row is read again, so skipping the count plus the allocation size leaves the Ids above
+   * the old stored value to the copies.
+   *
+   * @param count int number of Ids
+   * @return the first reserved Id, the others follow it.
+   */
+  private long reserveEventDetailIds(int count) {
+    TransactionTemplate requiresNew =
+        new TransactionTemplate(transactionTemplate.getTransactionManager());
+    requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    long nextId = requiresNew.execute(status -> {
+      eventDetailDao.skipIds(count + EventDetail.ID_ALLOCATION_SIZE);
+      return eventDetailDao.findNextId();
+    });
+
+    return nextId - count - EventDetail.ID_ALLOCATION_SIZE + 1;
+  }
+
+
   /**
    * A method deletes an event detail by a given event detail Id.
    * @param eventDetailId Long
@@ -303,22 +1021,145 @@ public class EventDetailService {
   public void deleteEventDetailById(Long eventDetailId) {
     EventDetail eventDetail = findEventDetailById(eventDetailId);
     eventDetailDao.delete(eventDetail);
+    venueBookingIndex.release(VenueBooking.of(eventDetail));
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(eventDetail.getDate()));
   }
 
 
   /**
-   * A method updates a single event detail availability by a given event detail Id.
+   * A method updates a single event detail availability by a given event detail Id. With a
+   * version, the update is a single conditional statement that only matches that version.
    * @param eventDetailId
+   * @param version Long expected version, null to update whatever the version
    * @return EventDetailData object
+   * @throws VersionConflictException if the event detail is not at the expected version.
    */
   @Transactional(readOnly = false)
-  public EventDetailData updateEventDetailAvailabilityById(Long eventDetailId) {
-    eventDetailDao.updateEventDetailAvailabilityById(false, eventDetailId);
+  public EventDetailData updateEventDetailAvailabilityById(Long eventDetailId, Long version) {
+    int updated = eventDetailDao.updateEventDetailAvailabilityById(false, eventDetailId, version);
     EventDetail eventDetail = findEventDetailById(eventDetailId);
+
+    if (updated == 0) {
+      throw new VersionConflictException("Event detail with ID=" + eventDetailId
+          + " is at version " + eventDetail.getVersion() + ", not " + version + ".",
+          new EventDetailData(eventDetail));
+    }
+
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(eventDetail.getDate()));
     return new EventDetailData(eventDetail);
   }
 
 
+  /**
+   * A service layer method that sets the availability of many event details, given by Id or by
+   * event, venue and date range, e.g. to close a venue for a week. The selected event details are
+   * read and changed in chunks, each in its own transaction with one statement, so a long
+   * selection never holds all its row locks at once nor all its Ids in memory. A filter is
+   * followed with a keyset cursor, and the details asked for are read chunk by chunk. The details
+   * are returned in one list, so they are only included for selections of up to the maximum
+   * page size.
+   *
+   * @param availabilityUpdateData AvailabilityUpdateData
+   * @param includeEventDetails boolean, true to return the event details as changed
+   * @return the number of selected and changed event details.
+   * @throws IllegalStateException if the availability or the selection is missing, both Ids and
+   *         filters are given, or the details are asked for a selection larger than a page.
+   */
+  public AvailabilityUpdateResult updateEventDetailAvailability(
+      AvailabilityUpdateData availabilityUpdateData, boolean includeEventDetails) {
+    Boolean availability = availabilityUpdateData.getAvailability();
+    Set<Long> eventDetailIds = availabilityUpdateData.getEventDetailIds();
+    boolean filtered = Objects.nonNull(availabilityUpdateData.getEventId())
+        || Objects.nonNull(availabilityUpdateData.getVenueId())
+        || Objects.nonNull(availabilityUpdateData.getFrom())
+        || Objects.nonNull(availabilityUpdateData.getTo());
+
+    if (Objects.isNull(availability)) {
+      throw new IllegalStateException("Availability can not be empty.");
+    }
+
+    if (Objects.nonNull(eventDetailIds) == filtered) {
+      throw new IllegalStateException(
+          "Either event detail Ids or an event, venue or date range filter is required.");
+    }
+
+    checkScheduleRange(availabilityUpdateData.getFrom(), availabilityUpdateData.getTo());
+
+    // Checked before anything is changed, reading at most one row more than a page
+    if (includeEventDetails && (filtered
+        ? eventDetailDao.findDatesPageBy(availabilityUpdateData.getEventId(),
+            availabilityUpdateData.getVenueId(), availabilityUpdateData.getFrom(),
+            availabilityUpdateData.getTo(), null, null, PageRequest.of(0, maxPageSize + 1))
+            .size()
+        : eventDetailIds.size()) > maxPageSize) {
+      throw new IllegalStateException("Event details can only be included for up to "
+          + maxPageSize + " event details. Select fewer or leave include_details out.");
+    }
+
+    List<Long> sortedIds = filtered ? List.of() : eventDetailIds.stream().sorted().toList();
+    List<EventDetailResponse> eventDetails = includeEventDetails ? new ArrayList<>() : null;
+    int matched = 0;
+    int changed = 0;
+    int chunkStart = 0;
+    LocalDate afterDate = null;
+    Long afterId = null;
+
+    while (filtered || chunkStart < sortedIds.size()) {
+      List<Long> chunkIds = filtered ? null : sortedIds.subList(chunkStart,
+          Math.min(chunkStart + batchChunkSize, sortedIds.size()));
+      LocalDate chunkAfterDate = afterDate;
+      Long chunkAfterId = afterId;
+
+      List<Object[]> chunk = new ArrayList<>();
+
+      changed += transactionTemplate.execute(status -> {
+        chunk.addAll(filtered
+            ? eventDetailDao.findDatesPageBy(availabilityUpdateData.getEventId(),
+                availabilityUpdateData.getVenueId(), availabilityUpdateData.getFrom(),
+                availabilityUpdateData.getTo(), chunkAfterDate, chunkAfterId,
+                PageRequest.of(0, batchChunkSize))
+            : eventDetailDao.findDatesByEventDetailIdIn(chunkIds));
+
+        if (chunk.isEmpty()) {
+          return 0;
+        }
+
+        List<Long> ids = chunk.stream().map(row -> (Long) row[0]).toList();
+        int updated = eventDetailDao.updateAvailabilityByEventDetailIdIn(availability, ids);
+        eventPublisher.publishEvent(ScheduleChangedEvent
+            .forDates(chunk.stream().map(row -> (LocalDate) row[1]).collect(Collectors.toSet())));
+
+        if (includeEventDetails) {
+          eventDetails.addAll(eventDetailDao.findAllResponsesByEventDetailIdIn(ids));
+        }
+
+        return updated;
+      });
+
+      matched += chunk.size();
+      chunkStart += batchChunkSize;
+
+      if (filtered) {
+        if (chunk.size() < batchChunkSize) {
+          break;
+        }
+
+        Object[] last = chunk.get(chunk.size() - 1);
+        afterDate = (LocalDate) last[1];
+        afterId = (Long) last[0];
+      }
+    }
+
+    if (!filtered && includeEventDetails) {
+      // Chunks of Ids are in Id order, the details are listed by date
+      eventDetails.sort(EventDetailArchive.LISTING_ORDER);
+    }
+
+    return new AvailabilityUpdateResult(matched, changed,
+        Objects.isNull(eventDetails) || eventDetails.isEmpty() ? null : eventDetails);
+  }
+
+
   /**
    * A method updates event detail(s) availability by a specific date.
    * @param date LocalDate
@@ -328,6 +1169,7 @@ public class EventDetailService {
   public Map<String, String> updateEventDetailAvailabilityByDate(LocalDate date) {
     int numberOfEventDetail = 0;
     numberOfEventDetail = eventDetailDao.updateEventDetailAvailabilityByDate(false, date);
+    eventPublisher.publishEvent(ScheduleChangedEvent.forDates(date));
 
     if (numberOfEventDetail > 0) {
       return Map.of("message:",
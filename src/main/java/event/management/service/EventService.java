@@ -1,16 +1,23 @@
 package event.management.service;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import event.management.controller.model.EventData;
+import event.management.controller.model.EventSummaryData;
+import event.management.controller.model.ListingVersion;
 import event.management.dao.CategoryDao;
 import event.management.dao.EventDao;
+import event.management.dao.EventDetailDao;
 import event.management.entity.Category;
 import event.management.entity.Event;
 
@@ -24,17 +31,51 @@ public class EventService {
   @Autowired
   private CategoryDao categoryDao;
 
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
 
   /**
-   * A service layer method that save or update an event.
+   * A service layer method that save or update an event. An update carrying a version is only
+   * applied to that version, and every update is checked against concurrent ones when it is
+   * flushed.
    * 
    * @param eventData EventData
    * @return created or modified EventData object
    * @throws UnsupportedOperationException if the list of categories is empty or does not found in
    *         database category table.
+   * @throws VersionConflictException if the event was changed by someone else.
    */
-  @Transactional(readOnly = false)
   public EventData saveEvent(EventData eventData) {
+    try {
+      return transactionTemplate.execute(status -> writeEvent(eventData));
+    } catch (OptimisticLockingFailureException e) {
+      // A concurrent update committed between our read and our flush
+      throw new VersionConflictException(
+          "Event with ID=" + eventData.getEventId() + " was modified concurrently.",
+          transactionTemplate
+              .execute(status -> new EventData(findEventById(eventData.getEventId()), false)));
+    }
+  }
+
+
+  /**
+   * A method writes an event in the transaction of saveEvent.
+   * 
+   * @param eventData EventData
+   * @return created or modified EventData object
+   * @throws VersionConflictException if the given version is not the current one.
+   */
+  private EventData writeEvent(EventData eventData) {
 
     Set<Category> categories = categoryDao.findAllByCategoryNameIn(eventData.getCategories());
 
@@ -51,16 +92,35 @@ public class EventService {
     }
 
     Event event = findOrCreateEvent(eventData.getEventId());
+
+    if (Objects.nonNull(event.getEventId()) && Objects.nonNull(eventData.getVersion())
+        && !eventData.getVersion().equals(event.getVersion())) {
+      throw new VersionConflictException("Event with ID=" + event.getEventId() + " is at version "
+          + event.getVersion() + ", not " + eventData.getVersion() + ".",
+          new EventData(event, false));
+    }
+
+    // The event name is part of every schedule row of the event
+    if (Objects.nonNull(event.getEventId())
+        && !Objects.equals(event.getEventName(), eventData.getEventName())) {
+      eventPublisher.publishEvent(
+          ScheduleChangedEvent.forDates(eventDetailDao.findDatesByEventId(event.getEventId())));
+      // Archived event details are listed under the current name as well
+      eventPublisher.publishEvent(ScheduleChangedEvent
+          .forDates(archive.findDates(EventDetailArchive.Filter.byEventId(event.getEventId()))));
+    }
+
     setEventFields(event, eventData);
 
-    // Setting relationships
+    // Setting relationships on the owning side only, which writes event_category rows without
+    // loading every event of the category.
     for (Category category : categories) {
-      category.getEvents().add(event);
       event.getCategories().add(category);
     }
 
-    Event dbEvent = eventDao.save(event);
-    return new EventData(dbEvent);
+    // Flushing here runs the version check and returns the incremented version
+    Event dbEvent = eventDao.saveAndFlush(event);
+    return new EventData(dbEvent, false);
   }
 
 
@@ -112,56 +172,57 @@ public class EventService {
 
 
   /**
-   * A method retrieves all events without event details.
+   * A method retrieves the validator of the event listing, which also shows category names and
+   * optionally detail counts.
+   * 
+   * @param withDetailCount boolean whether the listing counts the event details of each event
+   * @return ListingVersion
+   */
+  @Transactional(readOnly = true)
+  public ListingVersion retrieveEventListingVersion(boolean withDetailCount) {
+    ListingVersion listingVersion =
+        eventDao.findListingVersion().and(categoryDao.findListingVersion());
+
+    return withDetailCount ? listingVersion.and(eventDetailDao.findListingVersion())
+        : listingVersion;
+  }
+
+
+  /**
+   * A method retrieves a summary of all events without event details.
    * 
-   * @return list of EventData
+   * @param withDetailCount boolean whether to count the event details of each event
+   * @return list of EventSummaryData
    * @throws NoSuchElementException if no events are found.
    */
   @Transactional(readOnly = true)
-  public List<EventData> retrieveAllEvent() {
-    List<Event> events = eventDao.findAll();
-    List<EventData> result = new ArrayList<>();
-
-    for (Event event : events) {
-      EventData eventData = new EventData(event);
-      eventData.getEventDetails().clear();
-      result.add(eventData);
-    }
+  public List<EventSummaryData> retrieveAllEvent(boolean withDetailCount) {
+    List<EventSummaryData> result = eventDao.findAllSummaries(withDetailCount);
 
     if (result.isEmpty()) {
       throw new NoSuchElementException("No Events");
     }
 
-    return result;
+    return addCategories(result);
   }
 
 
   /**
-   * A method retrieves all events without event details by category name.
+   * A method retrieves a summary of all events without event details by category name.
    * 
    * @param categoryName String
-   * @return list of EventData
+   * @return list of EventSummaryData
    * @throws NoSuchElementException if no events are found.
    */
   @Transactional(readOnly = true)
-  public List<EventData> retrieveAllEventByCategory(String categoryName) {
-
-    List<Event> events = eventDao.findAll();
-    List<EventData> result = new ArrayList<>();
-
-    for (Event event : events) {
-      EventData eventData = new EventData(event);
-      if (eventData.getCategories().contains(categoryName)) {
-        eventData.getEventDetails().clear();
-        result.add(eventData);
-      }
-    }
+  public List<EventSummaryData> retrieveAllEventByCategory(String categoryName) {
+    List<EventSummaryData> result = eventDao.findSummariesByCategoryName(categoryName, false);
 
     if (result.isEmpty()) {
       throw new NoSuchElementException("No Events associated with category name: " + categoryName);
     }
 
-    return result;
+    return addCategories(result);
   }
 
 
@@ -177,28 +238,41 @@ public class EventService {
 
 
   /**
-   * A method retrieves all events without event details by category Id.
+   * A method retrieves a summary of all events without event details by category Id.
    * 
    * @param categoryId Long
-   * @return list of EventData
+   * @return list of EventSummaryData
    * @throws NoSuchElementException if no events are found.
    */
   @Transactional(readOnly = true)
-  public List<EventData> retrieveAllEventByCategoryId(Long categoryId) {
+  public List<EventSummaryData> retrieveAllEventByCategoryId(Long categoryId) {
+    List<EventSummaryData> result = eventDao.findSummariesByCategoryId(categoryId, false);
+
+    if (result.isEmpty()) {
+      throw new NoSuchElementException("No Events associated with category ID= " + categoryId);
+    }
+
+    return addCategories(result);
+  }
 
-    List<Event> events = eventDao.findAllByCategoriesCategoryId(categoryId);
-    List<EventData> result = new ArrayList<>();
 
-    for (Event event : events) {
-      EventData eventData = new EventData(event);
-      eventData.getEventDetails().clear();
-      result.add(eventData);
+  /**
+   * A method fills in the category names of event summaries with one query.
+   * 
+   * @param events List of EventSummaryData
+   * @return the same list of EventSummaryData.
+   */
+  private List<EventSummaryData> addCategories(List<EventSummaryData> events) {
+    Map<Long, EventSummaryData> eventsById = new HashMap<>();
+
+    for (EventSummaryData event : events) {
+      eventsById.put(event.getEventId(), event);
     }
 
-    if (result.isEmpty()) {
-      throw new NoSuchElementException("No Events associated with category ID= " + categoryId);
+    for (Object[] eventCategory : eventDao.findCategoryNamesByEventIdIn(eventsById.keySet())) {
+      eventsById.get(eventCategory[0]).getCategories().add((String) eventCategory[1]);
     }
 
-    return result;
+    return events;
   }
 }
@@ -0,0 +1,836 @@
+package event.management.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import event.management.controller.model.ImportJobData;
+import event.management.controller.model.ImportRecordData;
+import event.management.dao.CategoryDao;
+import event.management.dao.EventDao;
+import event.management.dao.EventDetailDao;
+import event.management.dao.ImportJobDao;
+import event.management.dao.VenueDao;
+import event.management.entity.Category;
+import event.management.entity.Event;
+import event.management.entity.EventDetail;
+import event.management.entity.ImportJob;
+import event.management.entity.Venue;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports partner catalogues from NDJSON or CSV files. The upload is spooled to disk and then read
+ * line by line in the background, so memory stays flat whatever the file size. Every chunk of
+ * lines is parsed and validated in parallel, then written in one transaction together with the
+ * job progress, which lets a failed import resume right after its last committed chunk. A chunk
+ * the database refuses is written again one record at a time, so only the offending records fail.
+ * The process running a job renews its heartbeat, and a job whose heartbeat stops is failed by any
+ * process so it can be resumed.
+ */
+@Service
+@Slf4j
+public class ImportService {
+  private static final String CSV_LIST_SEPARATOR = ";";
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  // Length of the VARCHAR columns the text fields of the records are written to
+  private static final int MAX_COLUMN_LENGTH = 255;
+
+  @Autowired
+  private ImportJobDao importJobDao;
+
+  @Autowired
+  private CategoryDao categoryDao;
+
+  @Autowired
+  private VenueDao venueDao;
+
+  @Autowired
+  private EventDao eventDao;
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Autowired
+  private TaskExecutor taskExecutor;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private JobOwner jobOwner;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${event-management.import.chunk-size}")
+  private int importChunkSize;
+
+  @Value("${event-management.import.directory}")
+  private Path importDirectory;
+
+  @Value("${event-management.jobs.stale-after}")
+  private Duration staleAfter;
+
+
+  /**
+   * A method renews the heartbeat of the import jobs this process runs, then fails the running
+   * import jobs whose process stopped reporting in, this one's after a restart included. Their
+   * worker is gone, so they can only be resumed. Jobs of processes that are still running are
+   * left alone.
+   */
+  @Scheduled(fixedDelayString = "${event-management.jobs.heartbeat-interval}")
+  void recoverImportJobs() {
+    LocalDateTime now = LocalDateTime.now();
+
+    int recovered = transactionTemplate.execute(status -> {
+      importJobDao.updateHeartbeat(jobOwner.getId(), now);
+      return importJobDao.failStaleImportJobs(now.minus(staleAfter),
+          "Its process stopped running it.", now);
+    });
+
+    if (recovered > 0) {
+      log.warn("Failed {} import jobs whose process stopped, they can be resumed", recovered);
+    }
+  }
+
+
+  /**
+   * A service layer method that spools an uploaded file to disk and starts importing it in the
+   * background.
+   * 
+   * @param format String ndjson or csv
+   * @param content InputStream of the file
+   * @return the running import job.
+   * @throws IllegalStateException if the format is not supported.
+   */
+  public ImportJobData startImport(String format, InputStream content) {
+    ImportJob.Format importFormat = findFormat(format);
+
+    ImportJob importJob = new ImportJob();
+    importJob.setFormat(importFormat);
+    importJob.setFilePath(spool(content, importFormat).toString());
+    importJob.setStatus(ImportJob.Status.RUNNING);
+    importJob.setLinesCommitted(0L);
+    importJob.setRecordsCreated(0L);
+    importJob.setRecordsSkipped(0L);
+    importJob.setRecordsFailed(0L);
+    importJob.setStartedAt(LocalDateTime.now());
+    importJob.setOwner(jobOwner.getId());
+    importJob.setHeartbeatAt(importJob.getStartedAt());
+
+    ImportJob dbImportJob = importJobDao.save(importJob);
+    taskExecutor.execute(() -> runImport(dbImportJob.getImportJobId()));
+
+    return new ImportJobData(dbImportJob);
+  }
+
+
+  /**
+   * A service layer method that resumes a failed import after its last committed chunk.
+   * 
+   * @param importJobId Long
+   * @return the running import job.
+   * @throws UnsupportedOperationException if the import job has not failed.
+   */
+  public ImportJobData resumeImport(Long importJobId) {
+    int resumed = transactionTemplate.execute(status -> importJobDao.updateImportJobStatus(
+        importJobId, ImportJob.Status.FAILED, ImportJob.Status.RUNNING, jobOwner.getId(),
+        LocalDateTime.now()));
+
+    if (resumed == 0) {
+      throw new UnsupportedOperationException("Import job with ID=" + importJobId + " is "
+          + findImportJobById(importJobId).getStatus() + ". Only a failed import can be resumed.");
+    }
+
+    taskExecutor.execute(() -> runImport(importJobId));
+
+    return new ImportJobData(findImportJobById(importJobId));
+  }
+
+
+  /**
+   * A method finds an import job from a given import job Id.
+   * 
+   * @param importJobId Long
+   * @return ImportJobData object.
+   */
+  @Transactional(readOnly = true)
+  public ImportJobData retrieveImportJobById(Long importJobId) {
+    return new ImportJobData(findImportJobById(importJobId));
+  }
+
+
+  /**
+   * A method finds import job from a given import job Id.
+   * 
+   * @param importJobId Long
+   * @return ImportJob object.
+   * @throws NoSuchElementException if import job Id is not found.
+   */
+  private ImportJob findImportJobById(Long importJobId) {
+    return importJobDao.findById(importJobId).orElseThrow(
+        () -> new NoSuchElementException("Import job with ID=" + importJobId + " was not found."));
+  }
+
+
+  /**
+   * A method finds an import format by name, ignoring case.
+   * 
+   * @param format String
+   * @return ImportJob.Format
+   * @throws IllegalStateException if the format is not supported.
+   */
+  private ImportJob.Format findFormat(String format) {
+    return Arrays.stream(ImportJob.Format.values())
+        .filter(importFormat -> importFormat.name().equalsIgnoreCase(format)).findFirst()
+        .orElseThrow(() -> new IllegalStateException(
+            "Import format " + format + " is not supported. Only ndjson or csv."));
+  }
+
+
+  /**
+   * A method copies the uploaded content to a file in the import directory.
+   * 
+   * @param content InputStream
+   * @param format ImportJob.Format
+   * @return path of the spooled file.
+   */
+  private Path spool(InputStream content, ImportJob.Format format) {
+    try {
+      Files.createDirectories(importDirectory);
+      Path file = Files.createTempFile(importDirectory, "import-",
+          "." + format.name().toLowerCase());
+      Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+
+  /**
+   * A method reads the spooled file of an import job from its first uncommitted line to the end,
+   * one chunk at a time. The file is deleted once the import completed, a failed import keeps it
+   * to be resumed.
+   * 
+   * @param importJobId Long
+   */
+  private void runImport(Long importJobId) {
+    ImportJob importJob = findImportJobById(importJobId);
+    log.info("Running import job with ID={} from line {}", importJobId,
+        importJob.getLinesCommitted() + 1);
+
+    try (BufferedReader reader =
+        Files.newBufferedReader(Path.of(importJob.getFilePath()), StandardCharsets.UTF_8)) {
+      ImportLookup lookup = loadLookup();
+      List<String> header = null;
+
+      if (importJob.getFormat() == ImportJob.Format.CSV) {
+        String headerLine = reader.readLine();
+        header = Objects.isNull(headerLine) ? List.of() : parseCsvLine(headerLine);
+      }
+
+      // Skipping the lines committed before the job failed
+      for (long line = 0; line < importJob.getLinesCommitted(); line++) {
+        reader.readLine();
+      }
+
+      List<String> lines = new ArrayList<>(importChunkSize);
+      String line;
+
+      while (Objects.nonNull(line = reader.readLine())) {
+        lines.add(line);
+
+        if (lines.size() == importChunkSize) {
+          importChunk(importJob, header, lines, lookup);
+          lines.clear();
+        }
+      }
+
+      if (!lines.isEmpty()) {
+        importChunk(importJob, header, lines, lookup);
+      }
+
+      importJob.setStatus(ImportJob.Status.COMPLETED);
+      log.info("Import job with ID={} completed", importJobId);
+    } catch (IOException | RuntimeException e) {
+      log.error("Import job with ID={} failed after line {}", importJobId,
+          importJob.getLinesCommitted(), e);
+      importJob.setStatus(ImportJob.Status.FAILED);
+      importJob.setLastError(truncate(e.toString()));
+    }
+
+    importJob.setFinishedAt(LocalDateTime.now());
+
+    int finished = transactionTemplate.execute(status -> importJobDao.finishImportJob(importJobId,
+        jobOwner.getId(), importJob.getStatus(), importJob.getLastError(),
+        importJob.getFinishedAt()));
+
+    if (finished == 0) {
+      log.warn("Import job with ID={} is no longer run by this process", importJobId);
+    } else if (importJob.getStatus() == ImportJob.Status.COMPLETED) {
+      deleteSpooledFile(importJob);
+    }
+  }
+
+
+  /**
+   * A method deletes the spooled file of a completed import job. A file that can not be deleted
+   * is only logged, the import itself succeeded.
+   * 
+   * @param importJob ImportJob
+   */
+  private void deleteSpooledFile(ImportJob importJob) {
+    try {
+      Files.deleteIfExists(Path.of(importJob.getFilePath()));
+    } catch (IOException e) {
+      log.warn("Could not delete the spooled file {} of import job with ID={}",
+          importJob.getFilePath(), importJob.getImportJobId(), e);
+    }
+  }
+
+
+  /**
+   * A method loads the name to Id lookup tables used to resolve references between records.
+   * 
+   * @return ImportLookup
+   */
+  private ImportLookup loadLookup() {
+    ImportLookup lookup = new ImportLookup();
+
+    categoryDao.findAllCategoryNameAndId()
+        .forEach(row -> lookup.categories.putIfAbsent((String) row[0], (Long) row[1]));
+    venueDao.findAllVenueNameAndId()
+        .forEach(row -> lookup.venues.putIfAbsent((String) row[0], (Long) row[1]));
+    eventDao.findAllEventNameAndId()
+        .forEach(row -> lookup.events.putIfAbsent((String) row[0], (Long) row[1]));
+
+    return lookup;
+  }
+
+
+  /**
+   * A method parses and validates a chunk of lines in parallel, then writes it and the job
+   * progress in one transaction. When the database refuses the chunk, e.g. a value too large for
+   * its column or a venue booked by a concurrent request, the chunk is rolled back and its records
+   * are written again one transaction each, so only the offending records fail.
+   * 
+   * @param importJob ImportJob
+   * @param header List of CSV column names, null for NDJSON
+   * @param lines List of raw lines
+   * @param lookup ImportLookup
+   */
+  private void importChunk(ImportJob importJob, List<String> header, List<String> lines,
+      ImportLookup lookup) {
+    long firstLine = importJob.getLinesCommitted() + 1;
+
+    List<ParsedRecord> records = IntStream.range(0, lines.size()).parallel()
+        .mapToObj(i -> parseRecord(firstLine + i, lines.get(i), header)).toList();
+
+    try {
+      commitRecords(importJob, records, lookup);
+    } catch (RuntimeException e) {
+      log.warn("Chunk of import job with ID={} from line {} failed, writing its records one at a"
+          + " time: {}", importJob.getImportJobId(), firstLine, e.toString());
+
+      for (ParsedRecord record : records) {
+        try {
+          commitRecords(importJob, List.of(record), lookup);
+        } catch (RuntimeException recordException) {
+          commitFailedRecord(importJob, record, recordException);
+        }
+      }
+    }
+  }
+
+
+  /**
+   * A method writes records, one per line, and the job progress in one transaction. The lookup
+   * tables only learn about the new records once they are committed.
+   * 
+   * @param importJob ImportJob
+   * @param records List of ParsedRecord of consecutive lines
+   * @param lookup ImportLookup
+   */
+  private void commitRecords(ImportJob importJob, List<ParsedRecord> records,
+      ImportLookup lookup) {
+    ImportLookup chunkLookup = new ImportLookup();
+    ChunkCount count = new ChunkCount();
+
+    transactionTemplate.executeWithoutResult(status -> {
+      for (ParsedRecord record : records) {
+        // Blank lines are not records
+        if (Objects.isNull(record.data) && Objects.isNull(record.error)) {
+          continue;
+        }
+
+        String error = Objects.isNull(record.error)
+            ? writeRecord(record.data, lookup, chunkLookup, count)
+            : record.error;
+
+        if (Objects.nonNull(error)) {
+          count.failed++;
+          count.lastError = "Line " + record.lineNumber + ": " + error;
+        }
+      }
+
+      eventDetailDao.flush();
+      // Committing the progress together with the records
+      addProgress(importJob, records.size(), count);
+      entityManager.clear();
+      eventPublisher.publishEvent(ScheduleChangedEvent.forDates(count.dates));
+    });
+
+    applyCount(importJob, records.size(), count);
+    lookup.categories.putAll(chunkLookup.categories);
+    lookup.venues.putAll(chunkLookup.venues);
+    lookup.events.putAll(chunkLookup.events);
+  }
+
+
+  /**
+   * A method counts a record the database refused as failed and commits the progress past its
+   * line, so a resumed import does not try it again.
+   * 
+   * @param importJob ImportJob
+   * @param record ParsedRecord
+   * @param e RuntimeException the record was refused with
+   */
+  private void commitFailedRecord(ImportJob importJob, ParsedRecord record, RuntimeException e) {
+    ChunkCount count = new ChunkCount();
+    count.failed++;
+    count.lastError = "Line " + record.lineNumber + ": " + e;
+
+    transactionTemplate.executeWithoutResult(status -> addProgress(importJob, 1, count));
+    applyCount(importJob, 1, count);
+  }
+
+
+  /**
+   * A method adds the counts of committed lines to the import job row, in the transaction of the
+   * lines.
+   * 
+   * @param importJob ImportJob
+   * @param numberOfLine int
+   * @param count ChunkCount
+   * @throws IllegalStateException if another process has taken the import job over.
+   */
+  private void addProgress(ImportJob importJob, int numberOfLine, ChunkCount count) {
+    int updated = importJobDao.addProgress(importJob.getImportJobId(), jobOwner.getId(),
+        numberOfLine, count.created, count.skipped, count.failed,
+        Objects.isNull(count.lastError) ? null : truncate(count.lastError), LocalDateTime.now());
+
+    if (updated == 0) {
+      throw new IllegalStateException("Import job with ID=" + importJob.getImportJobId()
+          + " is no longer run by this process.");
+    }
+  }
+
+
+  /**
+   * A convenient method for adding the counts of a chunk to an import job.
+   * 
+   * @param importJob ImportJob
+   * @param numberOfLine int
+   * @param count ChunkCount
+   */
+  private void applyCount(ImportJob importJob, int numberOfLine, ChunkCount count) {
+    importJob.setLinesCommitted(importJob.getLinesCommitted() + numberOfLine);
+    importJob.setRecordsCreated(importJob.getRecordsCreated() + count.created);
+    importJob.setRecordsSkipped(importJob.getRecordsSkipped() + count.skipped);
+    importJob.setRecordsFailed(importJob.getRecordsFailed() + count.failed);
+
+    if (Objects.nonNull(count.lastError)) {
+      importJob.setLastError(truncate(count.lastError));
+    }
+  }
+
+
+  /**
+   * A method parses and validates one line. It does not touch the database, so it is safe to run
+   * in parallel.
+   * 
+   * @param lineNumber long
+   * @param line String
+   * @param header List of CSV column names, null for NDJSON
+   * @return ParsedRecord holding either the record or the validation error.
+   */
+  private ParsedRecord parseRecord(long lineNumber, String line, List<String> header) {
+    if (line.isBlank()) {
+      return new ParsedRecord(lineNumber, null, null);
+    }
+
+    ImportRecordData record;
+
+    try {
+      record = Objects.isNull(header) ? objectMapper.readValue(line, ImportRecordData.class)
+          : objectMapper.convertValue(toCsvRecord(header, parseCsvLine(line)),
+              ImportRecordData.class);
+    } catch (JsonProcessingException | IllegalArgumentException e) {
+      return new ParsedRecord(lineNumber, null, "Malformed record. " + e.getMessage());
+    }
+
+    return new ParsedRecord(lineNumber, record, validateRecord(record));
+  }
+
+
+  /**
+   * A method checks the fields required by the record type, and the length of the text fields it
+   * writes.
+   * 
+   * @param record ImportRecordData
+   * @return the validation error, or null if the record is valid.
+   */
+  private String validateRecord(ImportRecordData record) {
+    if (Objects.isNull(record.getType())) {
+      return "Record type is required.";
+    }
+
+    switch (record.getType()) {
+      case "category":
+        if (isBlank(record.getCategoryName())) {
+          return "Category name is required.";
+        }
+        return firstError(checkLength("Category name", record.getCategoryName()),
+            checkLength("Category note", record.getCategoryNote()));
+      case "venue":
+        if (isBlank(record.getVenueName())) {
+          return "Venue name is required.";
+        }
+        if (Objects.nonNull(record.getCapacity()) && record.getCapacity() < 0) {
+          return "Capacity can not be negative.";
+        }
+        return firstError(checkLength("Venue name", record.getVenueName()),
+            checkLength("Venue address", record.getVenueAddress()),
+            checkLength("Venue city", record.getVenueCity()),
+            checkLength("Venue zip", record.getVenueZip()),
+            checkLength("Venue note", record.getVenueNote()));
+      case "event":
+        if (isBlank(record.getEventName())) {
+          return "Event name is required.";
+        }
+        if (record.getCategories().isEmpty()) {
+          return "Category can not be empty.";
+        }
+        return firstError(checkLength("Event name", record.getEventName()),
+            checkLength("Frequency", record.getFrequency()),
+            checkLength("Duration", record.getDuration()),
+            checkLength("Event note", record.getEventNote()));
+      case "event-detail":
+        if (isBlank(record.getEventName()) || isBlank(record.getVenueName())) {
+          return "Event name and venue name are required.";
+        }
+        if (Objects.isNull(record.getDate())) {
+          return "Date is required.";
+        }
+        if (Objects.nonNull(record.getStartTime()) && Objects.nonNull(record.getEndTime())
+            && !record.getStartTime().isBefore(record.getEndTime())) {
+          return "Start time must be before end time.";
+        }
+        return checkLength("Description", record.getDescription());
+      default:
+        return "Unknown record type " + record.getType()
+            + ". Only category, venue, event or event-detail.";
+    }
+  }
+
+
+  /**
+   * A method writes one valid record, resolving its references through the lookup tables.
+   * Categories, venues and events that already exist by name are skipped.
+   * 
+   * @param record ImportRecordData
+   * @param lookup ImportLookup of committed records
+   * @param chunkLookup ImportLookup of records created in the current chunk
+   * @param count ChunkCount
+   * @return the error, or null if the record was written or skipped.
+   */
+  private String writeRecord(ImportRecordData record, ImportLookup lookup,
+      ImportLookup chunkLookup, ChunkCount count) {
+    switch (record.getType()) {
+      case "category": {
+        if (Objects.nonNull(lookup.findCategory(record.getCategoryName(), chunkLookup))) {
+          count.skipped++;
+          return null;
+        }
+
+        Category category = new Category();
+        category.setCategoryName(record.getCategoryName());
+        category.setCategoryNote(record.getCategoryNote());
+        chunkLookup.categories.put(category.getCategoryName(),
+            categoryDao.save(category).getCategoryId());
+        break;
+      }
+      case "venue": {
+        if (Objects.nonNull(lookup.findVenue(record.getVenueName(), chunkLookup))) {
+          count.skipped++;
+          return null;
+        }
+
+        Venue venue = new Venue();
+        venue.setVenueName(record.getVenueName());
+        venue.setCapacity(record.getCapacity());
+        venue.setVenueAddress(record.getVenueAddress());
+        venue.setVenueCity(record.getVenueCity());
+        venue.setVenueZip(record.getVenueZip());
+        venue.setVenueNote(record.getVenueNote());
+        chunkLookup.venues.put(venue.getVenueName(), venueDao.save(venue).getVenueId());
+        break;
+      }
+      case "event": {
+        if (Objects.nonNull(lookup.findEvent(record.getEventName(), chunkLookup))) {
+          count.skipped++;
+          return null;
+        }
+
+        Event event = new Event();
+        event.setEventName(record.getEventName());
+        event.setFrequency(record.getFrequency());
+        event.setDuration(record.getDuration());
+        event.setEventNote(record.getEventNote());
+
+        for (String categoryName : record.getCategories()) {
+          Long categoryId = lookup.findCategory(categoryName, chunkLookup);
+
+          if (Objects.isNull(categoryId)) {
+            return "Category " + categoryName + " does not exist.";
+          }
+
+          event.getCategories().add(categoryDao.getReferenceById(categoryId));
+        }
+
+        chunkLookup.events.put(event.getEventName(), eventDao.save(event).getEventId());
+        break;
+      }
+      default: {
+        Long eventId = lookup.findEvent(record.getEventName(), chunkLookup);
+        Long venueId = lookup.findVenue(record.getVenueName(), chunkLookup);
+
+        if (Objects.isNull(eventId)) {
+          return "Event " + record.getEventName() + " does not exist.";
+        }
+        if (Objects.isNull(venueId)) {
+          return "Venue " + record.getVenueName() + " does not exist.";
+        }
+
+        VenueBooking booking = VenueBooking.of(venueId, record.getDate(),
+            record.getStartTime(), record.getEndTime(), null);
+        List<VenueBooking> conflicts =
+            Objects.isNull(booking) ? List.of() : venueBookingIndex.findConflicts(booking);
+
+        if (!conflicts.isEmpty()) {
+          return VenueBookingIndex.describeConflict(booking, conflicts);
+        }
+
+        EventDetail eventDetail = new EventDetail();
+        eventDetail.setEvent(eventDao.getReferenceById(eventId));
+        eventDetail.setVenue(venueDao.getReferenceById(venueId));
+        eventDetail.setDescription(record.getDescription());
+        eventDetail.setDate(record.getDate());
+        eventDetail.setStartTime(record.getStartTime());
+        eventDetail.setEndTime(record.getEndTime());
+        eventDetail.setIsFree(record.getIsFree());
+        eventDetail.setAvailability(record.getAvailability());
+        eventDetailDao.save(eventDetail);
+        // Claimed right away, so the next records of the chunk are checked against it
+        venueBookingIndex.book(VenueBooking.of(eventDetail), null);
+        count.dates.add(eventDetail.getDate());
+      }
+    }
+
+    count.created++;
+    return null;
+  }
+
+
+  /**
+   * A method maps one CSV row to record properties by header name. Empty cells are left out, and
+   * the categories cell holds category names separated by semicolons.
+   * 
+   * @param header List of column names
+   * @param values List of cell values
+   * @return map of property name to value.
+   * @throws IllegalArgumentException if the row does not have one value per column.
+   */
+  private Map<String, Object> toCsvRecord(List<String> header, List<String> values) {
+    if (header.size() != values.size()) {
+      throw new IllegalArgumentException(
+          "Expected " + header.size() + " columns but found " + values.size() + ".");
+    }
+
+    Map<String, Object> record = new HashMap<>();
+
+    for (int i = 0; i < header.size(); i++) {
+      String value = values.get(i);
+
+      if (value.isEmpty()) {
+        continue;
+      }
+
+      if ("categories".equals(header.get(i))) {
+        Set<String> categories = new HashSet<>();
+        for (String category : value.split(CSV_LIST_SEPARATOR)) {
+          categories.add(category.trim());
+        }
+        record.put(header.get(i), categories);
+      } else {
+        record.put(header.get(i), value);
+      }
+    }
+
+    return record;
+  }
+
+
+  /**
+   * A method splits one CSV line into cells. Cells may be quoted, and a doubled quote inside a
+   * quoted cell stands for a quote. Quoted line breaks are not supported since the file is read
+   * line by line.
+   * 
+   * @param line String
+   * @return list of cell values.
+   */
+  private List<String> parseCsvLine(String line) {
+    List<String> values = new ArrayList<>();
+    StringBuilder value = new StringBuilder();
+    boolean quoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          value.append(c);
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          value.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        values.add(value.toString().trim());
+        value.setLength(0);
+      } else {
+        value.append(c);
+      }
+    }
+
+    values.add(value.toString().trim());
+    return values;
+  }
+
+
+  /**
+   * A method checks a text field against the length of its column, in characters as the column
+   * counts them.
+   * 
+   * @param field String name of the field in the error
+   * @param value String, may be null
+   * @return the validation error, or null if the value fits.
+   */
+  private static String checkLength(String field, String value) {
+    return Objects.nonNull(value) && value.codePointCount(0, value.length()) > MAX_COLUMN_LENGTH
+        ? field + " can not be longer than " + MAX_COLUMN_LENGTH + " characters."
+        : null;
+  }
+
+
+  private static String firstError(String... errors) {
+    return Arrays.stream(errors).filter(Objects::nonNull).findFirst().orElse(null);
+  }
+
+
+  private static boolean isBlank(String value) {
+    return Objects.isNull(value) || value.isBlank();
+  }
+
+
+  private static String truncate(String message) {
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+
+
+  /*
+   * Name to Id lookup tables used to resolve references between records.
+   */
+  private static class ImportLookup {
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<String, Long> venues = new HashMap<>();
+    private final Map<String, Long> events = new HashMap<>();
+
+    private Long findCategory(String categoryName, ImportLookup chunkLookup) {
+      return categories.getOrDefault(categoryName, chunkLookup.categories.get(categoryName));
+    }
+
+    private Long findVenue(String venueName, ImportLookup chunkLookup) {
+      return venues.getOrDefault(venueName, chunkLookup.venues.get(venueName));
+    }
+
+    private Long findEvent(String eventName, ImportLookup chunkLookup) {
+      return events.getOrDefault(eventName, chunkLookup.events.get(eventName));
+    }
+  }
+
+
+  private static class ParsedRecord {
+    private final long lineNumber;
+    private final ImportRecordData data;
+    private final String error;
+
+    private ParsedRecord(long lineNumber, ImportRecordData data, String error) {
+      this.lineNumber = lineNumber;
+      this.data = data;
+      this.error = error;
+    }
+  }
+
+
+  private static class ChunkCount {
+    private long created;
+    private long skipped;
+    private long failed;
+    private String lastError;
+    private final Set<LocalDate> dates = new HashSet<>();
+  }
+}
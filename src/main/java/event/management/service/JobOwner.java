@@ -0,0 +1,27 @@
+package event.management.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The name this process records on the background jobs it runs. Every start gets a new one, so
+ * the jobs of a process that stopped are never taken for those of the next process on the same
+ * host.
+ */
+@Component
+@Getter
+@Slf4j
+class JobOwner {
+  private final String id = UUID.randomUUID().toString();
+
+
+  @PostConstruct
+  void logId() {
+    log.info("Running background jobs as {} ({})", id,
+        ManagementFactory.getRuntimeMXBean().getName());
+  }
+}
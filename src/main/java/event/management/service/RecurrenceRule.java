@@ -0,0 +1,329 @@
+package event.management.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import event.management.entity.Recurrence;
+import lombok.Getter;
+
+/**
+ * A recurrence rule, the subset of the RFC 5545 RRULE that schedules need: FREQ of DAILY, WEEKLY
+ * or MONTHLY, INTERVAL, BYDAY for weekly rules, BYMONTHDAY for monthly rules, and UNTIL or COUNT.
+ * Dates are generated lazily one period at a time, starting with the first period of the range
+ * asked for, so expanding a range costs the occurrences in it and not the ones before it.
+ */
+@Getter
+class RecurrenceRule {
+  enum Frequency {
+    DAILY(ChronoUnit.DAYS), WEEKLY(ChronoUnit.WEEKS), MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    Frequency(ChronoUnit unit) {
+      this.unit = unit;
+    }
+  }
+
+  // A count is turned into a last date by walking the series once, so it has to stay bounded
+  private static final int MAX_COUNT = 10_000;
+
+  private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private final Frequency frequency;
+  private final int interval;
+
+  // Days of the week of a weekly rule, the day of the start date by default
+  private final Set<DayOfWeek> byDay;
+
+  // Day of the month of a monthly rule, the day of the start date by default. Months without
+  // that day are skipped, as RFC 5545 does.
+  private final Integer byMonthDay;
+
+  private final LocalDate until;
+  private final Integer count;
+
+  private RecurrenceRule(Frequency frequency, int interval, Set<DayOfWeek> byDay,
+      Integer byMonthDay, LocalDate until, Integer count) {
+    this.frequency = frequency;
+    this.interval = interval;
+    this.byDay = byDay;
+    this.byMonthDay = byMonthDay;
+    this.until = until;
+    this.count = count;
+  }
+
+
+  /**
+   * A method parses a rule such as FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=20 for a series that
+   * starts on a given date.
+   *
+   * @param rule String, with or without the RRULE: prefix
+   * @param startDate LocalDate first date of the series
+   * @return RecurrenceRule
+   * @throws IllegalStateException if the rule is not valid or not supported.
+   */
+  static RecurrenceRule parse(String rule, LocalDate startDate) {
+    if (Objects.isNull(rule) || rule.isBlank()) {
+      throw new IllegalStateException("Recurrence rule can not be empty.");
+    }
+
+    if (Objects.isNull(startDate)) {
+      throw new IllegalStateException("Recurrence start date can not be empty.");
+    }
+
+    Frequency frequency = null;
+    int interval = 1;
+    Set<DayOfWeek> byDay = null;
+    Integer byMonthDay = null;
+    LocalDate until = null;
+    Integer count = null;
+
+    String parts = rule.trim().toUpperCase();
+
+    if (parts.startsWith("RRULE:")) {
+      parts = parts.substring("RRULE:".length());
+    }
+
+    try {
+      for (String part : parts.split(";")) {
+        String[] nameAndValue = part.split("=", 2);
+
+        if (nameAndValue.length != 2) {
+          throw invalid(rule, "'" + part + "' is not NAME=VALUE");
+        }
+
+        String value = nameAndValue[1];
+
+        switch (nameAndValue[0]) {
+          case "FREQ" -> frequency = toFrequency(value);
+          case "INTERVAL" -> interval = Integer.parseInt(value);
+          case "BYDAY" -> byDay =
+              Arrays.stream(value.split(",")).map(RecurrenceRule::toDayOfWeek).collect(
+                  Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+          case "BYMONTHDAY" -> byMonthDay = Integer.parseInt(value);
+          // A date-time UNTIL is cut to its date, occurrences are whole dates here
+          case "UNTIL" -> until =
+              LocalDate.parse(value.substring(0, Math.min(8, value.length())), UNTIL_FORMAT);
+          case "COUNT" -> count = Integer.parseInt(value);
+          default -> throw invalid(rule, nameAndValue[0] + " is not supported");
+        }
+      }
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw invalid(rule, e.getMessage());
+    }
+
+    if (Objects.isNull(frequency)) {
+      throw invalid(rule, "FREQ is missing");
+    }
+
+    if (interval < 1) {
+      throw invalid(rule, "INTERVAL must be at least 1");
+    }
+
+    if (Objects.nonNull(until) && Objects.nonNull(count)) {
+      throw invalid(rule, "UNTIL and COUNT can not be used together");
+    }
+
+    if (Objects.nonNull(count) && (count < 1 || count > MAX_COUNT)) {
+      throw invalid(rule, "COUNT must be between 1 and " + MAX_COUNT);
+    }
+
+    if (Objects.nonNull(byDay) && frequency != Frequency.WEEKLY) {
+      throw invalid(rule, "BYDAY is only supported with FREQ=WEEKLY");
+    }
+
+    if (Objects.nonNull(byMonthDay) && frequency != Frequency.MONTHLY) {
+      throw invalid(rule, "BYMONTHDAY is only supported with FREQ=MONTHLY");
+    }
+
+    if (Objects.nonNull(byMonthDay) && (byMonthDay < 1 || byMonthDay > 31)) {
+      throw invalid(rule, "BYMONTHDAY must be between 1 and 31");
+    }
+
+    if (frequency == Frequency.WEEKLY && Objects.isNull(byDay)) {
+      byDay = EnumSet.of(startDate.getDayOfWeek());
+    }
+
+    if (frequency == Frequency.MONTHLY && Objects.isNull(byMonthDay)) {
+      byMonthDay = startDate.getDayOfMonth();
+    }
+
+    return new RecurrenceRule(frequency, interval, byDay, byMonthDay, until, count);
+  }
+
+
+  /**
+   * A method generates the dates of the series between two dates. Periods before the range are
+   * skipped arithmetically, not walked through.
+   *
+   * @param startDate LocalDate first date of the series
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return lazy stream of dates in ascending order.
+   */
+  Stream<LocalDate> dates(LocalDate startDate, LocalDate from, LocalDate to) {
+    LocalDate first = from.isBefore(startDate) ? startDate : from;
+    LocalDate last = Objects.nonNull(until) && until.isBefore(to) ? until : to;
+    LocalDate anchor = periodStart(startDate);
+    long firstPeriod = frequency.unit.between(anchor, periodStart(first)) / interval;
+
+    return LongStream.iterate(Math.max(0, firstPeriod), period -> period + 1)
+        .mapToObj(period -> anchor.plus(period * interval, frequency.unit))
+        .takeWhile(periodStart -> !periodStart.isAfter(last))
+        .flatMap(this::datesOfPeriod)
+        .filter(date -> !date.isBefore(first) && !date.isAfter(last));
+  }
+
+
+  /**
+   * A convenient method for the dates of a saved recurrence between two dates.
+   *
+   * @param recurrence Recurrence
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return lazy stream of dates in ascending order.
+   */
+  static Stream<LocalDate> expand(Recurrence recurrence, LocalDate from, LocalDate to) {
+    LocalDate untilDate = recurrence.getUntilDate();
+    LocalDate last = Objects.nonNull(untilDate) && untilDate.isBefore(to) ? untilDate : to;
+
+    return parse(recurrence.getRule(), recurrence.getStartDate())
+        .dates(recurrence.getStartDate(), from, last);
+  }
+
+
+  /**
+   * A method finds the last date an occurrence can fall on, from UNTIL or by counting COUNT
+   * occurrences.
+   *
+   * @param startDate LocalDate first date of the series
+   * @return LocalDate, null if the series is open ended.
+   * @throws IllegalStateException if the series has no occurrence at all.
+   */
+  LocalDate lastDate(LocalDate startDate) {
+    if (Objects.nonNull(count)) {
+      return dates(startDate, startDate, LocalDate.MAX).skip(count - 1).findFirst()
+          .orElseThrow();
+    }
+
+    if (Objects.nonNull(until) && dates(startDate, startDate, until).findAny().isEmpty()) {
+      throw new IllegalStateException(
+          "Recurrence rule " + this + " has no occurrence from " + startDate + ".");
+    }
+
+    return until;
+  }
+
+
+  /**
+   * A method formats the rule in a normalized form, defaults included.
+   *
+   * @return the rule without the RRULE: prefix.
+   */
+  @Override
+  public String toString() {
+    StringBuilder rule =
+        new StringBuilder("FREQ=").append(frequency).append(";INTERVAL=").append(interval);
+
+    if (Objects.nonNull(byDay)) {
+      rule.append(";BYDAY=").append(byDay.stream()
+          .map(day -> day.name().substring(0, 2)).collect(Collectors.joining(",")));
+    }
+
+    if (Objects.nonNull(byMonthDay)) {
+      rule.append(";BYMONTHDAY=").append(byMonthDay);
+    }
+
+    if (Objects.nonNull(until)) {
+      rule.append(";UNTIL=").append(until.format(UNTIL_FORMAT));
+    }
+
+    if (Objects.nonNull(count)) {
+      rule.append(";COUNT=").append(count);
+    }
+
+    return rule.toString();
+  }
+
+
+  /**
+   * A convenient method for the first date of the period a date belongs to. Weeks start on
+   * Monday, as the RRULE default WKST=MO.
+   *
+   * @param date LocalDate
+   * @return LocalDate
+   */
+  private LocalDate periodStart(LocalDate date) {
+    return switch (frequency) {
+      case DAILY -> date;
+      case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MONTHLY -> date.withDayOfMonth(1);
+    };
+  }
+
+
+  /**
+   * A convenient method for the dates the rule picks in one period.
+   *
+   * @param periodStart LocalDate
+   * @return stream of dates in ascending order.
+   */
+  private Stream<LocalDate> datesOfPeriod(LocalDate periodStart) {
+    return switch (frequency) {
+      case DAILY -> Stream.of(periodStart);
+      case WEEKLY -> byDay.stream().map(day -> periodStart.plusDays(day.ordinal()));
+      case MONTHLY -> YearMonth.from(periodStart).isValidDay(byMonthDay)
+          ? Stream.of(periodStart.withDayOfMonth(byMonthDay))
+          : Stream.empty();
+    };
+  }
+
+
+  /**
+   * A convenient method for parsing a supported frequency.
+   *
+   * @param frequency String, e.g. WEEKLY
+   * @return Frequency
+   */
+  private static Frequency toFrequency(String frequency) {
+    return Arrays.stream(Frequency.values()).filter(value -> value.name().equals(frequency))
+        .findFirst().orElseThrow(() -> new IllegalArgumentException(
+            "FREQ must be one of " + Arrays.toString(Frequency.values())));
+  }
+
+
+  /**
+   * A convenient method for parsing a two letter RRULE day.
+   *
+   * @param day String, e.g. MO
+   * @return DayOfWeek
+   */
+  private static DayOfWeek toDayOfWeek(String day) {
+    return Arrays.stream(DayOfWeek.values()).filter(dayOfWeek -> dayOfWeek.name().startsWith(day)
+        && day.length() == 2).findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("'" + day + "' is not a day"));
+  }
+
+
+  /**
+   * A convenient method for the error of an invalid rule.
+   *
+   * @param rule String
+   * @param reason String
+   * @return IllegalStateException
+   */
+  private static IllegalStateException invalid(String rule, String reason) {
+    return new IllegalStateException("Invalid recurrence rule " + rule + ": " + reason + ".");
+  }
+}
@@ -0,0 +1,435 @@
+package event.management.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import event.management.controller.model.EventDetailData;
+import event.management.controller.model.OccurrenceData;
+import event.management.controller.model.RecurrenceData;
+import event.management.dao.EventDetailDao;
+import event.management.dao.RecurrenceDao;
+import event.management.dao.RecurrenceExceptionDao;
+import event.management.entity.Recurrence;
+import event.management.entity.RecurrenceException;
+
+/**
+ * Keeps recurring schedules as rules instead of one event detail per occurrence. Occurrences are
+ * expanded for the dates asked for and streamed together with the stored event details, so the
+ * rows written and read grow with the rules and their exceptions, not with the occurrences.
+ */
+@Service
+public class RecurrenceService {
+  private static final Comparator<OccurrenceData> OCCURRENCE_ORDER =
+      Comparator.comparing(OccurrenceData::getDate)
+          .thenComparing(OccurrenceData::getStartTime,
+              Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  @Autowired
+  private RecurrenceDao recurrenceDao;
+
+  @Autowired
+  private RecurrenceExceptionDao recurrenceExceptionDao;
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private EventService eventService;
+
+  @Autowired
+  private VenueService venueService;
+
+  @Autowired
+  private EventDetailService eventDetailService;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+
+  /**
+   * A service layer method that creates or modifies the recurrence of an event at a venue. The
+   * exceptions of a modified recurrence are kept. Its occurrences up to the horizon of the venue
+   * booking index are checked against the bookings of the venue.
+   *
+   * @param eventId Long
+   * @param venueId Long
+   * @param recurrenceData RecurrenceData
+   * @return created or modified RecurrenceData object
+   * @throws NoSuchElementException if the event, the venue or the recurrence is not found.
+   * @throws IllegalStateException if the rule is not valid.
+   * @throws BookingConflictException if an occurrence clashes with a booking of the venue.
+   */
+  @Transactional(readOnly = false)
+  public RecurrenceData saveRecurrence(Long eventId, Long venueId,
+      RecurrenceData recurrenceData) {
+    RecurrenceRule rule =
+        RecurrenceRule.parse(recurrenceData.getRule(), recurrenceData.getStartDate());
+
+    Recurrence recurrence = Objects.isNull(recurrenceData.getRecurrenceId()) ? new Recurrence()
+        : findRecurrenceById(recurrenceData.getRecurrenceId());
+
+    recurrence.setEvent(eventService.findEventById(eventId));
+    recurrence.setVenue(venueService.findVenueById(venueId));
+    recurrence.setRule(rule.toString());
+    recurrence.setStartDate(recurrenceData.getStartDate());
+    recurrence.setUntilDate(rule.lastDate(recurrenceData.getStartDate()));
+    recurrence.setDescription(recurrenceData.getDescription());
+    recurrence.setStartTime(recurrenceData.getStartTime());
+    recurrence.setEndTime(recurrenceData.getEndTime());
+    recurrence.setIsFree(recurrenceData.getIsFree());
+    recurrence.setAvailability(recurrenceData.getAvailability());
+
+    Recurrence dbRecurrence = recurrenceDao.save(recurrence);
+    venueBookingIndex.bookRecurrence(dbRecurrence);
+    return new RecurrenceData(dbRecurrence);
+  }
+
+
+  /**
+   * A method finds recurrence from a given recurrence Id.
+   *
+   * @param recurrenceId Long
+   * @return RecurrenceData object
+   */
+  @Transactional(readOnly = true)
+  public RecurrenceData retrieveRecurrenceById(Long recurrenceId) {
+    return new RecurrenceData(findRecurrenceById(recurrenceId));
+  }
+
+
+  /**
+   * A service layer method that retrieves the recurrences of an event.
+   *
+   * @param eventId Long
+   * @return List of RecurrenceData
+   * @throws NoSuchElementException if the event is not found or has no recurrence.
+   */
+  @Transactional(readOnly = true)
+  public List<RecurrenceData> retrieveAllRecurrenceByEventId(Long eventId) {
+    eventService.findEventById(eventId);
+
+    List<RecurrenceData> recurrences =
+        recurrenceDao.findAllByEventEventIdOrderByRecurrenceId(eventId).stream()
+            .map(RecurrenceData::new).toList();
+
+    if (recurrences.isEmpty()) {
+      throw new NoSuchElementException("No recurrence found for event with ID=" + eventId);
+    }
+
+    return recurrences;
+  }
+
+
+  /**
+   * A method deletes a recurrence with its exceptions. Event details that replaced one of its
+   * occurrences are kept.
+   *
+   * @param recurrenceId Long
+   * @return deletion message.
+   */
+  @Transactional(readOnly = false)
+  public Map<String, String> deleteRecurrenceById(Long recurrenceId) {
+    Recurrence recurrence = findRecurrenceById(recurrenceId);
+    recurrenceExceptionDao.deleteAllByRecurrenceId(recurrenceId);
+    recurrenceDao.delete(recurrence);
+    venueBookingIndex.invalidateRecurrences(Set.of(recurrenceId));
+
+    return Map.of("massage",
+        "Deletion of recurrence with ID=" + recurrenceId + " was successful.");
+  }
+
+
+  /**
+   * A service layer method that replaces one occurrence of a recurrence by an event detail, or
+   * modifies the event detail that already replaces it. Fields left empty take the values of the
+   * recurrence and the date of the occurrence.
+   *
+   * @param recurrenceId Long
+   * @param occurrenceDate LocalDate date the rule puts the occurrence on
+   * @param eventDetailData EventDetailData
+   * @return EventDetailData of the replacing event detail.
+   * @throws NoSuchElementException if the recurrence has no occurrence on that date.
+   * @throws BookingConflictException if the venue is already booked at that time.
+   */
+  @Transactional(readOnly = false)
+  public EventDetailData overrideOccurrence(Long recurrenceId, LocalDate occurrenceDate,
+      EventDetailData eventDetailData) {
+    Recurrence recurrence = findOccurrence(recurrenceId, occurrenceDate);
+    RecurrenceException.Key key = new RecurrenceException.Key(recurrenceId, occurrenceDate);
+
+    Optional<RecurrenceException> exception = recurrenceExceptionDao.findById(key);
+    eventDetailData.setEventDetailId(
+        exception.map(RecurrenceException::getEventDetailId).orElse(null));
+    // A first override takes over the booking of the occurrence
+    VenueBooking replaced = exception.isPresent() ? null
+        : VenueBooking.of(recurrence, recurrence.getVenue().getVenueId(), occurrenceDate);
+
+    if (Objects.isNull(eventDetailData.getDescription())) {
+      eventDetailData.setDescription(recurrence.getDescription());
+    }
+    if (Objects.isNull(eventDetailData.getDate())) {
+      eventDetailData.setDate(occurrenceDate);
+    }
+    if (Objects.isNull(eventDetailData.getStartTime())) {
+      eventDetailData.setStartTime(recurrence.getStartTime());
+    }
+    if (Objects.isNull(eventDetailData.getEndTime())) {
+      eventDetailData.setEndTime(recurrence.getEndTime());
+    }
+    if (Objects.isNull(eventDetailData.getIsFree())) {
+      eventDetailData.setIsFree(recurrence.getIsFree());
+    }
+    if (Objects.isNull(eventDetailData.getAvailability())) {
+      eventDetailData.setAvailability(recurrence.getAvailability());
+    }
+
+    EventDetailData override = eventDetailService.saveEventDetail(
+        recurrence.getEvent().getEventId(), recurrence.getVenue().getVenueId(), eventDetailData,
+        replaced);
+
+    recurrenceExceptionDao.save(
+        new RecurrenceException(recurrenceId, occurrenceDate, override.getEventDetailId()));
+
+    return override;
+  }
+
+
+  /**
+   * A service layer method that cancels one occurrence of a recurrence. An event detail replacing
+   * the occurrence is deleted.
+   *
+   * @param recurrenceId Long
+   * @param occurrenceDate LocalDate date the rule puts the occurrence on
+   * @return cancellation message.
+   * @throws NoSuchElementException if the recurrence has no occurrence on that date.
+   */
+  @Transactional(readOnly = false)
+  public Map<String, String> cancelOccurrence(Long recurrenceId, LocalDate occurrenceDate) {
+    Recurrence recurrence = findOccurrence(recurrenceId, occurrenceDate);
+    Optional<RecurrenceException> exception =
+        recurrenceExceptionDao.findById(new RecurrenceException.Key(recurrenceId, occurrenceDate));
+
+    if (exception.isEmpty()) {
+      venueBookingIndex.release(
+          VenueBooking.of(recurrence, recurrence.getVenue().getVenueId(), occurrenceDate));
+    }
+
+    exception.map(RecurrenceException::getEventDetailId)
+        .ifPresent(eventDetailService::deleteEventDetailById);
+
+    recurrenceExceptionDao.save(new RecurrenceException(recurrenceId, occurrenceDate, null));
+
+    return Map.of("massage", "Occurrence of recurrence with ID=" + recurrenceId + " on "
+        + occurrenceDate + " was cancelled.");
+  }
+
+
+  /**
+   * A service layer method that checks an occurrence listing can be written, before the response
+   * is committed to streaming.
+   *
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @throws NoSuchElementException if the event is not found.
+   * @throws IllegalStateException if from is after to.
+   */
+  @Transactional(readOnly = true)
+  public void checkOccurrenceRange(Long eventId, LocalDate from, LocalDate to) {
+    eventService.findEventById(eventId);
+
+    if (from.isAfter(to)) {
+      throw new IllegalStateException("Date 'from' can not be after date 'to'.");
+    }
+  }
+
+
+  /**
+   * A service layer method that writes the occurrences of an event between two dates as NDJSON,
+   * ordered by date and start time. The stored event details are read from a database cursor and
+   * merged with the occurrences of each recurrence as they are expanded, leaving out the
+   * cancelled and replaced ones, so nothing is collected in memory.
+   *
+   * @param eventId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param outputStream OutputStream
+   */
+  @Transactional(readOnly = true)
+  public void writeOccurrences(Long eventId, LocalDate from, LocalDate to,
+      OutputStream outputStream) {
+    List<Recurrence> recurrences = recurrenceDao.findAllByEventIdBetween(eventId, from, to);
+
+    Set<RecurrenceException.Key> exceptions = recurrences.isEmpty() ? Set.of()
+        : recurrenceExceptionDao.findAllBetween(
+            recurrences.stream().map(Recurrence::getRecurrenceId).toList(), from, to).stream()
+            .map(RecurrenceService::keyOf).collect(Collectors.toSet());
+
+    List<Stream<OccurrenceData>> sources = new ArrayList<>();
+    sources.add(eventDetailDao.streamByEventIdBetween(eventId, from, to).map(OccurrenceData::new));
+
+    for (Recurrence recurrence : recurrences) {
+      sources.add(RecurrenceRule.expand(recurrence, from, to)
+          .filter(date -> !exceptions.contains(
+              new RecurrenceException.Key(recurrence.getRecurrenceId(), date)))
+          .map(date -> new OccurrenceData(recurrence, date)));
+    }
+
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    try (Stream<OccurrenceData> occurrences = mergeSorted(sources)) {
+      long numberOfRow = 0;
+
+      Iterator<OccurrenceData> iterator = occurrences.iterator();
+
+      while (iterator.hasNext()) {
+        writer.write(objectMapper.writeValueAsString(iterator.next()));
+        writer.write('\n');
+
+        if (++numberOfRow == 1) {
+          writer.flush();
+        }
+      }
+
+      writer.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+
+  /**
+   * A method finds recurrence from a given recurrence Id.
+   *
+   * @param recurrenceId Long
+   * @return Recurrence object.
+   * @throws NoSuchElementException if recurrence Id is not found.
+   */
+  private Recurrence findRecurrenceById(Long recurrenceId) {
+    return recurrenceDao.findById(recurrenceId).orElseThrow(() -> new NoSuchElementException(
+        "Recurrence with ID=" + recurrenceId + " was not found."));
+  }
+
+
+  /**
+   * A method finds a recurrence and checks its rule puts an occurrence on a date.
+   *
+   * @param recurrenceId Long
+   * @param occurrenceDate LocalDate
+   * @return Recurrence object.
+   * @throws NoSuchElementException if there is no such occurrence.
+   */
+  private Recurrence findOccurrence(Long recurrenceId, LocalDate occurrenceDate) {
+    Recurrence recurrence = findRecurrenceById(recurrenceId);
+
+    if (RecurrenceRule.expand(recurrence, occurrenceDate, occurrenceDate).findAny().isEmpty()) {
+      throw new NoSuchElementException("Recurrence with ID=" + recurrenceId
+          + " has no occurrence on " + occurrenceDate + ".");
+    }
+
+    return recurrence;
+  }
+
+
+  /**
+   * A convenient method for the key of a recurrence exception.
+   *
+   * @param recurrenceException RecurrenceException
+   * @return RecurrenceException.Key
+   */
+  private static RecurrenceException.Key keyOf(RecurrenceException recurrenceException) {
+    return new RecurrenceException.Key(recurrenceException.getRecurrenceId(),
+        recurrenceException.getOccurrenceDate());
+  }
+
+
+  /**
+   * A method merges streams that are each in occurrence order into one stream in that order,
+   * pulling one element at a time from each. Closing the result closes every source.
+   *
+   * @param sources List of Stream of OccurrenceData
+   * @return merged lazy stream.
+   */
+  private static Stream<OccurrenceData> mergeSorted(List<Stream<OccurrenceData>> sources) {
+    PriorityQueue<Head> heads =
+        new PriorityQueue<>(Comparator.comparing(head -> head.occurrence, OCCURRENCE_ORDER));
+
+    Iterator<OccurrenceData> merged = new Iterator<>() {
+      private boolean started;
+
+      @Override
+      public boolean hasNext() {
+        // The sources are opened on first use, so the cursor only runs once writing starts
+        if (!started) {
+          started = true;
+          sources.forEach(source -> Head.advance(source.iterator(), heads));
+        }
+
+        return !heads.isEmpty();
+      }
+
+      @Override
+      public OccurrenceData next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        Head head = heads.poll();
+        Head.advance(head.rest, heads);
+        return head.occurrence;
+      }
+    };
+
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+        .onClose(() -> sources.forEach(Stream::close));
+  }
+
+
+  /*
+   * The next occurrence of a source and the rest of it.
+   */
+  private static class Head {
+    private final OccurrenceData occurrence;
+    private final Iterator<OccurrenceData> rest;
+
+    private Head(OccurrenceData occurrence, Iterator<OccurrenceData> rest) {
+      this.occurrence = occurrence;
+      this.rest = rest;
+    }
+
+    private static void advance(Iterator<OccurrenceData> source, PriorityQueue<Head> heads) {
+      if (source.hasNext()) {
+        heads.add(new Head(source.next(), source));
+      }
+    }
+  }
+}
@@ -0,0 +1,706 @@
+package event.management.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import event.management.controller.model.ReservationData;
+import event.management.controller.model.SeatAvailabilityData;
+import event.management.dao.EventDetailDao;
+import event.management.dao.SeatReservationDao;
+import event.management.dao.SeatStripeDao;
+import event.management.entity.EventDetail;
+import event.management.entity.SeatReservation;
+import event.management.entity.SeatStripe;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reserves seats of an event detail against the capacity of its venue. The seats are split over
+ * several stripe rows and every reservation takes its seats from one stripe with a conditional
+ * decrement, so concurrent buyers rarely wait on the same row lock and a stripe can never go below
+ * zero. The stripes remember the venue capacity they were counted from and are recounted under
+ * lock when it changed. In-memory counters per stripe only steer reservations to stripes that
+ * probably still have seats, the database rows stay the authority on what is left.
+ */
+@Service
+@Slf4j
+public class ReservationService {
+  private static final EnumSet<SeatReservation.Status> CANCELLABLE =
+      EnumSet.of(SeatReservation.Status.HELD, SeatReservation.Status.CONFIRMED);
+
+  @Autowired
+  private SeatStripeDao seatStripeDao;
+
+  @Autowired
+  private SeatReservationDao seatReservationDao;
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${event-management.reservation.stripes}")
+  private int stripeCount;
+
+  @Value("${event-management.reservation.max-quantity}")
+  private int maxQuantity;
+
+  @Value("${event-management.reservation.hold-ttl}")
+  private Duration holdTtl;
+
+  @Value("${event-management.reservation.expiry-batch-size}")
+  private int expiryBatchSize;
+
+  @Value("${event-management.reservation.max-hints}")
+  private int maxHints;
+
+  // Seats each stripe of an event detail probably has left, keyed by event detail Id
+  private final Map<Long, SeatHints> remainingHints = new ConcurrentHashMap<>();
+
+
+  /**
+   * A service layer method that holds seats of an event detail until they are confirmed or the
+   * hold runs out.
+   *
+   * @param eventDetailId Long
+   * @param reservationData ReservationData with the number of seats
+   * @return the held reservation.
+   * @throws NoSuchElementException if event detail Id is not found, archived event details
+   *         included.
+   * @throws IllegalStateException if the quantity is invalid, the event detail is unavailable or
+   *         over, the venue has no capacity or not enough seats are left.
+   */
+  public ReservationData reserveSeats(Long eventDetailId, ReservationData reservationData) {
+    Integer quantity = reservationData.getQuantity();
+
+    if (Objects.isNull(quantity) || quantity < 1 || quantity > maxQuantity) {
+      throw new IllegalStateException(
+          "The quantity of a reservation must be between 1 and " + maxQuantity + ".");
+    }
+
+    Object[] reservable = checkReservable(eventDetailId);
+    LocalDate date = (LocalDate) reservable[0];
+    int capacity = (Integer) reservable[4];
+
+    AtomicIntegerArray hints = findHints(eventDetailId, date, capacity).getRemaining();
+
+    // Fast path, one short transaction per attempted stripe starting at a random one
+    int start = ThreadLocalRandom.current().nextInt(hints.length());
+
+    for (int i = 0; i < hints.length(); i++) {
+      int stripe = (start + i) % hints.length();
+
+      if (hints.get(stripe) < quantity) {
+        continue;
+      }
+
+      SeatReservation seatReservation = takeSeats(eventDetailId, stripe, quantity, capacity);
+
+      if (Objects.nonNull(seatReservation)) {
+        hints.addAndGet(stripe, -quantity);
+        return new ReservationData(seatReservation);
+      }
+
+      hints.set(stripe, 0);
+    }
+
+    // Slow path, the seats left are spread too thin, the counters are out of date or the stripes
+    // were counted from another capacity
+    SeatReservation seatReservation = gatherSeats(eventDetailId, quantity, date, capacity);
+    return new ReservationData(seatReservation);
+  }
+
+
+  /**
+   * A service layer method that confirms a held reservation. Confirming it twice is harmless.
+   *
+   * @param reservationId Long
+   * @return the confirmed reservation.
+   * @throws NoSuchElementException if reservation Id is not found.
+   * @throws IllegalStateException if the hold ran out or the reservation was cancelled.
+   */
+  public ReservationData confirmReservation(Long reservationId) {
+    return transactionTemplate.execute(status -> {
+      seatReservationDao.confirm(reservationId, LocalDateTime.now());
+      SeatReservation seatReservation = findReservationById(reservationId);
+
+      if (seatReservation.getStatus() != SeatReservation.Status.CONFIRMED) {
+        throw new IllegalStateException("Reservation with ID=" + reservationId + " is "
+            + (seatReservation.getStatus() == SeatReservation.Status.HELD ? "expired"
+                : seatReservation.getStatus().name().toLowerCase())
+            + " and cannot be confirmed.");
+      }
+
+      return new ReservationData(seatReservation);
+    });
+  }
+
+
+  /**
+   * A service layer method that cancels a held or confirmed reservation and gives its seats back.
+   * Cancelling it twice is harmless.
+   *
+   * @param reservationId Long
+   * @return the cancelled reservation.
+   * @throws NoSuchElementException if reservation Id is not found.
+   */
+  public ReservationData cancelReservation(Long reservationId) {
+    return new ReservationData(
+        releaseSeats(reservationId, CANCELLABLE, SeatReservation.Status.CANCELLED));
+  }
+
+
+  /**
+   * A service layer method that retrieves a reservation.
+   *
+   * @param reservationId Long
+   * @return the reservation.
+   * @throws NoSuchElementException if reservation Id is not found.
+   */
+  @Transactional(readOnly = true)
+  public ReservationData retrieveReservationById(Long reservationId) {
+    return new ReservationData(findReservationById(reservationId));
+  }
+
+
+  /**
+   * A service layer method that retrieves the capacity and the seats left of an event detail.
+   *
+   * @param eventDetailId Long
+   * @return the seat availability.
+   * @throws NoSuchElementException if event detail Id is not found.
+   */
+  @Transactional(readOnly = true)
+  public SeatAvailabilityData retrieveSeatAvailability(Long eventDetailId) {
+    Integer capacity = findEventDetailById(eventDetailId).getVenue().getCapacity();
+    List<Integer> remaining = seatStripeDao.findRemaining(eventDetailId);
+    Integer countedFrom = seatStripeDao.findCapacity(eventDetailId);
+
+    Integer available = remaining.isEmpty() ? capacity : sum(remaining);
+
+    // Stripes not recounted yet since the capacity changed
+    if (!remaining.isEmpty() && Objects.nonNull(capacity) && Objects.nonNull(countedFrom)) {
+      available = Math.max(0, available + capacity - countedFrom);
+    }
+
+    return new SeatAvailabilityData(eventDetailId, capacity, available);
+  }
+
+
+  /**
+   * Gives the seats of holds that ran out back to their stripes, in batches so a backlog of
+   * expired holds never ends up in one long transaction.
+   */
+  @Scheduled(fixedDelayString = "${event-management.reservation.expiry-interval}")
+  public void expireHolds() {
+    int expired = 0;
+    List<Long> reservationIds;
+
+    do {
+      reservationIds = seatReservationDao.findExpiredHoldIds(LocalDateTime.now(),
+          PageRequest.of(0, expiryBatchSize));
+
+      for (Long reservationId : reservationIds) {
+        releaseSeats(reservationId, EnumSet.of(SeatReservation.Status.HELD),
+            SeatReservation.Status.EXPIRED);
+      }
+
+      expired += reservationIds.size();
+    } while (reservationIds.size() == expiryBatchSize);
+
+    if (expired > 0) {
+      log.info("Expired {} seat holds", expired);
+    }
+  }
+
+
+  /**
+   * A method drops the counters of the event details whose schedule a committed write changed,
+   * such as an expiry, a deletion or a move to another venue. They are loaded again by the next
+   * reservation.
+   *
+   * @param scheduleChangedEvent ScheduleChangedEvent
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  void onScheduleChanged(ScheduleChangedEvent scheduleChangedEvent) {
+    remainingHints.values()
+        .removeIf(hints -> scheduleChangedEvent.getDates().contains(hints.getDate()));
+  }
+
+
+  /**
+   * A method checks that the seats of an event detail may be reserved. Archived event details are
+   * no longer in the table and are not found.
+   *
+   * @param eventDetailId Long
+   * @return a row of date, start time, end time, availability and venue capacity.
+   * @throws NoSuchElementException if event detail Id is not found.
+   * @throws IllegalStateException if the event detail is unavailable or over, or the venue has no
+   *         capacity.
+   */
+  private Object[] checkReservable(Long eventDetailId) {
+    List<Object[]> rows = eventDetailDao.findReservationCheck(eventDetailId);
+
+    if (rows.isEmpty()) {
+      remainingHints.remove(eventDetailId);
+      throw new NoSuchElementException(
+          "Event detail with ID=" + eventDetailId + " was not found.");
+    }
+
+    Object[] row = rows.get(0);
+
+    if (Boolean.FALSE.equals(row[3])) {
+      remainingHints.remove(eventDetailId);
+      throw new IllegalStateException("Event detail with ID=" + eventDetailId
+          + " is not available, its seats cannot be reserved.");
+    }
+
+    if (isOver((LocalDate) row[0], (LocalTime) row[1], (LocalTime) row[2], LocalDateTime.now())) {
+      remainingHints.remove(eventDetailId);
+      throw new IllegalStateException("Event detail with ID=" + eventDetailId
+          + " is over, its seats cannot be reserved.");
+    }
+
+    if (Objects.isNull(row[4])) {
+      throw new IllegalStateException("The venue of event detail with ID=" + eventDetailId
+          + " has no capacity, its seats cannot be reserved.");
+    }
+
+    return row;
+  }
+
+
+  /**
+   * A method takes seats from one stripe and records the hold, both in one short transaction.
+   *
+   * @param eventDetailId Long
+   * @param stripe int
+   * @param quantity int
+   * @param capacity int venue capacity the reservation was checked against
+   * @return the held reservation, null if the stripe has fewer seats left or was counted from
+   *         another capacity.
+   */
+  private SeatReservation takeSeats(Long eventDetailId, int stripe, int quantity, int capacity) {
+    return transactionTemplate.execute(status -> {
+      if (seatStripeDao.takeSeats(eventDetailId, stripe, quantity, capacity) == 0) {
+        return null;
+      }
+
+      return saveHold(eventDetailId, stripe, quantity);
+    });
+  }
+
+
+  /**
+   * A method refreshes the counters from the stripes and, when no single stripe has enough seats
+   * left, gathers them into one under lock. Stripes counted from another capacity are recounted
+   * under the same lock first. The unlocked read turns sold-out requests away before any lock is
+   * taken.
+   *
+   * @param eventDetailId Long
+   * @param quantity int
+   * @param date LocalDate of the event detail
+   * @param capacity int venue capacity the reservation was checked against
+   * @return the held reservation.
+   * @throws NoSuchElementException if the event detail was deleted meanwhile.
+   * @throws IllegalStateException if not enough seats are left.
+   */
+  private SeatReservation gatherSeats(Long eventDetailId, int quantity, LocalDate date,
+      int capacity) {
+    List<Integer> remaining = seatStripeDao.findRemaining(eventDetailId);
+
+    if (remaining.isEmpty()) {
+      // The event detail was deleted after its counters were loaded
+      remainingHints.remove(eventDetailId);
+      findEventDetailById(eventDetailId);
+    }
+
+    boolean counted = Objects.equals(seatStripeDao.findCapacity(eventDetailId), capacity);
+
+    if (counted) {
+      if (sum(remaining) < quantity) {
+        throw soldOut(eventDetailId, quantity);
+      }
+
+      // Counters of another instance's cancellations and expiries are only caught up here
+      AtomicIntegerArray hints = toHints(remaining);
+      putHints(eventDetailId, new SeatHints(date, capacity, hints));
+
+      for (int stripe = 0; stripe < remaining.size(); stripe++) {
+        if (remaining.get(stripe) >= quantity) {
+          SeatReservation seatReservation = takeSeats(eventDetailId, stripe, quantity, capacity);
+
+          if (Objects.nonNull(seatReservation)) {
+            hints.addAndGet(stripe, -quantity);
+            return seatReservation;
+          }
+        }
+      }
+    }
+
+    SeatReservation seatReservation = transactionTemplate.execute(status -> {
+      List<Integer> lockedRemaining = seatStripeDao.findRemainingForUpdate(eventDetailId);
+      Integer countedFrom = seatStripeDao.findCapacity(eventDetailId);
+
+      if (!Objects.equals(countedFrom, capacity)) {
+        lockedRemaining = recountSeats(eventDetailId, lockedRemaining, countedFrom, capacity);
+      }
+
+      int total = sum(lockedRemaining);
+
+      if (total < quantity) {
+        return null;
+      }
+
+      int target = lockedRemaining.indexOf(Collections.max(lockedRemaining));
+
+      if (lockedRemaining.get(target) >= quantity) {
+        seatStripeDao.takeSeats(eventDetailId, target, quantity, capacity);
+      } else {
+        seatStripeDao.gatherSeats(eventDetailId, target, total - quantity);
+      }
+
+      return saveHold(eventDetailId, target, quantity);
+    });
+
+    if (Objects.isNull(seatReservation)) {
+      remainingHints.remove(eventDetailId);
+      throw soldOut(eventDetailId, quantity);
+    }
+
+    putHints(eventDetailId, new SeatHints(date, capacity, loadHints(eventDetailId)));
+    return seatReservation;
+  }
+
+
+  /**
+   * A method recounts the locked stripes of an event detail from a changed venue capacity. The
+   * seats held or sold stay taken, so the seats left change as much as the capacity did. When
+   * more seats are taken than the new capacity holds, none are left and the stripes count from
+   * the taken seats, so cancellations only free seats again once the taken seats fit.
+   *
+   * @param eventDetailId Long
+   * @param remaining seats left in stripe order, locked
+   * @param countedFrom Integer capacity the stripes were counted from
+   * @param capacity int venue capacity
+   * @return seats left in stripe order after the recount.
+   */
+  private List<Integer> recountSeats(Long eventDetailId, List<Integer> remaining,
+      Integer countedFrom, int capacity) {
+    int taken = Objects.isNull(countedFrom) ? 0 : countedFrom - sum(remaining);
+    int left = Math.max(0, capacity - taken);
+    int stripes = remaining.size();
+
+    seatStripeDao.recountSeats(eventDetailId, left / stripes, left % stripes, left + taken);
+    log.info("Recounted the seats of event detail with ID={} from capacity {} to {}",
+        eventDetailId, countedFrom, capacity);
+
+    List<Integer> recounted = new ArrayList<>();
+
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      recounted.add(left / stripes + (stripe < left % stripes ? 1 : 0));
+    }
+
+    return recounted;
+  }
+
+
+  /**
+   * A method moves a reservation out of a status holding seats and gives the seats back to their
+   * stripe. Only the caller whose conditional update wins gives them back.
+   *
+   * @param reservationId Long
+   * @param from statuses the reservation may be released from
+   * @param to SeatReservation.Status
+   * @return the reservation after the update.
+   * @throws NoSuchElementException if reservation Id is not found.
+   */
+  private SeatReservation releaseSeats(Long reservationId,
+      EnumSet<SeatReservation.Status> from, SeatReservation.Status to) {
+    SeatReservation seatReservation = transactionTemplate.execute(status -> {
+      SeatReservation dbSeatReservation = findReservationById(reservationId);
+
+      if (seatReservationDao.transition(reservationId, from, to) == 0) {
+        return findReservationById(reservationId);
+      }
+
+      seatStripeDao.returnSeats(dbSeatReservation.getEventDetailId(),
+          dbSeatReservation.getStripe(), dbSeatReservation.getQuantity());
+      dbSeatReservation.setStatus(to);
+
+      return dbSeatReservation;
+    });
+
+    if (seatReservation.getStatus() == to) {
+      SeatHints hints = remainingHints.get(seatReservation.getEventDetailId());
+
+      if (Objects.nonNull(hints) && seatReservation.getStripe() < hints.getRemaining().length()) {
+        hints.getRemaining().addAndGet(seatReservation.getStripe(), seatReservation.getQuantity());
+      }
+    }
+
+    return seatReservation;
+  }
+
+
+  /**
+   * A method records a new hold on seats already taken from a stripe.
+   *
+   * @param eventDetailId Long
+   * @param stripe int
+   * @param quantity int
+   * @return the saved reservation.
+   */
+  private SeatReservation saveHold(Long eventDetailId, int stripe, int quantity) {
+    LocalDateTime now = LocalDateTime.now();
+
+    SeatReservation seatReservation = new SeatReservation();
+    seatReservation.setEventDetailId(eventDetailId);
+    seatReservation.setStripe(stripe);
+    seatReservation.setQuantity(quantity);
+    seatReservation.setStatus(SeatReservation.Status.HELD);
+    seatReservation.setCreatedAt(now);
+    seatReservation.setExpiresAt(now.plus(holdTtl));
+
+    return seatReservationDao.save(seatReservation);
+  }
+
+
+  /**
+   * A method returns the counters of an event detail for the venue capacity, creating its stripes
+   * from the capacity on the first reservation. Counters loaded for another capacity are loaded
+   * again.
+   *
+   * @param eventDetailId Long
+   * @param date LocalDate of the event detail
+   * @param capacity int venue capacity
+   * @return the counters.
+   * @throws NoSuchElementException if event detail Id is not found.
+   */
+  private SeatHints findHints(Long eventDetailId, LocalDate date, int capacity) {
+    SeatHints hints = remainingHints.get(eventDetailId);
+
+    if (Objects.nonNull(hints) && hints.getCapacity() == capacity) {
+      return hints;
+    }
+
+    if (seatStripeDao.findRemaining(eventDetailId).isEmpty()) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> createStripes(eventDetailId, capacity));
+      } catch (DataIntegrityViolationException e) {
+        // Another reservation created the stripes first, or the event detail was deleted
+        log.debug("Seat stripes of event detail with ID={} already exist", eventDetailId);
+      }
+    }
+
+    SeatHints loaded = new SeatHints(date, capacity, loadHints(eventDetailId));
+
+    if (remainingHints.size() >= maxHints) {
+      evictFarthestDate();
+    }
+
+    return remainingHints.compute(eventDetailId, (id, existing) ->
+        Objects.nonNull(existing) && existing.getCapacity() == capacity ? existing : loaded);
+  }
+
+
+  /**
+   * A method keeps the counters of an event detail, making room if needed.
+   *
+   * @param eventDetailId Long
+   * @param hints SeatHints
+   */
+  private void putHints(Long eventDetailId, SeatHints hints) {
+    if (remainingHints.size() >= maxHints) {
+      evictFarthestDate();
+    }
+
+    remainingHints.put(eventDetailId, hints);
+  }
+
+
+  /**
+   * A method makes room by dropping the counters of the event detail dated farthest from today,
+   * which keeps the event details on sale.
+   */
+  private void evictFarthestDate() {
+    long today = LocalDate.now().toEpochDay();
+
+    remainingHints.entrySet().stream()
+        .max(Comparator.comparingLong(entry -> Objects.isNull(entry.getValue().getDate())
+            ? Long.MAX_VALUE : Math.abs(entry.getValue().getDate().toEpochDay() - today)))
+        .ifPresent(entry -> remainingHints.remove(entry.getKey(), entry.getValue()));
+  }
+
+
+  /**
+   * A method splits the venue capacity over the stripes of an event detail.
+   *
+   * @param eventDetailId Long
+   * @param capacity int venue capacity
+   */
+  private void createStripes(Long eventDetailId, int capacity) {
+    int stripes = Math.max(1, Math.min(stripeCount, capacity));
+    List<SeatStripe> seatStripes = new ArrayList<>();
+
+    for (int stripe = 0; stripe < stripes; stripe++) {
+      SeatStripe seatStripe = new SeatStripe();
+      seatStripe.setEventDetailId(eventDetailId);
+      seatStripe.setStripe(stripe);
+      seatStripe.setRemaining(capacity / stripes + (stripe < capacity % stripes ? 1 : 0));
+      seatStripe.setCapacity(capacity);
+      seatStripes.add(seatStripe);
+    }
+
+    // Persisted rather than saved, a merge would overwrite the stripes of a concurrent first
+    // reservation instead of failing on their keys
+    seatStripes.forEach(entityManager::persist);
+    seatStripeDao.flush();
+  }
+
+
+  /**
+   * A method reads the seats left per stripe into fresh counters.
+   *
+   * @param eventDetailId Long
+   * @return the counters per stripe.
+   * @throws NoSuchElementException if the event detail has no stripes.
+   */
+  private AtomicIntegerArray loadHints(Long eventDetailId) {
+    List<Integer> remaining = seatStripeDao.findRemaining(eventDetailId);
+
+    if (remaining.isEmpty()) {
+      throw new NoSuchElementException(
+          "Event detail with ID=" + eventDetailId + " was not found.");
+    }
+
+    return toHints(remaining);
+  }
+
+
+  /**
+   * A convenient method for the seats left over all stripes.
+   *
+   * @param remaining seats left in stripe order
+   * @return int
+   */
+  private static int sum(List<Integer> remaining) {
+    return remaining.stream().mapToInt(Integer::intValue).sum();
+  }
+
+
+  /**
+   * A convenient method mirroring when the expiry of event details makes one unavailable. An
+   * event detail is over once its date has passed, or on its date once its end time has passed.
+   * An end time not after the start time runs to midnight. Undated event details are never over.
+   *
+   * @param date LocalDate
+   * @param startTime LocalTime
+   * @param endTime LocalTime
+   * @param now LocalDateTime
+   * @return true if the event detail is over.
+   */
+  private static boolean isOver(LocalDate date, LocalTime startTime, LocalTime endTime,
+      LocalDateTime now) {
+    if (Objects.isNull(date)) {
+      return false;
+    }
+
+    LocalDateTime end = Objects.nonNull(startTime) && Objects.nonNull(endTime)
+        && endTime.isAfter(startTime) ? date.atTime(endTime) : date.plusDays(1).atStartOfDay();
+
+    return !now.isBefore(end);
+  }
+
+
+  /**
+   * A convenient method for turning the seats left per stripe into counters.
+   *
+   * @param remaining seats left in stripe order
+   * @return AtomicIntegerArray
+   */
+  private static AtomicIntegerArray toHints(List<Integer> remaining) {
+    return new AtomicIntegerArray(remaining.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+
+  /**
+   * A convenient method for the error of a reservation that cannot be served.
+   *
+   * @param eventDetailId Long
+   * @param quantity int
+   * @return IllegalStateException
+   */
+  private IllegalStateException soldOut(Long eventDetailId, int quantity) {
+    return new IllegalStateException("Fewer than " + quantity
+        + " seats are left for event detail with ID=" + eventDetailId + ".");
+  }
+
+
+  /**
+   * A method retrieves an event detail.
+   *
+   * @param eventDetailId Long
+   * @return EventDetail
+   * @throws NoSuchElementException if event detail Id is not found.
+   */
+  private EventDetail findEventDetailById(Long eventDetailId) {
+    return eventDetailDao.findById(eventDetailId).orElseThrow(() -> new NoSuchElementException(
+        "Event detail with ID=" + eventDetailId + " was not found."));
+  }
+
+
+  /**
+   * A method retrieves a reservation.
+   *
+   * @param reservationId Long
+   * @return SeatReservation
+   * @throws NoSuchElementException if reservation Id is not found.
+   */
+  private SeatReservation findReservationById(Long reservationId) {
+    return seatReservationDao.findById(reservationId).orElseThrow(() -> new NoSuchElementException(
+        "Reservation with ID=" + reservationId + " was not found."));
+  }
+
+
+  /*
+   * Seats each stripe of an event detail probably has left, with the date they are dropped on
+   * when its schedule changes and the venue capacity they were loaded for.
+   */
+  @Getter
+  @AllArgsConstructor
+  private static class SeatHints {
+    private final LocalDate date;
+    private final int capacity;
+    private final AtomicIntegerArray remaining;
+  }
+}
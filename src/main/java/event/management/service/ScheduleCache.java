@@ -0,0 +1,163 @@
+package event.management.service;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import event.management.controller.model.EventDetailResponse;
+import event.management.controller.model.ListingVersion;
+import event.management.dao.EventDetailDao;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the ready-to-serve schedule of a date, ordered by event detail Id, and its validator for
+ * the date listing that kiosks poll. Entries are dropped after the writes that change them
+ * commit. A load that overlaps such a write is served but not kept, so the cache never holds a
+ * schedule older than the last committed write.
+ */
+@Component
+@Slf4j
+class ScheduleCache {
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Value("${event-management.schedule-cache.max-dates}")
+  private int maxDates;
+
+  @Value("${event-management.schedule-cache.prewarm-days}")
+  private int prewarmDays;
+
+  private final Map<LocalDate, Schedule> schedules = new ConcurrentHashMap<>();
+
+  // Bumped by every invalidation, a load only keeps its result if no invalidation ran meanwhile
+  private final AtomicLong generation = new AtomicLong();
+
+
+  /**
+   * A method returns the schedule of a date, loading it with one query on a miss.
+   * 
+   * @param date LocalDate
+   * @return unmodifiable list of EventDetailResponse ordered by event detail Id.
+   */
+  List<EventDetailResponse> findSchedule(LocalDate date) {
+    return findOrLoadSchedule(date).getEventDetails();
+  }
+
+
+  /**
+   * A method returns the validator of the schedule of a date, loading the schedule on a miss.
+   * 
+   * @param date LocalDate
+   * @return ListingVersion
+   */
+  ListingVersion findScheduleVersion(LocalDate date) {
+    return findOrLoadSchedule(date).getListingVersion();
+  }
+
+
+  /**
+   * A method returns the cached schedule of a date, loading it on a miss.
+   * 
+   * @param date LocalDate
+   * @return Schedule
+   */
+  private Schedule findOrLoadSchedule(LocalDate date) {
+    Schedule schedule = schedules.get(date);
+
+    if (Objects.nonNull(schedule)) {
+      return schedule;
+    }
+
+    long loadGeneration = generation.get();
+    // The validator is read first, so it is never newer than the rows it describes
+    ListingVersion listingVersion = eventDetailDao.findListingVersionByDate(date);
+    List<EventDetailResponse> eventDetails = eventDetailDao.findAllResponsesByDate(date);
+
+    // Read after the table, so rows archived meanwhile are still found in one of them
+    if (archive.covers(EventDetailArchive.Filter.byDate(date), EventDetailCursor.FIRST_PAGE)) {
+      List<EventDetailResponse> archived = archive.findPage(
+          EventDetailArchive.Filter.byDate(date), EventDetailCursor.FIRST_PAGE, Integer.MAX_VALUE);
+      eventDetails = EventDetailArchive.merge(eventDetails, archived, Integer.MAX_VALUE);
+      listingVersion = listingVersion.withArchived(archived);
+    }
+
+    schedule = new Schedule(List.copyOf(eventDetails), listingVersion);
+
+    if (schedules.size() >= maxDates) {
+      evictFarthestDate();
+    }
+
+    schedules.put(date, schedule);
+
+    // An invalidation ran while loading, the schedule may predate it
+    if (generation.get() != loadGeneration) {
+      schedules.remove(date, schedule);
+    }
+
+    return schedule;
+  }
+
+
+  /**
+   * A method drops the schedules a committed write changed.
+   * 
+   * @param scheduleChangedEvent ScheduleChangedEvent
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  void onScheduleChanged(ScheduleChangedEvent scheduleChangedEvent) {
+    generation.incrementAndGet();
+    scheduleChangedEvent.getDates().forEach(schedules::remove);
+  }
+
+
+  /**
+   * A method loads the schedules of today and the next days once the application is ready, so
+   * the first kiosk polls do not wait on the database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  void prewarm() {
+    LocalDate today = LocalDate.now();
+
+    for (int day = 0; day <= prewarmDays && day < maxDates; day++) {
+      findSchedule(today.plusDays(day));
+    }
+
+    log.info("Prewarmed the schedule cache from {} to {}", today, today.plusDays(prewarmDays));
+  }
+
+
+  /**
+   * A method makes room by dropping the cached date farthest from today, which keeps the dates
+   * kiosks poll.
+   */
+  private void evictFarthestDate() {
+    LocalDate today = LocalDate.now();
+
+    schedules.keySet().stream()
+        .max(Comparator.comparingLong(date -> Math.abs(date.toEpochDay() - today.toEpochDay())))
+        .ifPresent(schedules::remove);
+  }
+
+
+  @Getter
+  @AllArgsConstructor
+  private static class Schedule {
+    private final List<EventDetailResponse> eventDetails;
+    private final ListingVersion listingVersion;
+  }
+}
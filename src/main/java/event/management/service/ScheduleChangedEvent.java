@@ -0,0 +1,46 @@
+package event.management.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by every write that changes what the per-date schedule returns. Listeners react after
+ * the transaction commits, so they never see a change that is later rolled back.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ScheduleChangedEvent {
+  private final Set<LocalDate> dates;
+
+
+  /**
+   * A method creates an event for the schedule of some dates. Null dates are ignored.
+   * 
+   * @param dates LocalDate
+   * @return ScheduleChangedEvent
+   */
+  public static ScheduleChangedEvent forDates(LocalDate... dates) {
+    return forDates(Arrays.asList(dates));
+  }
+
+
+  /**
+   * A method creates an event for the schedule of some dates. Null dates are ignored.
+   * 
+   * @param dates Collection of LocalDate
+   * @return ScheduleChangedEvent
+   */
+  public static ScheduleChangedEvent forDates(Collection<LocalDate> dates) {
+    return new ScheduleChangedEvent(
+        dates.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet()));
+  }
+}
@@ -0,0 +1,117 @@
+package event.management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Objects;
+import event.management.entity.EventDetail;
+import event.management.entity.Recurrence;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The time an event detail, or an occurrence of a recurrence, occupies its venue on its date, as
+ * seconds of the day in a half-open range, so back-to-back bookings do not clash. An end time not
+ * after the start time runs to midnight.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class VenueBooking {
+  private static final int END_OF_DAY = 24 * 60 * 60;
+
+  private final Long venueId;
+  private final LocalDate date;
+  private final int start;
+  private final int end;
+  private final Long eventDetailId;
+
+  // Set for an occurrence of a recurrence, which has no event detail
+  private final Long recurrenceId;
+
+
+  /**
+   * A method creates the booking of an event detail.
+   * 
+   * @param eventDetail EventDetail
+   * @return VenueBooking, null if venue, date, start or end time is missing.
+   */
+  static VenueBooking of(EventDetail eventDetail) {
+    if (Objects.isNull(eventDetail.getVenue())) {
+      return null;
+    }
+
+    return of(eventDetail.getVenue().getVenueId(), eventDetail.getDate(),
+        eventDetail.getStartTime(), eventDetail.getEndTime(), eventDetail.getEventDetailId());
+  }
+
+
+  /**
+   * A method creates a booking from its parts.
+   * 
+   * @param venueId Long
+   * @param date LocalDate
+   * @param startTime LocalTime
+   * @param endTime LocalTime
+   * @param eventDetailId Long, null for an event detail not saved yet
+   * @return VenueBooking, null if venue, date, start or end time is missing.
+   */
+  static VenueBooking of(Long venueId, LocalDate date, LocalTime startTime, LocalTime endTime,
+      Long eventDetailId) {
+    if (Objects.isNull(venueId) || Objects.isNull(date) || Objects.isNull(startTime)
+        || Objects.isNull(endTime)) {
+      return null;
+    }
+
+    int start = startTime.toSecondOfDay();
+    int end = endTime.isAfter(startTime) ? endTime.toSecondOfDay() : END_OF_DAY;
+
+    return new VenueBooking(venueId, date, start, end, eventDetailId, null);
+  }
+
+
+  /**
+   * A method creates the booking of an occurrence of a recurrence.
+   * 
+   * @param recurrence Recurrence
+   * @param venueId Long venue of the recurrence
+   * @param date LocalDate of the occurrence
+   * @return VenueBooking, null if start or end time is missing.
+   */
+  static VenueBooking of(Recurrence recurrence, Long venueId, LocalDate date) {
+    VenueBooking booking =
+        of(venueId, date, recurrence.getStartTime(), recurrence.getEndTime(), null);
+
+    return Objects.isNull(booking) ? null : new VenueBooking(venueId, date, booking.start,
+        booking.end, null, recurrence.getRecurrenceId());
+  }
+
+
+  /**
+   * A method checks whether two bookings hold the same venue at the same time. An event detail
+   * never clashes with itself, nor a recurrence with its own occurrences.
+   * 
+   * @param other VenueBooking
+   * @return true if they overlap.
+   */
+  boolean overlaps(VenueBooking other) {
+    return venueId.equals(other.venueId) && date.equals(other.date) && start < other.end
+        && other.start < end
+        && (Objects.isNull(eventDetailId) || !eventDetailId.equals(other.eventDetailId))
+        && (Objects.isNull(recurrenceId) || !recurrenceId.equals(other.recurrenceId));
+  }
+
+
+  /**
+   * A convenient method for the booked time in messages.
+   * 
+   * @return e.g. 10:00 to 12:00.
+   */
+  String describe() {
+    return LocalTime.ofSecondOfDay(start) + " to "
+        + (end == END_OF_DAY ? "midnight" : LocalTime.ofSecondOfDay(end).toString());
+  }
+}
@@ -0,0 +1,679 @@
+package event.management.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import event.management.controller.model.FreeWindowData;
+import event.management.dao.EventDetailDao;
+import event.management.dao.RecurrenceDao;
+import event.management.dao.RecurrenceExceptionDao;
+import event.management.entity.Recurrence;
+import event.management.entity.RecurrenceException;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Keeps the bookings of a venue on a date by the five-minute slots they touch, so a double booking
+ * is found from the slots of the new booking without querying the venue history, and as a bitmap
+ * of those slots, so free time is found by scanning bits. A venue and date is loaded with one
+ * query the first time it is used. A booking is claimed in the index inside the writing
+ * transaction, which makes the check and the claim atomic for concurrent writers, and the claim
+ * is undone if the transaction rolls back.
+ * The occurrences of recurrences at the venue are expanded into the bookings of each date, so
+ * they hold the venue like the event details replacing them would.
+ */
+@Component
+class VenueBookingIndex {
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private RecurrenceDao recurrenceDao;
+
+  @Autowired
+  private RecurrenceExceptionDao recurrenceExceptionDao;
+
+  @Value("${event-management.booking-index.max-venue-days}")
+  private int maxVenueDays;
+
+  @Value("${event-management.booking-index.recurrence-horizon-days}")
+  private int recurrenceHorizonDays;
+
+  private static final int SLOT_SECONDS = 5 * 60;
+  private static final int SLOTS_PER_DAY = 24 * 60 * 60 / SLOT_SECONDS;
+  private static final Comparator<VenueBooking> CONFLICT_ORDER =
+      Comparator.comparing(VenueBooking::getEventDetailId,
+          Comparator.nullsLast(Comparator.naturalOrder()))
+          .thenComparing(VenueBooking::getRecurrenceId,
+              Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private final Map<VenueDay, Bookings> venueDays = new ConcurrentHashMap<>();
+
+
+  /**
+   * A method finds the event details and occurrences a booking would clash with, without claiming
+   * it.
+   *
+   * @param booking VenueBooking
+   * @return the clashing bookings, event details first, empty if there is none.
+   */
+  List<VenueBooking> findConflicts(VenueBooking booking) {
+    return withBookings(booking, bookings -> bookings.findConflicts(booking));
+  }
+
+
+  /**
+   * A method claims the booking of a saved event detail in the current transaction. After commit
+   * the previous booking of the event detail is released, after rollback the claim is.
+   *
+   * @param booking VenueBooking of the event detail as saved, null if it books nothing
+   * @param previous VenueBooking of the event detail before the update, or of the occurrence it
+   *        replaces, null for an insert
+   * @throws BookingConflictException if the venue is already booked at that time.
+   */
+  void book(VenueBooking booking, VenueBooking previous) {
+    book(booking, previous, Set.of());
+  }
+
+
+  /**
+   * A method claims the booking of an event detail moved together with others in the current
+   * transaction. The bookings of the others are not checked against, they leave their place in
+   * the same transaction.
+   *
+   * @param booking VenueBooking of the event detail as saved, null if it books nothing
+   * @param previous VenueBooking of the event detail before the update, or of the occurrence it
+   *        replaces, null for an insert
+   * @param moving Ids of the event details moved together
+   * @throws BookingConflictException if the venue is already booked at that time.
+   */
+  void book(VenueBooking booking, VenueBooking previous, Set<Long> moving) {
+    if (Objects.equals(booking, previous)) {
+      return;
+    }
+
+    if (Objects.nonNull(booking)) {
+      withBookings(booking, bookings -> {
+        List<VenueBooking> conflicts = bookings.findConflicts(booking).stream()
+            .filter(conflict -> !conflict.equals(previous)
+                && (Objects.isNull(conflict.getEventDetailId())
+                    || !moving.contains(conflict.getEventDetailId())))
+            .toList();
+
+        if (!conflicts.isEmpty()) {
+          throw conflictOf(booking, conflicts);
+        }
+
+        bookings.add(booking);
+        bookings.claims.add(booking);
+        return null;
+      });
+    }
+
+    afterCompletion(committed -> {
+      if (Objects.nonNull(booking)) {
+        update(booking, bookings -> {
+          bookings.claims.remove(booking);
+
+          if (!committed) {
+            bookings.remove(booking);
+          }
+        });
+      }
+
+      if (committed && Objects.nonNull(previous)) {
+        update(previous, bookings -> bookings.remove(previous));
+      }
+    });
+  }
+
+
+  /**
+   * A method releases the booking of an event detail deleted in the current transaction, once it
+   * commits.
+   *
+   * @param booking VenueBooking, null if the event detail booked nothing
+   */
+  void release(VenueBooking booking) {
+    if (Objects.isNull(booking)) {
+      return;
+    }
+
+    afterCompletion(committed -> {
+      if (committed) {
+        update(booking, bookings -> bookings.remove(booking));
+      }
+    });
+  }
+
+
+  /**
+   * A method claims the occurrences of a saved recurrence from today up to the horizon of the
+   * index in the current transaction, leaving out the cancelled and replaced ones. The dates of
+   * the range not in the index yet are loaded together with one query. Once the transaction
+   * completes, the dates holding occurrences of the recurrence are reloaded, which drops the
+   * occurrences of its previous rule after a commit and the claims after a rollback.
+   *
+   * @param recurrence Recurrence as saved
+   * @throws BookingConflictException if an occurrence clashes with a booking of the venue.
+   */
+  void bookRecurrence(Recurrence recurrence) {
+    Long recurrenceId = recurrence.getRecurrenceId();
+    Long venueId = recurrence.getVenue().getVenueId();
+    LocalDate today = LocalDate.now();
+    LocalDate from = recurrence.getStartDate().isAfter(today) ? recurrence.getStartDate() : today;
+    LocalDate to = today.plusDays(recurrenceHorizonDays);
+    List<VenueBooking> claimed = new ArrayList<>();
+
+    try {
+      if (from.isAfter(to)) {
+        return;
+      }
+
+      Set<LocalDate> exceptions =
+          recurrenceExceptionDao.findAllBetween(List.of(recurrenceId), from, to).stream()
+              .map(RecurrenceException::getOccurrenceDate).collect(Collectors.toSet());
+      List<VenueBooking> occurrences = RecurrenceRule.expand(recurrence, from, to)
+          .filter(date -> !exceptions.contains(date))
+          .map(date -> VenueBooking.of(recurrence, venueId, date)).filter(Objects::nonNull)
+          .toList();
+      RangeRows rows = new RangeRows(venueId, from, to);
+
+      for (VenueBooking occurrence : occurrences) {
+        withBookings(new VenueDay(venueId, occurrence.getDate()), rows, bookings -> {
+          List<VenueBooking> conflicts = bookings.findConflicts(occurrence);
+
+          if (!conflicts.isEmpty()) {
+            throw conflictOf(occurrence, conflicts);
+          }
+
+          bookings.add(occurrence);
+          bookings.claims.add(occurrence);
+          claimed.add(occurrence);
+          return null;
+        });
+      }
+    } finally {
+      afterCompletion(committed -> {
+        claimed.forEach(occurrence -> update(occurrence,
+            bookings -> bookings.claims.remove(occurrence)));
+        reloadRecurrences(Set.of(recurrenceId));
+      });
+    }
+  }
+
+
+  /**
+   * A method makes the venues reload the dates holding occurrences of some recurrences after the
+   * current transaction, for recurrences deleted or changed without bookRecurrence.
+   *
+   * @param recurrenceIds Collection of recurrence Id
+   */
+  void invalidateRecurrences(Collection<Long> recurrenceIds) {
+    if (!recurrenceIds.isEmpty()) {
+      afterCompletion(committed -> reloadRecurrences(recurrenceIds));
+    }
+  }
+
+
+  /**
+   * A method makes the venues reload some dates from the database after the current transaction,
+   * for bulk writes that do not go through book and release.
+   *
+   * @param dates Collection of LocalDate
+   */
+  void invalidate(Collection<LocalDate> dates) {
+    afterCompletion(committed -> venueDays.forEach((venueDay, bookings) -> {
+      if (dates.contains(venueDay.date)) {
+        synchronized (bookings) {
+          bookings.loaded = false;
+        }
+      }
+    }));
+  }
+
+
+  /**
+   * A method finds the windows a venue is free for at least a minimum duration over a range of
+   * dates. Dates not in the index yet are loaded together with one query. Windows are aligned to
+   * five-minute slots and a slot counts as booked if any booking touches it.
+   *
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param minDuration Duration
+   * @return free windows in chronological order, joined across midnight.
+   */
+  List<FreeWindowData> findFreeWindows(Long venueId, LocalDate from, LocalDate to,
+      Duration minDuration) {
+    int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+    BitSet occupied = new BitSet(days * SLOTS_PER_DAY);
+    RangeRows rows = new RangeRows(venueId, from, to);
+
+    for (int day = 0; day < days; day++) {
+      VenueDay venueDay = new VenueDay(venueId, from.plusDays(day));
+      Bookings bookings = venueDays.computeIfAbsent(venueDay, key -> new Bookings());
+
+      synchronized (bookings) {
+        if (!bookings.loaded) {
+          load(bookings, rows.onDate(venueDay.date));
+        }
+
+        int offset = day * SLOTS_PER_DAY;
+        bookings.occupied.stream().forEach(slot -> occupied.set(offset + slot));
+      }
+    }
+
+    for (int excess = venueDays.size() - maxVenueDays; excess > 0; excess--) {
+      evictFarthestDate(null);
+    }
+
+    long minSlots = Math.max(1, (minDuration.getSeconds() + SLOT_SECONDS - 1) / SLOT_SECONDS);
+    int totalSlots = days * SLOTS_PER_DAY;
+    LocalDateTime origin = from.atStartOfDay();
+    List<FreeWindowData> windows = new ArrayList<>();
+
+    for (int free = occupied.nextClearBit(0); free < totalSlots;
+        free = occupied.nextClearBit(free)) {
+      int busy = occupied.nextSetBit(free);
+      busy = busy < 0 ? totalSlots : busy;
+
+      if (busy - free >= minSlots) {
+        windows.add(new FreeWindowData(origin.plusSeconds((long) free * SLOT_SECONDS),
+            origin.plusSeconds((long) busy * SLOT_SECONDS)));
+      }
+
+      free = busy;
+    }
+
+    return windows;
+  }
+
+
+  /**
+   * A convenient method for the message of a double booking.
+   *
+   * @param booking VenueBooking
+   * @param conflicts clashing bookings
+   * @return the message.
+   */
+  static String describeConflict(VenueBooking booking, List<VenueBooking> conflicts) {
+    List<Long> eventDetailIds = eventDetailIdsOf(conflicts);
+    List<Long> recurrenceIds = recurrenceIdsOf(conflicts);
+    List<String> holders = new ArrayList<>();
+
+    if (!eventDetailIds.isEmpty()) {
+      holders.add("event detail(s) with ID=" + eventDetailIds);
+    }
+    if (!recurrenceIds.isEmpty()) {
+      holders.add("occurrence(s) of recurrence(s) with ID=" + recurrenceIds);
+    }
+
+    return "Venue with ID=" + booking.getVenueId() + " is already booked on " + booking.getDate()
+        + " from " + booking.describe() + " by " + String.join(" and ", holders) + ".";
+  }
+
+
+  /**
+   * A convenient method for the exception of a double booking.
+   *
+   * @param booking VenueBooking
+   * @param conflicts clashing bookings
+   * @return BookingConflictException
+   */
+  private static BookingConflictException conflictOf(VenueBooking booking,
+      List<VenueBooking> conflicts) {
+    return new BookingConflictException(describeConflict(booking, conflicts),
+        eventDetailIdsOf(conflicts), recurrenceIdsOf(conflicts));
+  }
+
+
+  private static List<Long> eventDetailIdsOf(List<VenueBooking> bookings) {
+    return bookings.stream().map(VenueBooking::getEventDetailId).filter(Objects::nonNull)
+        .distinct().sorted().toList();
+  }
+
+
+  private static List<Long> recurrenceIdsOf(List<VenueBooking> bookings) {
+    return bookings.stream().map(VenueBooking::getRecurrenceId).filter(Objects::nonNull)
+        .distinct().sorted().toList();
+  }
+
+
+  /**
+   * A method reads the bookings of a venue over a range of dates: the event details and the
+   * occurrences of its recurrences that are neither cancelled nor replaced.
+   *
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @return bookings by date.
+   */
+  private Map<LocalDate, List<VenueBooking>> readBookings(Long venueId, LocalDate from,
+      LocalDate to) {
+    Map<LocalDate, List<VenueBooking>> bookingsByDate = new HashMap<>();
+    Consumer<VenueBooking> collect = booking -> {
+      if (Objects.nonNull(booking)) {
+        bookingsByDate.computeIfAbsent(booking.getDate(), date -> new ArrayList<>()).add(booking);
+      }
+    };
+
+    for (Object[] row : eventDetailDao.findBookingsByVenueId(venueId, from, to)) {
+      collect.accept(VenueBooking.of(venueId, (LocalDate) row[0], (LocalTime) row[2],
+          (LocalTime) row[3], (Long) row[1]));
+    }
+
+    List<Recurrence> recurrences = recurrenceDao.findAllByVenueIdBetween(venueId, from, to);
+
+    if (!recurrences.isEmpty()) {
+      Set<RecurrenceException.Key> exceptions = recurrenceExceptionDao.findAllBetween(
+          recurrences.stream().map(Recurrence::getRecurrenceId).toList(), from, to).stream()
+          .map(exception -> new RecurrenceException.Key(exception.getRecurrenceId(),
+              exception.getOccurrenceDate()))
+          .collect(Collectors.toSet());
+
+      for (Recurrence recurrence : recurrences) {
+        RecurrenceRule.expand(recurrence, from, to)
+            .filter(date -> !exceptions.contains(
+                new RecurrenceException.Key(recurrence.getRecurrenceId(), date)))
+            .forEach(date -> collect.accept(VenueBooking.of(recurrence, venueId, date)));
+      }
+    }
+
+    return bookingsByDate;
+  }
+
+
+  /**
+   * A method runs an action on the loaded bookings of the venue and date of a booking, while
+   * holding their lock.
+   *
+   * @param booking VenueBooking
+   * @param action Function
+   * @return the result of the action.
+   */
+  private <T> T withBookings(VenueBooking booking, Function<Bookings, T> action) {
+    VenueDay venueDay = new VenueDay(booking.getVenueId(), booking.getDate());
+
+    return withBookings(venueDay,
+        new RangeRows(venueDay.venueId, venueDay.date, venueDay.date), action);
+  }
+
+
+  /**
+   * A method runs an action on the loaded bookings of a venue and date, while holding their
+   * lock.
+   *
+   * @param venueDay VenueDay
+   * @param rows RangeRows covering the date, read if the date is not loaded
+   * @param action Function
+   * @return the result of the action.
+   */
+  private <T> T withBookings(VenueDay venueDay, RangeRows rows, Function<Bookings, T> action) {
+    while (true) {
+      Bookings bookings = venueDays.computeIfAbsent(venueDay, key -> new Bookings());
+
+      if (venueDays.size() > maxVenueDays) {
+        evictFarthestDate(venueDay);
+      }
+
+      synchronized (bookings) {
+        // Evicted between the lookup and the lock, its claims would be lost
+        if (bookings.evicted) {
+          continue;
+        }
+
+        if (!bookings.loaded) {
+          load(bookings, rows.onDate(venueDay.date));
+        }
+
+        return action.apply(bookings);
+      }
+    }
+  }
+
+
+  /**
+   * A method applies a change to the bookings of the venue and date of a booking, if they are in
+   * the index.
+   *
+   * @param booking VenueBooking
+   * @param change Consumer
+   */
+  private void update(VenueBooking booking, Consumer<Bookings> change) {
+    Bookings bookings =
+        venueDays.get(new VenueDay(booking.getVenueId(), booking.getDate()));
+
+    if (Objects.nonNull(bookings)) {
+      synchronized (bookings) {
+        change.accept(bookings);
+      }
+    }
+  }
+
+
+  /**
+   * A method makes the dates holding occurrences of some recurrences reload from the database.
+   *
+   * @param recurrenceIds Collection of recurrence Id
+   */
+  private void reloadRecurrences(Collection<Long> recurrenceIds) {
+    venueDays.values().forEach(bookings -> {
+      synchronized (bookings) {
+        if (bookings.holdsAny(recurrenceIds)) {
+          bookings.loaded = false;
+        }
+      }
+    });
+  }
+
+
+  /**
+   * A method fills the bookings of a venue and date, keeping the claims of running transactions.
+   *
+   * @param bookings Bookings
+   * @param read List of VenueBooking read from the database
+   */
+  private void load(Bookings bookings, List<VenueBooking> read) {
+    bookings.clear();
+
+    read.forEach(bookings::add);
+    bookings.claims.forEach(bookings::add);
+    bookings.loaded = true;
+  }
+
+
+  /**
+   * A method makes room by dropping the venue and date farthest from today. Bookings with claims
+   * of running transactions are kept.
+   *
+   * @param keep VenueDay being accessed, null if none
+   */
+  private void evictFarthestDate(VenueDay keep) {
+    long today = LocalDate.now().toEpochDay();
+
+    venueDays.entrySet().stream().filter(entry -> !entry.getKey().equals(keep))
+        .max(Comparator.comparingLong(
+            entry -> Math.abs(entry.getKey().date.toEpochDay() - today)))
+        .ifPresent(this::evict);
+  }
+
+
+  /**
+   * A method drops a venue and date unless a running transaction has a claim on it.
+   *
+   * @param entry Entry of VenueDay and Bookings
+   */
+  private void evict(Entry<VenueDay, Bookings> entry) {
+    Bookings bookings = entry.getValue();
+
+    synchronized (bookings) {
+      if (bookings.claims.isEmpty()) {
+        bookings.evicted = true;
+        venueDays.remove(entry.getKey(), bookings);
+      }
+    }
+  }
+
+
+  /**
+   * A method runs an action once the current transaction completes, or right away outside of
+   * one.
+   *
+   * @param action Consumer receiving true if the transaction committed
+   */
+  private static void afterCompletion(Consumer<Boolean> action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.accept(true);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        action.accept(status == STATUS_COMMITTED);
+      }
+    });
+  }
+
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static class VenueDay {
+    private final Long venueId;
+    private final LocalDate date;
+  }
+
+
+  /*
+   * The bookings of a venue over a range of dates, read together the first time a date of the
+   * range is not in the index.
+   */
+  private class RangeRows {
+    private final Long venueId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private Map<LocalDate, List<VenueBooking>> bookingsByDate;
+
+    private RangeRows(Long venueId, LocalDate from, LocalDate to) {
+      this.venueId = venueId;
+      this.from = from;
+      this.to = to;
+    }
+
+    private List<VenueBooking> onDate(LocalDate date) {
+      if (Objects.isNull(bookingsByDate)) {
+        bookingsByDate = readBookings(venueId, from, to);
+      }
+
+      return bookingsByDate.getOrDefault(date, List.of());
+    }
+  }
+
+
+  /*
+   * Guarded by its own lock.
+   */
+  private static class Bookings {
+    // Bookings by the five-minute slots of the day they touch, so the candidates of a range are
+    // read from its own slots however long other bookings are. Rows saved before the check
+    // existed may share a slot.
+    private final Map<Integer, Set<VenueBooking>> bySlot = new HashMap<>();
+
+    // One bit per five-minute slot of the day, set while some booking touches the slot
+    private final BitSet occupied = new BitSet(SLOTS_PER_DAY);
+
+    // Claims of running transactions, kept when the rows are reloaded
+    private final Set<VenueBooking> claims = new HashSet<>();
+
+    private boolean loaded;
+    private boolean evicted;
+
+
+    private void add(VenueBooking booking) {
+      for (int slot = firstSlot(booking); slot < endSlot(booking); slot++) {
+        bySlot.computeIfAbsent(slot, key -> new HashSet<>()).add(booking);
+      }
+
+      occupied.set(firstSlot(booking), endSlot(booking));
+    }
+
+
+    private void remove(VenueBooking booking) {
+      for (int slot = firstSlot(booking); slot < endSlot(booking); slot++) {
+        Set<VenueBooking> inSlot = bySlot.get(slot);
+
+        if (Objects.nonNull(inSlot) && inSlot.remove(booking) && inSlot.isEmpty()) {
+          bySlot.remove(slot);
+          occupied.clear(slot);
+        }
+      }
+    }
+
+
+    private void clear() {
+      bySlot.clear();
+      occupied.clear();
+    }
+
+
+    private List<VenueBooking> findConflicts(VenueBooking booking) {
+      return overlapping(booking.getStart(), booking.getEnd()).filter(booking::overlaps)
+          .sorted(CONFLICT_ORDER).toList();
+    }
+
+
+    private boolean holdsAny(Collection<Long> recurrenceIds) {
+      return bySlot.values().stream().flatMap(Set::stream)
+          .anyMatch(booking -> Objects.nonNull(booking.getRecurrenceId())
+              && recurrenceIds.contains(booking.getRecurrenceId()));
+    }
+
+
+    private Stream<VenueBooking> overlapping(int start, int end) {
+      int endSlot = (end + SLOT_SECONDS - 1) / SLOT_SECONDS;
+
+      // Only the occupied slots of the range are visited
+      return IntStream
+          .iterate(occupied.nextSetBit(start / SLOT_SECONDS), slot -> slot >= 0 && slot < endSlot,
+              slot -> occupied.nextSetBit(slot + 1))
+          .boxed().flatMap(slot -> bySlot.get(slot).stream()).distinct()
+          .filter(booking -> booking.getStart() < end && booking.getEnd() > start);
+    }
+
+
+    private static int firstSlot(VenueBooking booking) {
+      return booking.getStart() / SLOT_SECONDS;
+    }
+
+
+    private static int endSlot(VenueBooking booking) {
+      return (booking.getEnd() + SLOT_SECONDS - 1) / SLOT_SECONDS;
+    }
+  }
+}
@@ -1,17 +1,28 @@
 package event.management.service;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import event.management.controller.model.BulkDeleteResult;
+import event.management.controller.model.FreeWindowData;
+import event.management.controller.model.ListingVersion;
 import event.management.controller.model.VenueData;
+import event.management.controller.model.VenueSummaryData;
 import event.management.dao.EventDetailDao;
+import event.management.dao.RecurrenceDao;
 import event.management.dao.VenueDao;
-import event.management.entity.EventDetail;
 import event.management.entity.Venue;
 
 @Service
@@ -23,6 +34,21 @@ public class VenueService {
   @Autowired
   private EventDetailDao eventDetailDao;
 
+  @Autowired
+  private RecurrenceDao recurrenceDao;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Autowired
+  private VenueBookingIndex venueBookingIndex;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Value("${event-management.booking-index.max-search-days}")
+  private int maxSearchDays;
+
 
   /**
    * A service layer method that save or update a venue.
@@ -34,6 +60,16 @@ public class VenueService {
   public VenueData saveOrUpdateVenue(VenueData venueData) {
     Venue venue = findOrCreateVenue(venueData.getVenueId());
 
+    // The venue name is part of every schedule row at the venue
+    if (Objects.nonNull(venue.getVenueId())
+        && !Objects.equals(venue.getVenueName(), venueData.getVenueName())) {
+      eventPublisher.publishEvent(
+          ScheduleChangedEvent.forDates(eventDetailDao.findDatesByVenueId(venue.getVenueId())));
+      // Archived event details are listed under the current name as well
+      eventPublisher.publishEvent(ScheduleChangedEvent
+          .forDates(archive.findDates(EventDetailArchive.Filter.byVenueId(venue.getVenueId()))));
+    }
+
     copyVenueFields(venue, venueData);
 
     return new VenueData(venueDao.save(venue));
@@ -90,22 +126,30 @@ public class VenueService {
 
 
   /**
-   * A service layer method that retrieves all venues.
+   * A service layer method that retrieves the validator of the venue listing.
    * 
-   * @return List of EventData
-   * @throws NoSuchElementException if no venues are found.
+   * @param withDetailCount boolean whether the listing counts the event details of each venue
+   * @return ListingVersion
    */
   @Transactional(readOnly = true)
-  public List<VenueData> retrieveAllVenue() {
-    List<Venue> venues = venueDao.findAll();
-    List<VenueData> allVenue = new ArrayList<>();
+  public ListingVersion retrieveVenueListingVersion(boolean withDetailCount) {
+    ListingVersion listingVersion = venueDao.findListingVersion();
 
-    for (Venue venue : venues) {
-      VenueData venueData = new VenueData(venue);
-      venueData.getEventDetails().clear();
-      allVenue.add(venueData);
+    return withDetailCount ? listingVersion.and(eventDetailDao.findListingVersion())
+        : listingVersion;
+  }
 
-    }
+
+  /**
+   * A service layer method that retrieves a summary of all venues without event details.
+   * 
+   * @param withDetailCount boolean whether to count the event details of each venue
+   * @return List of VenueSummaryData
+   * @throws NoSuchElementException if no venues are found.
+   */
+  @Transactional(readOnly = true)
+  public List<VenueSummaryData> retrieveAllVenue(boolean withDetailCount) {
+    List<VenueSummaryData> allVenue = venueDao.findAllSummaries(withDetailCount);
 
     if (allVenue.isEmpty()) {
       throw new NoSuchElementException("No Venues");
@@ -127,22 +171,57 @@ public class VenueService {
   }
 
 
+  /**
+   * A service layer method that finds the windows a venue is free for at least a minimum duration
+   * between two dates, from the bookings kept in memory.
+   * 
+   * @param venueId Long
+   * @param from LocalDate first date, inclusive
+   * @param to LocalDate last date, inclusive
+   * @param minDuration Duration, null for any free time
+   * @return List of FreeWindowData in chronological order, empty if the venue is fully booked.
+   * @throws NoSuchElementException if venue Id is not found.
+   * @throws IllegalStateException if the range or the duration is invalid.
+   */
+  @Transactional(readOnly = true)
+  public List<FreeWindowData> retrieveFreeWindows(Long venueId, LocalDate from, LocalDate to,
+      Duration minDuration) {
+    findVenueById(venueId);
+
+    if (from.isAfter(to)) {
+      throw new IllegalStateException("Date 'from' can not be after date 'to'.");
+    }
+
+    if (ChronoUnit.DAYS.between(from, to) >= maxSearchDays) {
+      throw new IllegalStateException(
+          "Free windows can be searched for at most " + maxSearchDays + " days at a time.");
+    }
+
+    if (Objects.nonNull(minDuration) && minDuration.isNegative()) {
+      throw new IllegalStateException("Minimum duration can not be negative.");
+    }
+
+    return venueBookingIndex.findFreeWindows(venueId, from, to,
+        Objects.isNull(minDuration) ? Duration.ZERO : minDuration);
+  }
+
+
   /**
    * A method deletes a venue by a given venue Id if the venue is not associated with any event
-   * details.
+   * details or recurrences.
    * 
    * @param venueId Long
    * @return deletion message.
-   * @throws UnsupportedOperationException if the venue is associated with any event detail.
+   * @throws UnsupportedOperationException if the venue is associated with any event detail or
+   *         recurrence.
    */
   @Transactional(readOnly = false)
   public Map<String, String> deleteVenueById(Long venueId) {
 
-    List<EventDetail> associatedEventDetails = eventDetailDao.findAllByVenueVenueId(venueId);
-
     // Checking venue Id is associated to an event details. If it is, throw exception. we can not
     // perform the deletion.
-    if (associatedEventDetails.size() > 0) {
+    if (eventDetailDao.existsByVenueVenueId(venueId)
+        || recurrenceDao.existsByVenueVenueId(venueId)) {
       throw new UnsupportedOperationException(
           "Can not be deleted!!! Venue with ID=" + venueId + " is already associated with event");
     }
@@ -150,8 +229,55 @@ public class VenueService {
     // Otherwise perform deletion.
     Venue venue = findVenueById(venueId);
     venueDao.delete(venue);
+    // Archived event details of the venue are no longer listed
+    eventPublisher.publishEvent(ScheduleChangedEvent
+        .forDates(archive.findDates(EventDetailArchive.Filter.byVenueId(venueId))));
 
     return Map.of("massage", "Deletion of venue with ID=" + venueId + " was successful.");
   }
 
+
+  /**
+   * A method deletes many venues with set-based statements. Venues that are associated with event
+   * details or recurrences are kept.
+   * 
+   * @param venueIds List of venue Id, repeated Ids are deleted and reported once
+   * @return one result per distinct venue Id, in the submitted order.
+   * @throws UnsupportedOperationException if the list of venue Ids is empty.
+   */
+  @Transactional(readOnly = false)
+  public List<BulkDeleteResult> deleteVenues(List<Long> venueIds) {
+    if (Objects.isNull(venueIds) || venueIds.isEmpty()) {
+      throw new UnsupportedOperationException(
+          "Venue Ids can not be empty. It should be a number list.");
+    }
+
+    Set<Long> existingVenueIds = new HashSet<>(venueDao.findVenueIdsByVenueIdIn(venueIds));
+    Set<Long> remainingVenueIds = new HashSet<>();
+
+    if (!existingVenueIds.isEmpty()) {
+      venueDao.deleteUnusedByVenueIdIn(existingVenueIds);
+      // Whatever still exists was kept by the delete because it has event details
+      remainingVenueIds.addAll(venueDao.findVenueIdsByVenueIdIn(existingVenueIds));
+      // Archived event details of the deleted venues are no longer listed
+      eventPublisher.publishEvent(ScheduleChangedEvent.forDates(existingVenueIds.stream()
+          .filter(venueId -> !remainingVenueIds.contains(venueId))
+          .flatMap(venueId -> archive.findDates(EventDetailArchive.Filter.byVenueId(venueId))
+              .stream())
+          .toList()));
+    }
+
+    return new LinkedHashSet<>(venueIds).stream().map(venueId -> {
+      if (!existingVenueIds.contains(venueId)) {
+        return new BulkDeleteResult(venueId, BulkDeleteResult.Status.NOT_FOUND,
+            "Venue with ID=" + venueId + " was not found.");
+      } else if (remainingVenueIds.contains(venueId)) {
+        return new BulkDeleteResult(venueId, BulkDeleteResult.Status.IN_USE,
+            "Venue with ID=" + venueId + " is already associated with event");
+      } else {
+        return new BulkDeleteResult(venueId, BulkDeleteResult.Status.DELETED, null);
+      }
+    }).toList();
+  }
+
 }
@@ -0,0 +1,19 @@
+package event.management.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when an update was based on an outdated version of a row. It carries the current state,
+ * so the client can merge its change and retry without another read.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  private final transient Object currentState;
+
+  public VersionConflictException(String message, Object currentState) {
+    super(message);
+    this.currentState = currentState;
+  }
+}
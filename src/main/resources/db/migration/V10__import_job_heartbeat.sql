@@ -0,0 +1,8 @@
+-- The process running an import job and when it last reported in. A running job whose heartbeat
+-- is older than event-management.jobs.stale-after lost its process and is failed, so it can be
+-- resumed. Jobs of earlier versions never report in and count from when they started.
+ALTER TABLE import_job
+  ADD COLUMN owner VARCHAR(64),
+  ADD COLUMN heartbeat_at DATETIME(6);
+
+UPDATE import_job SET heartbeat_at = started_at;
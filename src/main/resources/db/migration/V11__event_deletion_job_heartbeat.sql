@@ -0,0 +1,8 @@
+-- The process running a deletion job and when it last reported in. Only a running job whose
+-- heartbeat is older than event-management.jobs.stale-after is failed, which frees its event for
+-- a new job. Jobs of earlier versions never report in and count from when they started.
+ALTER TABLE event_deletion_job
+  ADD COLUMN owner VARCHAR(64),
+  ADD COLUMN heartbeat_at DATETIME(6);
+
+UPDATE event_deletion_job SET heartbeat_at = started_at;
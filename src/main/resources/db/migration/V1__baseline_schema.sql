@@ -0,0 +1,79 @@
+-- Baseline of the schema previously generated by Hibernate (ddl-auto: create).
+
+CREATE TABLE id_generator (
+  id_name VARCHAR(255) NOT NULL,
+  next_id BIGINT,
+  PRIMARY KEY (id_name)
+) ENGINE = InnoDB;
+
+-- The row Hibernate would create on first use, the last used value before the first Id, created
+-- here so native statements that reserve Ids always find their row
+INSERT INTO id_generator (id_name, next_id) VALUES ('category', 0), ('event', 0), ('venue', 0),
+  ('event_detail', 0), ('import_job', 0);
+
+CREATE TABLE category (
+  category_id BIGINT NOT NULL,
+  category_name VARCHAR(255),
+  category_note VARCHAR(255),
+  PRIMARY KEY (category_id),
+  INDEX idx_category_name (category_name)
+) ENGINE = InnoDB;
+
+CREATE TABLE event (
+  event_id BIGINT NOT NULL,
+  event_name VARCHAR(255),
+  frequency VARCHAR(255),
+  duration VARCHAR(255),
+  event_note VARCHAR(255),
+  PRIMARY KEY (event_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE venue (
+  venue_id BIGINT NOT NULL,
+  venue_name VARCHAR(255),
+  venue_address VARCHAR(255),
+  venue_city VARCHAR(255),
+  venue_zip VARCHAR(255),
+  capacity INT,
+  venue_note VARCHAR(255),
+  PRIMARY KEY (venue_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE event_category (
+  event_id BIGINT NOT NULL,
+  category_id BIGINT NOT NULL,
+  PRIMARY KEY (category_id, event_id),
+  CONSTRAINT fk_event_category_event FOREIGN KEY (event_id) REFERENCES event (event_id),
+  CONSTRAINT fk_event_category_category FOREIGN KEY (category_id)
+      REFERENCES category (category_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE event_detail (
+  event_detail_id BIGINT NOT NULL,
+  event_id BIGINT,
+  venue_id BIGINT,
+  description VARCHAR(255),
+  date DATE,
+  start_time TIME(6),
+  end_time TIME(6),
+  is_free BIT(1),
+  availability BIT(1),
+  PRIMARY KEY (event_detail_id),
+  CONSTRAINT fk_event_detail_event FOREIGN KEY (event_id) REFERENCES event (event_id),
+  CONSTRAINT fk_event_detail_venue FOREIGN KEY (venue_id) REFERENCES venue (venue_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE import_job (
+  import_job_id BIGINT NOT NULL,
+  format VARCHAR(16),
+  status VARCHAR(16),
+  file_path VARCHAR(255),
+  lines_committed BIGINT,
+  records_created BIGINT,
+  records_skipped BIGINT,
+  records_failed BIGINT,
+  last_error VARCHAR(1000),
+  started_at DATETIME(6),
+  finished_at DATETIME(6),
+  PRIMARY KEY (import_job_id)
+) ENGINE = InnoDB;
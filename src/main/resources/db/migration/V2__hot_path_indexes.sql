@@ -0,0 +1,16 @@
+-- Indexes for the event detail finders. InnoDB appends the primary key to every
+-- secondary index, so (date) and (event_id, date) also serve the
+-- (date, event_detail_id) keyset order without a filesort.
+
+-- GET /event-details, ?date= and the availability-by-date update
+CREATE INDEX idx_event_detail_date ON event_detail (date);
+
+-- /venues/{id}/event-details in keyset order, and the bookings of a venue on a date
+CREATE INDEX idx_event_detail_venue_date ON event_detail (venue_id, date, event_detail_id);
+
+-- /events/{id}/event-details
+CREATE INDEX idx_event_detail_event_date ON event_detail (event_id, date);
+
+-- ?event_name= and ?venue_name= resolve through these before joining event_detail
+CREATE INDEX idx_event_name ON event (event_name);
+CREATE INDEX idx_venue_name ON venue (venue_name);
@@ -0,0 +1,11 @@
+CREATE TABLE event_deletion_job (
+  event_deletion_job_id BIGINT NOT NULL,
+  event_id BIGINT,
+  status VARCHAR(16),
+  event_details_deleted BIGINT,
+  last_error VARCHAR(1000),
+  started_at DATETIME(6),
+  finished_at DATETIME(6),
+  PRIMARY KEY (event_deletion_job_id),
+  INDEX idx_event_deletion_job_event (event_id, status)
+) ENGINE = InnoDB;
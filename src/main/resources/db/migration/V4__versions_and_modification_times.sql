@@ -0,0 +1,26 @@
+-- Optimistic lock versions and modification times. MySQL maintains last_modified
+-- on every insert and update, native bulk statements included, and the listings
+-- derive their ETag and Last-Modified validators from it.
+
+ALTER TABLE category
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN last_modified DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+ALTER TABLE event
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN last_modified DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+ALTER TABLE venue
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN last_modified DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+ALTER TABLE event_detail
+  ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+  ADD COLUMN last_modified DATETIME(6) NOT NULL
+    DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+-- Lets MAX(last_modified) of the unfiltered event detail listing read one index entry
+CREATE INDEX idx_event_detail_last_modified ON event_detail (last_modified);
@@ -0,0 +1,26 @@
+-- Seat inventory of an event detail, split over several rows (stripes) so that
+-- concurrent reservations decrement different rows instead of queueing on one
+-- row lock. The rows are created from the venue capacity on first reservation.
+CREATE TABLE seat_stripe (
+  event_detail_id BIGINT NOT NULL,
+  stripe INT NOT NULL,
+  remaining INT,
+  PRIMARY KEY (event_detail_id, stripe),
+  CONSTRAINT fk_seat_stripe_event_detail FOREIGN KEY (event_detail_id)
+    REFERENCES event_detail (event_detail_id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE seat_reservation (
+  reservation_id BIGINT NOT NULL AUTO_INCREMENT,
+  event_detail_id BIGINT,
+  stripe INT,
+  quantity INT,
+  status VARCHAR(16),
+  created_at DATETIME(6),
+  expires_at DATETIME(6),
+  PRIMARY KEY (reservation_id),
+  -- Expiry job: holds past their end
+  INDEX idx_seat_reservation_status_expires (status, expires_at),
+  CONSTRAINT fk_seat_reservation_event_detail FOREIGN KEY (event_detail_id)
+    REFERENCES event_detail (event_detail_id) ON DELETE CASCADE
+) ENGINE = InnoDB;
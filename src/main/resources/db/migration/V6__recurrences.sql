@@ -0,0 +1,34 @@
+-- Recurring schedules. A rule stands for all of its occurrences, which are
+-- expanded when queried. Only the occurrences that differ from the rule are
+-- stored, as exceptions.
+CREATE TABLE recurrence (
+  recurrence_id BIGINT NOT NULL,
+  event_id BIGINT,
+  venue_id BIGINT,
+  rule VARCHAR(255),
+  start_date DATE,
+  -- Last date an occurrence can fall on, from UNTIL or COUNT, NULL if open ended
+  until_date DATE,
+  description VARCHAR(255),
+  start_time TIME(6),
+  end_time TIME(6),
+  is_free BIT(1),
+  availability BIT(1),
+  PRIMARY KEY (recurrence_id),
+  INDEX idx_recurrence_event (event_id, start_date),
+  CONSTRAINT fk_recurrence_event FOREIGN KEY (event_id) REFERENCES event (event_id),
+  CONSTRAINT fk_recurrence_venue FOREIGN KEY (venue_id) REFERENCES venue (venue_id)
+) ENGINE = InnoDB;
+
+-- An occurrence replaced by an event detail, or cancelled when there is none.
+-- Deleting the replacing event detail leaves the occurrence cancelled.
+CREATE TABLE recurrence_exception (
+  recurrence_id BIGINT NOT NULL,
+  occurrence_date DATE NOT NULL,
+  event_detail_id BIGINT,
+  PRIMARY KEY (recurrence_id, occurrence_date),
+  CONSTRAINT fk_recurrence_exception_recurrence FOREIGN KEY (recurrence_id)
+    REFERENCES recurrence (recurrence_id) ON DELETE CASCADE,
+  CONSTRAINT fk_recurrence_exception_event_detail FOREIGN KEY (event_detail_id)
+    REFERENCES event_detail (event_detail_id) ON DELETE SET NULL
+) ENGINE = InnoDB;
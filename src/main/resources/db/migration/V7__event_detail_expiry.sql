@@ -0,0 +1,3 @@
+-- The expiry job walks the available event details in (date, event_detail_id) order. Past event
+-- details are unavailable once it ran, so this keeps it from reading the whole history each run.
+CREATE INDEX idx_event_detail_availability_date ON event_detail (availability, date);
@@ -0,0 +1,6 @@
+-- At most one running deletion job per event. active is TRUE while a job runs and NULL once it
+-- completed or failed, and a unique index lets any number of NULLs through.
+ALTER TABLE event_deletion_job
+  ADD COLUMN active BOOLEAN,
+  DROP INDEX idx_event_deletion_job_event,
+  ADD UNIQUE INDEX uk_event_deletion_job_active (event_id, active);
@@ -0,0 +1,13 @@
+-- Venue capacity the seats of the stripes were counted from. When the venue of an event detail
+-- changes its capacity, or the event detail moves to another venue, the next reservation
+-- recounts the stripes from the new capacity. Existing stripes were counted from the seats
+-- left plus the seats held or sold.
+ALTER TABLE seat_stripe ADD COLUMN capacity INT;
+
+UPDATE seat_stripe ss
+  JOIN (SELECT event_detail_id, SUM(remaining) AS remaining FROM seat_stripe
+    GROUP BY event_detail_id) stripes ON stripes.event_detail_id = ss.event_detail_id
+  LEFT JOIN (SELECT event_detail_id, SUM(quantity) AS taken FROM seat_reservation
+    WHERE status IN ('HELD', 'CONFIRMED') GROUP BY event_detail_id) reservations
+    ON reservations.event_detail_id = ss.event_detail_id
+  SET ss.capacity = stripes.remaining + COALESCE(reservations.taken, 0);
@@ -0,0 +1,178 @@
+package event.management.dao;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import event.management.controller.model.EventDetailSearchCriteria;
+
+/**
+ * Runs EXPLAIN on the statements the hot event detail finders send and fails when MySQL would
+ * scan a whole table or sort the rows instead of reading them in index order. The tables are
+ * filled first, so the optimizer sees a realistic amount of rows.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventDetailQueryPlanTest {
+  private static final long FIRST_ID = 900_001;
+  private static final int VENUES = 50;
+  private static final int EVENTS = 200;
+  private static final int EVENT_DETAILS = 24_000;
+  private static final int DAYS = 600;
+  private static final PageRequest PAGE = PageRequest.of(0, 101);
+
+  @Autowired
+  private EventDetailDao eventDetailDao;
+
+  @Autowired
+  private EventDao eventDao;
+
+  @Autowired
+  private VenueDao venueDao;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final LocalDate firstDate = LocalDate.now().minusDays(30);
+  private final long venueId = FIRST_ID + 7;
+  private final long eventId = FIRST_ID + 11;
+
+
+  @BeforeAll
+  void fillTables() {
+    List<Object[]> venues = new ArrayList<>();
+    for (int i = 0; i < VENUES; i++) {
+      venues.add(new Object[] {FIRST_ID + i, "Plan venue " + i, 100});
+    }
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO venue (venue_id, venue_name, capacity) VALUES (?, ?, ?)", venues);
+
+    List<Object[]> events = new ArrayList<>();
+    for (int i = 0; i < EVENTS; i++) {
+      events.add(new Object[] {FIRST_ID + i, "Plan event " + i});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO event (event_id, event_name) VALUES (?, ?)", events);
+
+    List<Object[]> eventDetails = new ArrayList<>();
+    for (int i = 0; i < EVENT_DETAILS; i++) {
+      eventDetails.add(new Object[] {FIRST_ID + i, FIRST_ID + i % EVENTS, FIRST_ID + i % VENUES,
+          firstDate.plusDays(i % DAYS), LocalTime.of(8 + i % 12, 0), LocalTime.of(9 + i % 12, 0),
+          i % 3 == 0});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO event_detail (event_detail_id, event_id, venue_id, date,"
+        + " start_time, end_time, availability) VALUES (?, ?, ?, ?, ?, ?, ?)", eventDetails);
+
+    jdbcTemplate.execute("ANALYZE TABLE event_detail, event, venue");
+  }
+
+
+  @Test
+  void listingPagesReadInIndexOrder() {
+    LocalDate afterDate = firstDate.plusDays(200);
+    long afterId = FIRST_ID + 5_000;
+
+    assertIndexed("findPage", () -> eventDetailDao.findPage(null, null, PAGE));
+    assertIndexed("findPage after", () -> eventDetailDao.findPage(afterDate, afterId, PAGE));
+    assertIndexed("findAllResponsesByDate",
+        () -> eventDetailDao.findAllResponsesByDate(afterDate));
+    assertIndexed("findPageByEventId",
+        () -> eventDetailDao.findPageByEventId(eventId, null, null, PAGE));
+    assertIndexed("findPageByEventId after",
+        () -> eventDetailDao.findPageByEventId(eventId, afterDate, afterId, PAGE));
+    assertIndexed("findEventIdsByEventName",
+        () -> eventDao.findEventIdsByEventName("Plan event 11"));
+    assertIndexed("findPageByVenueId",
+        () -> eventDetailDao.findPageByVenueId(venueId, null, null, PAGE));
+    assertIndexed("findPageByVenueId after",
+        () -> eventDetailDao.findPageByVenueId(venueId, afterDate, afterId, PAGE));
+    assertIndexed("findVenueIdsByVenueName",
+        () -> venueDao.findVenueIdsByVenueName("Plan venue 7"));
+  }
+
+
+  @Test
+  void listingVersionsReadIndexes() {
+    LocalDate date = firstDate.plusDays(200);
+
+    assertIndexed("findListingVersion", () -> eventDetailDao.findListingVersion());
+    assertIndexed("findListingVersionByDate",
+        () -> eventDetailDao.findListingVersionByDate(date));
+    assertIndexed("findListingVersionByEventId",
+        () -> eventDetailDao.findListingVersionByEventId(eventId));
+    assertIndexed("findListingVersionByEventName",
+        () -> eventDetailDao.findListingVersionByEventName("Plan event 11"));
+    assertIndexed("findListingVersionByVenueId",
+        () -> eventDetailDao.findListingVersionByVenueId(venueId));
+    assertIndexed("findListingVersionByVenueName",
+        () -> eventDetailDao.findListingVersionByVenueName("Plan venue 7"));
+  }
+
+
+  @Test
+  void bookingAndBackgroundFindersReadIndexes() {
+    LocalDate today = LocalDate.now();
+
+    assertIndexed("findBookingsByVenueId",
+        () -> eventDetailDao.findBookingsByVenueId(venueId, today, today.plusDays(30)));
+    assertIndexed("findExpiredPage",
+        () -> eventDetailDao.findExpiredPage(today, LocalTime.NOON, null, null, PAGE));
+    assertIndexed("findDatesPageBy venue", () -> eventDetailDao.findDatesPageBy(null, venueId,
+        today, today.plusDays(30), today.plusDays(3), FIRST_ID + 5_000, PAGE));
+  }
+
+
+  @Test
+  void searchReadsTheIndexOfItsFilter() {
+    EventDetailSearchCriteria byVenue = new EventDetailSearchCriteria();
+    byVenue.setVenueId(venueId);
+    assertIndexed("search by venue", () -> eventDetailDao.search(byVenue, null, null, 101));
+
+    EventDetailSearchCriteria byEvent = new EventDetailSearchCriteria();
+    byEvent.setEventId(eventId);
+    byEvent.setFrom(firstDate.plusDays(100));
+    assertIndexed("search by event", () -> eventDetailDao.search(byEvent, null, null, 101));
+  }
+
+
+  /**
+   * A method runs a finder while recording its statements, then checks the plan of each one.
+   *
+   * @param finder String name for the failure message
+   * @param call Runnable calling the finder
+   */
+  private void assertIndexed(String finder, Runnable call) {
+    List<String> statements;
+    QueryPlanRecorder.start();
+
+    try {
+      call.run();
+    } finally {
+      statements = QueryPlanRecorder.stop();
+    }
+
+    List<String> selects = statements.stream()
+        .filter(sql -> sql.stripLeading().regionMatches(true, 0, "select", 0, 6)).toList();
+    assertFalse(selects.isEmpty(), finder + " sent no SELECT");
+
+    for (String sql : selects) {
+      for (Map<String, Object> step : jdbcTemplate.queryForList("EXPLAIN " + sql)) {
+        String description = finder + " " + step + "\n" + sql;
+        assertNotEquals("ALL", step.get("type"), "Full table scan in " + description);
+        assertFalse(String.valueOf(step.get("Extra")).contains("filesort"),
+            "Filesort in " + description);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package event.management.dao;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+/**
+ * Connector/J interceptor recording the statements sent while recording is on, with their
+ * parameters already bound, so a test can run EXPLAIN on exactly what a finder executed.
+ */
+public class QueryPlanRecorder implements QueryInterceptor {
+  private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+  private static volatile boolean recording;
+
+
+  /**
+   * A method starts recording, forgetting the statements recorded before.
+   */
+  static void start() {
+    STATEMENTS.clear();
+    recording = true;
+  }
+
+
+  /**
+   * A method stops recording.
+   *
+   * @return the statements sent since start, in order.
+   */
+  static List<String> stop() {
+    recording = false;
+    return List.copyOf(STATEMENTS);
+  }
+
+
+  @Override
+  public QueryInterceptor init(MysqlConnection conn, Properties props, Log log) {
+    return this;
+  }
+
+  @Override
+  public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+    if (recording) {
+      STATEMENTS.add(sql.get());
+    }
+
+    return null;
+  }
+
+  @Override
+  public boolean executeTopLevelOnly() {
+    return true;
+  }
+
+  @Override
+  public void destroy() {
+  }
+
+  @Override
+  public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery,
+      T originalResultSet, ServerSession serverSession) {
+    return null;
+  }
+}
@@ -0,0 +1,71 @@
+package event.management.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Links and unlinks a category of events whose categories are in the second-level cache and
+ * checks that the next read sees the change. The cached Event.categories entries are only
+ * dropped through the query space of the element entity, category, not through the join table.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryLinkCacheTest {
+  private static final long EVENT_ID = 500_001;
+  private static final long FIRST_CATEGORY_ID = 500_001;
+  private static final long LINKED_CATEGORY_ID = 500_002;
+
+  @Autowired
+  private CategoryService categoryService;
+
+  @Autowired
+  private EventService eventService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+
+  @Test
+  void bulkLinkChangesAreSeenThroughTheCache() {
+    jdbcTemplate.update("INSERT INTO event (event_id, event_name) VALUES (?, ?)", EVENT_ID,
+        "Cached event");
+    createCategory(FIRST_CATEGORY_ID, "Cached first");
+    createCategory(LINKED_CATEGORY_ID, "Cached linked");
+    jdbcTemplate.update("INSERT INTO event_category (event_id, category_id) VALUES (?, ?)",
+        EVENT_ID, FIRST_CATEGORY_ID);
+
+    // Twice, so the second read is served from the cache
+    categoryNames();
+    assertEquals(Set.of("Cached first"), categoryNames());
+
+    categoryService.addCategoryToEvents(LINKED_CATEGORY_ID, Set.of(EVENT_ID));
+    assertEquals(Set.of("Cached first", "Cached linked"), categoryNames());
+
+    categoryService.removeCategoryFromEvents(FIRST_CATEGORY_ID, Set.of(EVENT_ID));
+    assertEquals(Set.of("Cached linked"), categoryNames());
+  }
+
+
+  /**
+   * A method reads the category names of the event the way a request does, in one session.
+   */
+  private Set<String> categoryNames() {
+    return transactionTemplate
+        .execute(status -> eventService.retrieveEventById(EVENT_ID).getCategories());
+  }
+
+
+  private void createCategory(long categoryId, String categoryName) {
+    jdbcTemplate.update("INSERT INTO category (category_id, category_name) VALUES (?, ?)",
+        categoryId, categoryName);
+  }
+}
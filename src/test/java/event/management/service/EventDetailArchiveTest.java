@@ -0,0 +1,128 @@
+package event.management.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import event.management.controller.model.EventDetailResponse;
+
+/**
+ * Archives event details of an old month in two runs and checks that the month ends up in one
+ * segment, that the key filters of the segments skip listings they can not match, that rows of
+ * a venue deleted after archiving are no longer listed, and that the rows are found and shown
+ * under the new name of a renamed event.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EventDetailArchiveTest {
+  private static final long FIRST_ID = 600_001;
+  private static final long EVENT_ID = FIRST_ID;
+  private static final long KEPT_VENUE_ID = FIRST_ID;
+  private static final long DELETED_VENUE_ID = FIRST_ID + 1;
+
+  @Autowired
+  private EventDetailArchiveService archiveService;
+
+  @Autowired
+  private EventDetailArchive archive;
+
+  @Autowired
+  private EventDetailService eventDetailService;
+
+  @Autowired
+  private VenueService venueService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final YearMonth month = YearMonth.now().minusYears(3);
+
+
+  @Test
+  void archivedMonthIsMergedFilteredAndLosesDeletedVenues() throws IOException {
+    jdbcTemplate.update("INSERT INTO event (event_id, event_name) VALUES (?, ?)", EVENT_ID,
+        "Archive event");
+    createVenue(KEPT_VENUE_ID);
+    createVenue(DELETED_VENUE_ID);
+
+    List<Long> kept = new ArrayList<>();
+    kept.add(createEventDetail(FIRST_ID, KEPT_VENUE_ID, 1));
+    createEventDetail(FIRST_ID + 1, DELETED_VENUE_ID, 2);
+    archiveService.archiveEventDetails();
+
+    kept.add(createEventDetail(FIRST_ID + 2, KEPT_VENUE_ID, 3));
+    createEventDetail(FIRST_ID + 3, DELETED_VENUE_ID, 4);
+    archiveService.archiveEventDetails();
+
+    assertEquals(1, countSegments(), "segments of " + month);
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM event_detail WHERE event_id = ?", Integer.class, EVENT_ID));
+
+    // Ids below the lowest archived one can not match, the archived event can
+    assertFalse(archive.covers(EventDetailArchive.Filter.byEventId(EVENT_ID - 1),
+        EventDetailCursor.FIRST_PAGE));
+    assertFalse(archive.covers(EventDetailArchive.Filter.byVenueId(KEPT_VENUE_ID - 1),
+        EventDetailCursor.FIRST_PAGE));
+    assertTrue(archive.covers(EventDetailArchive.Filter.byEventId(EVENT_ID),
+        EventDetailCursor.FIRST_PAGE));
+    assertEquals(4, listedIds().size());
+
+    venueService.deleteVenueById(DELETED_VENUE_ID);
+    assertEquals(kept, listedIds());
+
+    jdbcTemplate.update("UPDATE event SET event_name = ? WHERE event_id = ?",
+        "Renamed archive event", EVENT_ID);
+    List<EventDetailResponse> renamed = eventDetailService
+        .retrieveAllEventDetailByEventName("Renamed archive event", 100, null).getEventDetails();
+    assertEquals(kept, renamed.stream().map(EventDetailResponse::getEventDetailId).toList());
+    assertTrue(renamed.stream()
+        .allMatch(row -> "Renamed archive event".equals(row.getEventName())));
+  }
+
+
+  private List<Long> listedIds() {
+    return eventDetailService.retrieveAllEventDetailByEventId(EVENT_ID, 100, null)
+        .getEventDetails().stream().map(EventDetailResponse::getEventDetailId).toList();
+  }
+
+
+  private long countSegments() throws IOException {
+    Path directory = (Path) ReflectionTestUtils.getField(archive, "directory");
+
+    try (Stream<Path> files =
+        Files.list(directory.resolve(month.format(DateTimeFormatter.ofPattern("yyyy-MM"))))) {
+      return files.filter(file -> file.toString().endsWith(".seg")).count();
+    }
+  }
+
+
+  private void createVenue(long venueId) {
+    jdbcTemplate.update("INSERT INTO venue (venue_id, venue_name, capacity) VALUES (?, ?, ?)",
+        venueId, "Archive venue " + venueId, 100);
+  }
+
+
+  private long createEventDetail(long eventDetailId, long venueId, int day) {
+    jdbcTemplate.update("INSERT INTO event_detail (event_detail_id, event_id, venue_id, date,"
+        + " start_time, end_time, availability) VALUES (?, ?, ?, ?, ?, ?, false)",
+        eventDetailId, EVENT_ID, venueId, month.atDay(day), LocalTime.of(10, 0),
+        LocalTime.of(12, 0));
+    return eventDetailId;
+  }
+}
@@ -0,0 +1,199 @@
+package event.management.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import event.management.controller.model.EventDetailData;
+import event.management.controller.model.FreeWindowData;
+import event.management.controller.model.RecurrenceData;
+
+/**
+ * Checks that the occurrences of recurrences hold their venue in the booking index: a rule and an
+ * event detail can not double-book it in either order, and free windows leave the occurrences
+ * out until they are cancelled or the recurrence is deleted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RecurrenceBookingTest {
+  private static final long EVENT_ID = 700_001;
+  private static final LocalTime NINE = LocalTime.of(9, 0);
+  private static final LocalTime ELEVEN = LocalTime.of(11, 0);
+
+  @Autowired
+  private RecurrenceService recurrenceService;
+
+  @Autowired
+  private EventDetailService eventDetailService;
+
+  @Autowired
+  private VenueService venueService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final AtomicLong nextVenueId = new AtomicLong(700_001);
+
+  private final LocalDate firstDate = LocalDate.now().plusDays(7);
+
+
+  @BeforeAll
+  void createEvent() {
+    jdbcTemplate.update("INSERT INTO event (event_id, event_name) VALUES (?, ?)", EVENT_ID,
+        "Recurrence booking event");
+  }
+
+
+  @Test
+  void recurrenceClashingWithAnEventDetailIsRejected() {
+    long venueId = createVenue();
+    Long eventDetailId =
+        eventDetailService.saveEventDetail(EVENT_ID, venueId, eventDetail(firstDate.plusDays(2),
+            LocalTime.of(10, 0), LocalTime.of(12, 0))).getEventDetailId();
+
+    BookingConflictException e = assertThrows(BookingConflictException.class,
+        () -> recurrenceService.saveRecurrence(EVENT_ID, venueId, recurrence("FREQ=DAILY")));
+
+    assertEquals(List.of(eventDetailId), e.getConflictingEventDetailIds());
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM recurrence WHERE venue_id = ?", Integer.class, venueId));
+
+    // The rejected rule left no claim behind
+    eventDetailService.saveEventDetail(EVENT_ID, venueId,
+        eventDetail(firstDate.plusDays(3), NINE, ELEVEN));
+  }
+
+
+  @Test
+  void eventDetailClashingWithAnOccurrenceIsRejected() {
+    long venueId = createVenue();
+    Long recurrenceId = recurrenceService
+        .saveRecurrence(EVENT_ID, venueId, recurrence("FREQ=WEEKLY")).getRecurrenceId();
+
+    BookingConflictException e = assertThrows(BookingConflictException.class,
+        () -> eventDetailService.saveEventDetail(EVENT_ID, venueId,
+            eventDetail(firstDate.plusWeeks(4), LocalTime.of(10, 0), LocalTime.of(12, 0))));
+
+    assertEquals(List.of(recurrenceId), e.getConflictingRecurrenceIds());
+    assertTrue(e.getConflictingEventDetailIds().isEmpty());
+
+    // Between the occurrences the venue is free
+    eventDetailService.saveEventDetail(EVENT_ID, venueId,
+        eventDetail(firstDate.plusWeeks(4).plusDays(1), NINE, ELEVEN));
+  }
+
+
+  @Test
+  void freeWindowsLeaveOccurrencesOut() {
+    long venueId = createVenue();
+    Long recurrenceId = recurrenceService
+        .saveRecurrence(EVENT_ID, venueId, recurrence("FREQ=DAILY;COUNT=3")).getRecurrenceId();
+
+    assertFalse(isFree(venueId, firstDate.plusDays(1)));
+    assertTrue(isFree(venueId, firstDate.plusDays(3)));
+
+    recurrenceService.cancelOccurrence(recurrenceId, firstDate.plusDays(1));
+    assertTrue(isFree(venueId, firstDate.plusDays(1)));
+    assertFalse(isFree(venueId, firstDate.plusDays(2)));
+
+    recurrenceService.deleteRecurrenceById(recurrenceId);
+    assertTrue(isFree(venueId, firstDate.plusDays(2)));
+  }
+
+
+  @Test
+  void overrideTakesOverTheBookingOfItsOccurrence() {
+    long venueId = createVenue();
+    Long recurrenceId = recurrenceService
+        .saveRecurrence(EVENT_ID, venueId, recurrence("FREQ=DAILY;COUNT=5")).getRecurrenceId();
+
+    // Same time as the occurrence it replaces, then moved later the same day
+    recurrenceService.overrideOccurrence(recurrenceId, firstDate, new EventDetailData());
+    EventDetailData moved = new EventDetailData();
+    moved.setStartTime(LocalTime.of(14, 0));
+    moved.setEndTime(LocalTime.of(16, 0));
+    recurrenceService.overrideOccurrence(recurrenceId, firstDate, moved);
+
+    assertTrue(isFree(venueId, firstDate));
+    eventDetailService.saveEventDetail(EVENT_ID, venueId, eventDetail(firstDate, NINE, ELEVEN));
+    eventDetailService.saveEventDetail(EVENT_ID, venueId,
+        eventDetail(firstDate.plusDays(2), ELEVEN, LocalTime.of(12, 0)));
+
+    // A modified rule is checked against the event details but not against its own occurrences
+    RecurrenceData later = recurrence("FREQ=DAILY;COUNT=5");
+    later.setRecurrenceId(recurrenceId);
+    later.setStartTime(LocalTime.of(10, 0));
+    later.setEndTime(LocalTime.of(12, 0));
+    assertThrows(BookingConflictException.class,
+        () -> recurrenceService.saveRecurrence(EVENT_ID, venueId, later));
+
+    later.setStartDate(firstDate.plusDays(3));
+    recurrenceService.saveRecurrence(EVENT_ID, venueId, later);
+    assertTrue(isFree(venueId, firstDate.plusDays(5), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    assertFalse(isFree(venueId, firstDate.plusDays(5), LocalTime.of(10, 0), LocalTime.of(12, 0)));
+  }
+
+
+  /**
+   * A method checks whether a venue is free on a date between nine and eleven.
+   */
+  private boolean isFree(long venueId, LocalDate date) {
+    return isFree(venueId, date, NINE, ELEVEN);
+  }
+
+
+  private boolean isFree(long venueId, LocalDate date, LocalTime start, LocalTime end) {
+    LocalDateTime from = date.atTime(start);
+    LocalDateTime to = date.atTime(end);
+    List<FreeWindowData> windows =
+        venueService.retrieveFreeWindows(venueId, date, date, Duration.ZERO);
+
+    return windows.stream().anyMatch(
+        window -> !window.getStart().isAfter(from) && !window.getEnd().isBefore(to));
+  }
+
+
+  private RecurrenceData recurrence(String rule) {
+    RecurrenceData recurrenceData = new RecurrenceData();
+    recurrenceData.setRule(rule);
+    recurrenceData.setStartDate(firstDate);
+    recurrenceData.setStartTime(NINE);
+    recurrenceData.setEndTime(ELEVEN);
+    recurrenceData.setIsFree(true);
+    recurrenceData.setAvailability(true);
+    return recurrenceData;
+  }
+
+
+  private EventDetailData eventDetail(LocalDate date, LocalTime start, LocalTime end) {
+    EventDetailData eventDetailData = new EventDetailData();
+    eventDetailData.setDate(date);
+    eventDetailData.setStartTime(start);
+    eventDetailData.setEndTime(end);
+    eventDetailData.setIsFree(true);
+    eventDetailData.setAvailability(true);
+    return eventDetailData;
+  }
+
+
+  private long createVenue() {
+    long venueId = nextVenueId.getAndIncrement();
+    jdbcTemplate.update("INSERT INTO venue (venue_id, venue_name, capacity) VALUES (?, ?, ?)",
+        venueId, "Recurrence venue " + venueId, 100);
+    return venueId;
+  }
+}
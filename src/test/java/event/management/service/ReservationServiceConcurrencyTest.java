@@ -0,0 +1,269 @@
+package event.management.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import event.management.controller.model.ReservationData;
+
+/**
+ * Runs reservations, cancellations, confirmations and expiries of the same event detail on many
+ * threads at once and checks the seat counts against the reservations afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReservationServiceConcurrencyTest {
+  private static final int THREADS = 24;
+  private static final long VENUE_ID = 800_001;
+  private static final long EVENT_ID = 800_001;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final AtomicLong nextId = new AtomicLong(VENUE_ID);
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+
+  @AfterAll
+  void stopExecutor() {
+    executor.shutdownNow();
+  }
+
+
+  @Test
+  void concurrentReservationsSellExactlyTheCapacity() throws Exception {
+    int capacity = 100;
+    long eventDetailId = createEventDetail(createVenue(capacity), LocalDate.now().plusDays(10),
+        true);
+
+    List<Integer> held = runConcurrently(THREADS, thread -> {
+      int seats = 0;
+      // Larger reservations until one is refused, then single seats take what is left
+      seats += reserveUntilSoldOut(eventDetailId, () -> ThreadLocalRandom.current().nextInt(1, 4));
+      seats += reserveUntilSoldOut(eventDetailId, () -> 1);
+      return seats;
+    });
+
+    assertEquals(capacity, held.stream().mapToInt(Integer::intValue).sum());
+    assertEquals(capacity, takenSeats(eventDetailId));
+    assertEquals(0, remainingSeats(eventDetailId));
+    assertNoStripeNegative(eventDetailId);
+  }
+
+
+  @Test
+  void concurrentReleasesReturnTheSeatsOnce() throws Exception {
+    int capacity = 30;
+    long eventDetailId = createEventDetail(createVenue(capacity), LocalDate.now().plusDays(10),
+        true);
+
+    Long cancelled = reserve(eventDetailId, 2).getReservationId();
+    Long expired = reserve(eventDetailId, 3).getReservationId();
+    Long confirmed = reserve(eventDetailId, 4).getReservationId();
+    jdbcTemplate.update("UPDATE seat_reservation SET expires_at = ? WHERE reservation_id = ?",
+        LocalDate.now().minusDays(1).atStartOfDay(), expired);
+
+    runConcurrently(THREADS, thread -> {
+      try {
+        switch (thread % 6) {
+          case 0, 1 -> reservationService.cancelReservation(cancelled);
+          case 2 -> reservationService.cancelReservation(expired);
+          case 3 -> reservationService.expireHolds();
+          case 4 -> reservationService.confirmReservation(confirmed);
+          default -> reservationService.cancelReservation(confirmed);
+        }
+      } catch (IllegalStateException e) {
+        // Confirming a reservation that was cancelled first
+      }
+      return 0;
+    });
+
+    assertEquals(0, takenSeats(eventDetailId));
+    assertEquals(capacity, remainingSeats(eventDetailId));
+    assertNoStripeNegative(eventDetailId);
+  }
+
+
+  @Test
+  void capacityChangesAndVenueMovesRecountTheSeats() throws Exception {
+    long venueId = createVenue(10);
+    long eventDetailId = createEventDetail(venueId, LocalDate.now().plusDays(10), true);
+
+    Long first = reserve(eventDetailId, 4).getReservationId();
+    reserve(eventDetailId, 2);
+
+    jdbcTemplate.update("UPDATE venue SET capacity = 7 WHERE venue_id = ?", venueId);
+    reserve(eventDetailId, 1);
+    assertSoldOut(eventDetailId);
+
+    // Fewer seats than already taken, none are left until enough are cancelled
+    jdbcTemplate.update("UPDATE venue SET capacity = 3 WHERE venue_id = ?", venueId);
+    assertSoldOut(eventDetailId);
+    assertNoStripeNegative(eventDetailId);
+    reservationService.cancelReservation(first);
+    assertSoldOut(eventDetailId);
+
+    jdbcTemplate.update("UPDATE event_detail SET venue_id = ? WHERE event_detail_id = ?",
+        createVenue(20), eventDetailId);
+    List<Integer> held = runConcurrently(THREADS,
+        thread -> reserveUntilSoldOut(eventDetailId, () -> 1));
+
+    assertEquals(17, held.stream().mapToInt(Integer::intValue).sum());
+    assertEquals(20, takenSeats(eventDetailId));
+    assertNoStripeNegative(eventDetailId);
+  }
+
+
+  @Test
+  void unavailableAndPastEventDetailsAreRejected() {
+    long venueId = createVenue(10);
+    long unavailable = createEventDetail(venueId, LocalDate.now().plusDays(10), false);
+    long past = createEventDetail(venueId, LocalDate.now().minusDays(1), true);
+    long closedLater = createEventDetail(venueId, LocalDate.now().plusDays(10), true);
+
+    assertThrows(IllegalStateException.class, () -> reserve(unavailable, 1));
+    assertThrows(IllegalStateException.class, () -> reserve(past, 1));
+
+    reserve(closedLater, 1);
+    jdbcTemplate.update("UPDATE event_detail SET availability = false WHERE event_detail_id = ?",
+        closedLater);
+    assertThrows(IllegalStateException.class, () -> reserve(closedLater, 1));
+  }
+
+
+  /**
+   * A method reserves seats as long as they are left.
+   *
+   * @param eventDetailId long
+   * @param quantity Callable returning the quantity of the next reservation
+   * @return the number of seats held.
+   */
+  private int reserveUntilSoldOut(long eventDetailId, Callable<Integer> quantity)
+      throws Exception {
+    int seats = 0;
+
+    while (true) {
+      int next = quantity.call();
+
+      try {
+        seats += reserve(eventDetailId, next).getQuantity();
+      } catch (IllegalStateException e) {
+        return seats;
+      }
+    }
+  }
+
+
+  /**
+   * A method runs a task on several threads that start together.
+   *
+   * @param threads int
+   * @param task Task
+   * @return the results in thread order.
+   */
+  private List<Integer> runConcurrently(int threads, Task task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Integer>> futures = new ArrayList<>();
+
+    for (int thread = 0; thread < threads; thread++) {
+      int index = thread;
+      futures.add(executor.submit(() -> {
+        start.await();
+        return task.run(index);
+      }));
+    }
+
+    start.countDown();
+    List<Integer> results = new ArrayList<>();
+
+    for (Future<Integer> future : futures) {
+      results.add(future.get());
+    }
+
+    return results;
+  }
+
+
+  private ReservationData reserve(long eventDetailId, int quantity) {
+    ReservationData reservationData = new ReservationData();
+    reservationData.setQuantity(quantity);
+    return reservationService.reserveSeats(eventDetailId, reservationData);
+  }
+
+
+  private void assertSoldOut(long eventDetailId) {
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> reserve(eventDetailId, 1));
+    assertTrue(e.getMessage().startsWith("Fewer than"), e.getMessage());
+  }
+
+
+  private void assertNoStripeNegative(long eventDetailId) {
+    assertEquals(0, jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM seat_stripe WHERE event_detail_id = ? AND remaining < 0",
+        Integer.class, eventDetailId));
+  }
+
+
+  private int remainingSeats(long eventDetailId) {
+    return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(remaining), 0) FROM seat_stripe"
+        + " WHERE event_detail_id = ?", Integer.class, eventDetailId);
+  }
+
+
+  private int takenSeats(long eventDetailId) {
+    return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM seat_reservation"
+        + " WHERE event_detail_id = ? AND status IN ('HELD', 'CONFIRMED')", Integer.class,
+        eventDetailId);
+  }
+
+
+  private long createVenue(int capacity) {
+    long venueId = nextId.getAndIncrement();
+    jdbcTemplate.update("INSERT INTO venue (venue_id, venue_name, capacity) VALUES (?, ?, ?)",
+        venueId, "Reservation venue " + venueId, capacity);
+    return venueId;
+  }
+
+
+  private long createEventDetail(long venueId, LocalDate date, boolean availability) {
+    if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event WHERE event_id = ?",
+        Integer.class, EVENT_ID) == 0) {
+      jdbcTemplate.update("INSERT INTO event (event_id, event_name) VALUES (?, ?)", EVENT_ID,
+          "Reservation event");
+    }
+
+    long eventDetailId = nextId.getAndIncrement();
+    jdbcTemplate.update("INSERT INTO event_detail (event_detail_id, event_id, venue_id, date,"
+        + " start_time, end_time, availability) VALUES (?, ?, ?, ?, '19:00', '21:00', ?)",
+        eventDetailId, EVENT_ID, venueId, date, availability);
+    return eventDetailId;
+  }
+
+
+  @FunctionalInterface
+  private interface Task {
+    int run(int thread) throws Exception;
+  }
+}
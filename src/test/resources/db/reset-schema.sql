@@ -0,0 +1,6 @@
+-- Empties the test database before the migrations in db/migration build the schema again
+SET FOREIGN_KEY_CHECKS = 0;
+DROP TABLE IF EXISTS flyway_schema_history, id_generator, category, event, venue, event_category,
+  event_detail, import_job, event_deletion_job, seat_stripe, seat_reservation, recurrence,
+  recurrence_exception;
+SET FOREIGN_KEY_CHECKS = 1;